@@ -6,6 +6,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import br.com.smartvalidity.exception.SmartValidityException;
 import br.com.smartvalidity.model.entity.Usuario;
@@ -15,9 +17,14 @@ import br.com.smartvalidity.model.repository.UsuarioRepository;
 @Service
 public class AuthenticationService {
 
+    private static final String ATRIBUTO_USUARIO = AuthenticationService.class.getName() + ".usuario";
+
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private UsuarioAutenticadoCache usuarioAutenticadoCache;
+
     private final JwtService jwtService;
 
     public AuthenticationService(JwtService jwtService) {
@@ -32,12 +39,19 @@ public class AuthenticationService {
             if (u.getStatus() == StatusUsuario.PENDENTE) {
                 u.setStatus(StatusUsuario.ATIVO);
                 usuarioRepository.save(u);
+                usuarioAutenticadoCache.invalidar(u.getId());
             }
         });
 
         return token;
     }
 
+    /**
+     * Usuário do token, resolvido uma vez por requisição a partir do {@link UsuarioAutenticadoCache};
+     * o banco só é consultado quando a entrada expira ou foi invalidada. O objeto devolvido é um
+     * resumo sem senha, fora do contexto de persistência: compare usuários pelo id (nunca por
+     * instância), e quem precisar alterar e salvar o usuário deve carregá-lo pelo id.
+     */
     public Usuario getUsuarioAutenticado() throws SmartValidityException {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
@@ -47,19 +61,41 @@ public class AuthenticationService {
 
         Object principal = authentication.getPrincipal();
 
-        if (principal instanceof Jwt) {
-            String email = ((Jwt) principal).getSubject();
-            System.out.println("email value:" + email);
-            
-            try {
-                Usuario usuario = usuarioRepository.findByEmail(email)
-                    .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado!"));
+        if (principal instanceof Jwt jwt) {
+            RequestAttributes requisicao = RequestContextHolder.getRequestAttributes();
+            if (requisicao != null
+                    && requisicao.getAttribute(ATRIBUTO_USUARIO, RequestAttributes.SCOPE_REQUEST) instanceof Usuario usuario) {
                 return usuario;
+            }
+
+            Usuario usuario = resolverUsuario(jwt);
+            if (requisicao != null) {
+                requisicao.setAttribute(ATRIBUTO_USUARIO, usuario, RequestAttributes.SCOPE_REQUEST);
+            }
+            return usuario;
+        }
+
+        throw new SmartValidityException("Token de autenticação inválido!");
+    }
+
+    private Usuario resolverUsuario(Jwt jwt) throws SmartValidityException {
+        String email = jwt.getSubject();
+        Usuario usuario = usuarioAutenticadoCache.buscar(email);
+        if (usuario == null) {
+            long versao = usuarioAutenticadoCache.versao();
+            try {
+                usuario = usuarioAutenticadoCache.guardar(email, usuarioRepository.findByEmail(email)
+                        .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado!")), versao);
             } catch (UsernameNotFoundException e) {
                 throw new SmartValidityException("Usuário não encontrado!");
             }
         }
 
-        throw new SmartValidityException("Token de autenticação inválido!");
+        // token emitido para uma conta excluída e recriada com o mesmo e-mail
+        String idUsuario = jwt.getClaimAsString("idUsuario");
+        if (idUsuario != null && !idUsuario.equals(usuario.getId())) {
+            throw new SmartValidityException("Token de autenticação inválido!");
+        }
+        return usuario;
     }
 }
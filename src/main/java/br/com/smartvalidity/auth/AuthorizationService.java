@@ -1,5 +1,7 @@
 package br.com.smartvalidity.auth;
 
+import java.util.Objects;
+
 import br.com.smartvalidity.exception.SmartValidityException;
 import br.com.smartvalidity.model.entity.Usuario;
 import br.com.smartvalidity.model.enums.PerfilAcesso;
@@ -30,7 +32,7 @@ public class AuthorizationService {
 
         Usuario usuarioAutenticado = authenticationService.getUsuarioAutenticado();
 
-        if (usuarioAutenticado.getId() != usuarioURL.getId() && usuarioAutenticado.getPerfilAcesso() != PerfilAcesso.ASSINANTE) {
+        if (!Objects.equals(usuarioAutenticado.getId(), usuarioURL.getId()) && usuarioAutenticado.getPerfilAcesso() != PerfilAcesso.ASSINANTE) {
             throw new SmartValidityException("Somente o portador da conta pode executar essa ação!");
         }
     }
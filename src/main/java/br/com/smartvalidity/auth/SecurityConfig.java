@@ -3,7 +3,9 @@ package br.com.smartvalidity.auth;
 
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -11,7 +13,10 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
@@ -28,16 +33,30 @@ import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
+import lombok.extern.slf4j.Slf4j;
+
 @Configuration
 @EnableWebSecurity
+@Slf4j
 public class SecurityConfig {
 
+    private static final String RSA_LEGADO = "rsa";
+
     @Value("${jwt.public.key}")
     private RSAPublicKey publicKey;
 
     @Value("${jwt.private.key}")
     private RSAPrivateKey privateKey;
 
+    @Value("${auth.senha.algoritmo:bcrypt}")
+    private String algoritmoSenha;
+
+    @Value("${auth.senha.bcrypt.custo:10}")
+    private int custoBcrypt;
+
+    @Value("${auth.senha.latencia-alvo-ms:100}")
+    private long latenciaAlvoMs;
+
     @Bean
     SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         //Stateless -> não guarda o estado da aplicação (padrão usado no REST)
@@ -93,9 +112,43 @@ public class SecurityConfig {
         return new NimbusJwtEncoder(jwks);
     }
 
+    /**
+     * Senhas novas usam o algoritmo de auth.senha.algoritmo, com o id como prefixo ({bcrypt}...).
+     * As antigas, cifradas com RSA e sem prefixo, continuam sendo aceitas; a cada login bem
+     * sucedido o {@link br.com.smartvalidity.service.UsuarioService} regrava a senha no algoritmo atual.
+     */
     @Bean
     PasswordEncoder passwordEncoder() {
-        return new RSAPasswordEncoder(publicKey, privateKey);
+        RSAPasswordEncoder rsa = new RSAPasswordEncoder(publicKey, privateKey);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(custoBcrypt));
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        encoders.put(RSA_LEGADO, rsa);
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algoritmoSenha, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(rsa);
+        medirCusto(encoders.get(algoritmoSenha));
+        return encoder;
+    }
+
+    /**
+     * Mede o custo de um hash no hardware atual e avisa se estiver longe da latência alvo,
+     * para ajustar auth.senha.bcrypt.custo (cada ponto dobra o tempo).
+     */
+    private void medirCusto(PasswordEncoder encoder) {
+        long menorMs = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long inicio = System.nanoTime();
+            encoder.encode("calibracao-de-custo");
+            menorMs = Math.min(menorMs, (System.nanoTime() - inicio) / 1_000_000);
+        }
+        if (menorMs > latenciaAlvoMs * 2 || menorMs < latenciaAlvoMs / 2) {
+            log.warn("Hash de senha ({}) levou {} ms, longe do alvo de {} ms; ajuste auth.senha.bcrypt.custo",
+                    algoritmoSenha, menorMs, latenciaAlvoMs);
+        } else {
+            log.info("Hash de senha ({}) levou {} ms (alvo {} ms)", algoritmoSenha, menorMs, latenciaAlvoMs);
+        }
     }
 
 }
@@ -0,0 +1,147 @@
+package br.com.smartvalidity.auth;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.com.smartvalidity.model.entity.Empresa;
+import br.com.smartvalidity.model.entity.Usuario;
+
+/**
+ * Cópias resumidas dos usuários autenticados, por subject do token, com validade curta e
+ * tamanho limitado. Guarda só os dados usados nas verificações de acesso (sem senha nem
+ * coleções) e entrega sempre uma cópia nova, que o chamador pode alterar à vontade.
+ * O {@link br.com.smartvalidity.service.UsuarioService} descarta a entrada quando o perfil
+ * muda; nas outras réplicas, a validade limita quanto tempo o dado antigo sobrevive.
+ */
+@Component
+public class UsuarioAutenticadoCache {
+
+    @Value("${auth.usuario-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${auth.usuario-cache.max-entradas:1000}")
+    private int maxEntradas;
+
+    private final AtomicLong versao = new AtomicLong();
+
+    private final Map<String, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntiga) {
+            return size() > maxEntradas;
+        }
+    };
+
+    /**
+     * Cópia do usuário do subject, ou null se não estiver no cache ou tiver expirado.
+     */
+    public Usuario buscar(String subject) {
+        Entrada entrada;
+        synchronized (entradas) {
+            entrada = entradas.get(subject);
+            if (entrada != null && entrada.expiraEm < System.currentTimeMillis()) {
+                entradas.remove(subject);
+                entrada = null;
+            }
+        }
+        return entrada != null ? copiar(entrada.usuario) : null;
+    }
+
+    /**
+     * Versão a ler antes de carregar o usuário do banco e repassar a {@link #guardar}.
+     */
+    public long versao() {
+        return versao.get();
+    }
+
+    /**
+     * Guarda o usuário carregado do banco e devolve a cópia a ser usada pela requisição. Se
+     * houve invalidação durante a carga, o resultado pode estar desatualizado e não é guardado.
+     */
+    public Usuario guardar(String subject, Usuario usuario, long versaoCarga) {
+        Entrada entrada = new Entrada(copiar(usuario), System.currentTimeMillis() + ttlMs);
+        synchronized (entradas) {
+            if (versao.get() == versaoCarga) {
+                entradas.put(subject, entrada);
+            }
+        }
+        return copiar(entrada.usuario);
+    }
+
+    /**
+     * Descarta o usuário; dentro de uma transação, de novo depois do commit, para que uma
+     * leitura concorrente não guarde o dado anterior à alteração.
+     */
+    public void invalidar(String usuarioId) {
+        if (usuarioId == null) {
+            return;
+        }
+        aposCommit(() -> descartar(usuarioId));
+        descartar(usuarioId);
+    }
+
+    public void invalidarTodos() {
+        aposCommit(this::descartarTodos);
+        descartarTodos();
+    }
+
+    private void descartar(String usuarioId) {
+        synchronized (entradas) {
+            versao.incrementAndGet();
+            entradas.values().removeIf(entrada -> usuarioId.equals(entrada.usuario.getId()));
+        }
+    }
+
+    private void descartarTodos() {
+        synchronized (entradas) {
+            versao.incrementAndGet();
+            entradas.clear();
+        }
+    }
+
+    private void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        }
+    }
+
+    private static Usuario copiar(Usuario origem) {
+        Usuario copia = new Usuario();
+        copia.setId(origem.getId());
+        copia.setPerfilAcesso(origem.getPerfilAcesso());
+        copia.setNome(origem.getNome());
+        copia.setEmail(origem.getEmail());
+        copia.setCargo(origem.getCargo());
+        copia.setDataCriacao(origem.getDataCriacao());
+        copia.setStatus(origem.getStatus());
+        if (origem.getEmpresa() != null) {
+            // sem a lista de usuários, que é lazy e não pode ser lida fora da sessão
+            Empresa empresa = new Empresa();
+            empresa.setId(origem.getEmpresa().getId());
+            empresa.setCnpj(origem.getEmpresa().getCnpj());
+            empresa.setRazaoSocial(origem.getEmpresa().getRazaoSocial());
+            copia.setEmpresa(empresa);
+        }
+        return copia;
+    }
+
+    private static class Entrada {
+        private final Usuario usuario;
+        private final long expiraEm;
+
+        private Entrada(Usuario usuario, long expiraEm) {
+            this.usuario = usuario;
+            this.expiraEm = expiraEm;
+        }
+    }
+}
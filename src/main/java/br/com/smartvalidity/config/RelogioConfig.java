@@ -0,0 +1,22 @@
+package br.com.smartvalidity.config;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RelogioConfig {
+
+    /**
+     * Relógio no fuso da loja. As datas de vencimento são horários locais da loja, então todo
+     * "agora" ou "hoje" comparado com elas (abas do mural, índice, alertas) vem daqui, e não do
+     * fuso da JVM.
+     */
+    @Bean
+    public Clock relogio(@Value("${alertas.fuso-horario:America/Sao_Paulo}") ZoneId fusoHorario) {
+        return Clock.system(fusoHorario);
+    }
+}
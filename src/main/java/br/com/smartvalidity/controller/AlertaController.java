@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 import br.com.smartvalidity.exception.SmartValidityException;
 import br.com.smartvalidity.model.dto.AlertaDTO;
 import br.com.smartvalidity.service.AlertaService;
+import br.com.smartvalidity.service.LeaseService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +34,9 @@ public class AlertaController {
     @Autowired
     private AlertaService alertaService;
 
+    @Autowired
+    private LeaseService leaseService;
+
     @PostMapping("/legacy")
     public ResponseEntity<AlertaDTO.Response> create(@RequestBody AlertaDTO.Request dto) {
         return ResponseEntity.ok(alertaService.create(dto));
@@ -103,6 +107,12 @@ public class AlertaController {
         return ResponseEntity.ok(lista);
     }
 
+    @PostMapping("/filtro-cursor")
+    @Operation(summary = "Listar alertas com filtros usando paginação por cursor")
+    public ResponseEntity<AlertaDTO.Pagina> listarComFiltroPorCursor(@RequestBody AlertaDTO.Filtro filtro) throws SmartValidityException {
+        return ResponseEntity.ok(alertaService.filtrarAlertasPorCursor(filtro));
+    }
+
     @PostMapping("/contar-registros")
     @Operation(summary = "Contar alertas com filtros")
     public ResponseEntity<Long> contarRegistros(@RequestBody AlertaDTO.Filtro filtro) {
@@ -138,6 +148,11 @@ public class AlertaController {
         return ResponseEntity.ok(alertas);
     }
 
+    @GetMapping("/agendamento/metricas")
+    public ResponseEntity<List<AlertaDTO.LeaseMetricas>> getMetricasAgendamento() {
+        return ResponseEntity.ok(leaseService.getMetricas());
+    }
+
     @GetMapping("/ativos")
     public ResponseEntity<List<AlertaDTO.Listagem>> buscarAlertasAtivos() {
         List<AlertaDTO.Listagem> alertas = alertaService.buscarAlertasAtivos();
@@ -1,5 +1,7 @@
 package br.com.smartvalidity.controller;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,12 +16,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import br.com.smartvalidity.auth.AuthenticationService;
 import br.com.smartvalidity.exception.SmartValidityException;
 import br.com.smartvalidity.model.dto.MuralDTO;
+import br.com.smartvalidity.model.enums.FormatoRelatorio;
 import br.com.smartvalidity.service.MuralService;
-import lombok.Data;
+import br.com.smartvalidity.service.RelatorioJobService;
 
 @RestController
 @RequestMapping("/mural")
@@ -29,6 +35,12 @@ public class MuralController {
     @Autowired
     private MuralService muralService;
 
+    @Autowired
+    private RelatorioJobService relatorioJobService;
+
+    @Autowired
+    private AuthenticationService authService;
+
     @GetMapping("/proximos-vencer")
     public ResponseEntity<List<MuralDTO.Listagem>> getProximosVencer() {
         return ResponseEntity.ok(muralService.getProximosVencer());
@@ -44,6 +56,11 @@ public class MuralController {
         return ResponseEntity.ok(muralService.getVencidos());
     }
 
+    @GetMapping("/indice-vencimento/metricas")
+    public ResponseEntity<MuralDTO.IndiceVencimentoMetricas> getMetricasIndiceVencimento() {
+        return ResponseEntity.ok(muralService.getMetricasIndiceVencimento());
+    }
+
     @GetMapping("/motivos-inspecao")
     public ResponseEntity<List<String>> getMotivosInspecaoValidos() {
         return ResponseEntity.ok(muralService.getMotivosInspecaoValidos());
@@ -75,16 +92,25 @@ public class MuralController {
         }
     }
     
+    /**
+     * Sem o parâmetro detalhado mantém a resposta original (lista de itens).
+     * Com detalhado=true devolve também o resultado de cada id (atualizado,
+     * já inspecionado ou não encontrado) e os totais.
+     */
     @PutMapping("/inspecionar-lote")
-    public ResponseEntity<?> marcarVariosInspecionados(@RequestBody MuralDTO.InspecaoLoteRequest request) {
+    public ResponseEntity<?> marcarVariosInspecionados(@RequestBody MuralDTO.InspecaoLoteRequest request,
+            @RequestParam(defaultValue = "false") boolean detalhado) {
         try {
-            List<MuralDTO.Listagem> itensAtualizados = muralService.marcarVariosInspecionados(
+            MuralDTO.InspecaoLoteResposta resposta = muralService.marcarVariosInspecionados(
                 request.getIds(),
                 request.getMotivo(),
                 request.getMotivoCustomizado(),
                 request.getUsuarioInspecao()
             );
-            return ResponseEntity.ok(itensAtualizados);
+            if (detalhado) {
+                return ResponseEntity.ok(resposta);
+            }
+            return ResponseEntity.ok(resposta.getItens());
         } catch (SmartValidityException e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("message", e.getMessage());
@@ -108,10 +134,28 @@ public class MuralController {
         }
     }
     
+    /**
+     * Sem o parâmetro incluirTotal mantém a resposta original (lista de itens).
+     * Com incluirTotal=true devolve a página e o total em uma única chamada;
+     * com incluirTotal=false devolve a página sem executar o COUNT.
+     */
     @PostMapping("/filtrar")
-    public ResponseEntity<List<MuralDTO.Listagem>> buscarComFiltro(@RequestBody MuralDTO.Filtro filtro) {
+    public ResponseEntity<?> buscarComFiltro(@RequestBody MuralDTO.Filtro filtro,
+            @RequestParam(required = false) Boolean incluirTotal) {
+        if (incluirTotal != null) {
+            return ResponseEntity.ok(muralService.buscarPaginaComFiltro(filtro, incluirTotal));
+        }
         return ResponseEntity.ok(muralService.buscarComFiltro(filtro));
     }
+
+    /**
+     * Paginação por cursor: envie o proximoCursor da resposta anterior no campo
+     * cursor do filtro para obter a página seguinte.
+     */
+    @PostMapping("/filtrar-cursor")
+    public ResponseEntity<MuralDTO.Pagina> buscarPorCursor(@RequestBody MuralDTO.Filtro filtro) throws SmartValidityException {
+        return ResponseEntity.ok(muralService.buscarPaginaPorCursor(filtro));
+    }
     
     @PostMapping("/contar-paginas")
     public ResponseEntity<Integer> contarPaginas(@RequestBody MuralDTO.Filtro filtro) {
@@ -125,16 +169,6 @@ public class MuralController {
         return ResponseEntity.ok(totalRegistros);
     }
     
-    @Data
-    public static class FiltroOpcoesResponse {
-        private List<String> marcas;
-        private List<String> corredores;
-        private List<String> categorias;
-        private List<String> fornecedores;
-        private List<String> lotes;
-        private List<String> usuariosInspecao;
-    }
-    
     @GetMapping("/usuarios-inspecao")
     public ResponseEntity<List<String>> getUsuariosInspecao() {
         List<String> usuarios = muralService.getUsuariosInspecaoDisponiveis();
@@ -142,15 +176,8 @@ public class MuralController {
     }
     
     @GetMapping("/filtro-opcoes")
-    public ResponseEntity<FiltroOpcoesResponse> getFiltroOpcoes() {
-        FiltroOpcoesResponse response = new FiltroOpcoesResponse();
-        response.setMarcas(muralService.getMarcasDisponiveis());
-        response.setCorredores(muralService.getCorredoresDisponiveis());
-        response.setCategorias(muralService.getCategoriasDisponiveis());
-        response.setFornecedores(muralService.getFornecedoresDisponiveis());
-        response.setLotes(muralService.getLotesDisponiveis());
-        response.setUsuariosInspecao(muralService.getUsuariosInspecaoDisponiveis());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<MuralDTO.FiltroOpcoes> getFiltroOpcoes() {
+        return ResponseEntity.ok(muralService.getFiltroOpcoes());
     }
     
     @PostMapping("/buscar-por-ids")
@@ -163,14 +190,25 @@ public class MuralController {
         }
     }
     
+    /**
+     * A planilha é validada antes e depois escrita diretamente na resposta, sem
+     * montar o arquivo inteiro em memória.
+     */
     @PostMapping("/relatorio")
     public ResponseEntity<?> gerarRelatorio(@RequestBody MuralDTO.RelatorioRequest request) {
         try {
-            byte[] relatorio = muralService.gerarRelatorioExcel(request);
+            MuralDTO.RelatorioPreparado preparado = muralService.prepararRelatorio(request);
+            StreamingResponseBody relatorio = saida -> {
+                try {
+                    muralService.escreverRelatorio(request, preparado, saida);
+                } catch (SmartValidityException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+            };
             
             return ResponseEntity.ok()
-                .header("Content-Type", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
-                .header("Content-Disposition", "attachment; filename=relatorio-mural.xlsx")
+                .header("Content-Type", preparado.getFormato().getContentType())
+                .header("Content-Disposition", "attachment; filename=relatorio-mural." + preparado.getFormato().getExtensao())
                 .body(relatorio);
         } catch (SmartValidityException e) {
             Map<String, Object> errorResponse = new HashMap<>();
@@ -186,6 +224,36 @@ public class MuralController {
         }
     }
     
+    /**
+     * Solicita a geração do relatório em segundo plano; acompanhe pelo id retornado.
+     */
+    @PostMapping("/relatorio/jobs")
+    public ResponseEntity<MuralDTO.RelatorioJob> solicitarRelatorio(@RequestBody MuralDTO.RelatorioRequest request)
+            throws SmartValidityException {
+        String usuarioId = authService.getUsuarioAutenticado().getId();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(relatorioJobService.solicitar(request, usuarioId));
+    }
+
+    @GetMapping("/relatorio/jobs/{id}")
+    public ResponseEntity<MuralDTO.RelatorioJob> consultarRelatorio(@PathVariable String id) throws SmartValidityException {
+        String usuarioId = authService.getUsuarioAutenticado().getId();
+        return ResponseEntity.ok(relatorioJobService.consultar(id, usuarioId));
+    }
+
+    @GetMapping("/relatorio/jobs/{id}/download")
+    public ResponseEntity<StreamingResponseBody> baixarRelatorio(@PathVariable String id)
+            throws SmartValidityException, IOException {
+        String usuarioId = authService.getUsuarioAutenticado().getId();
+        long tamanho = Files.size(relatorioJobService.buscarArquivoConcluido(id, usuarioId));
+        FormatoRelatorio formato = relatorioJobService.consultar(id, usuarioId).getFormato();
+        StreamingResponseBody arquivo = saida -> relatorioJobService.escreverArquivo(id, usuarioId, saida);
+        return ResponseEntity.ok()
+            .header("Content-Type", formato.getContentType())
+            .header("Content-Disposition", "attachment; filename=relatorio-mural." + formato.getExtensao())
+            .contentLength(tamanho)
+            .body(arquivo);
+    }
+    
     @PostMapping("/cancelar-selecao")
     public ResponseEntity<?> cancelarSelecao(@RequestBody List<String> ids) {
         muralService.cancelarSelecao(ids);
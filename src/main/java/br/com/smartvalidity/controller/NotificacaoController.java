@@ -3,6 +3,7 @@ package br.com.smartvalidity.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,7 +11,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import br.com.smartvalidity.exception.SmartValidityException;
 import br.com.smartvalidity.model.dto.AlertaDTO;
@@ -30,6 +33,15 @@ public class NotificacaoController {
         return ResponseEntity.ok(notificacoes);
     }
 
+    /**
+     * Notificações paginadas por cursor; o proximoCursor da resposta busca a página seguinte.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<AlertaDTO.Pagina> buscarNotificacoesPorCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limite) throws SmartValidityException {
+        return ResponseEntity.ok(notificacaoService.buscarNotificacoesDoUsuarioAutenticado(cursor, limite));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<AlertaDTO.Listagem> buscarNotificacaoPorId(@PathVariable Long id) throws SmartValidityException {
         AlertaDTO.Listagem notificacao = notificacaoService.buscarNotificacaoPorIdDoUsuarioAutenticado(id);
@@ -46,18 +58,47 @@ public class NotificacaoController {
         return ResponseEntity.ok(notificacoes);
     }
 
+    @GetMapping("/pendentes/cursor")
+    public ResponseEntity<AlertaDTO.Pagina> buscarNotificacoesPendentesPorCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limite) throws SmartValidityException {
+        return ResponseEntity.ok(notificacaoService.buscarNotificacoesPendentesDoUsuarioAutenticado(cursor, limite));
+    }
+
     @GetMapping("/ja-resolvidas")
     public ResponseEntity<List<AlertaDTO.Listagem>> buscarNotificacoesJaResolvidas() throws SmartValidityException {
         List<AlertaDTO.Listagem> notificacoes = notificacaoService.buscarNotificacoesProdutosInspecionadosDoUsuarioAutenticado();
         return ResponseEntity.ok(notificacoes);
     }
 
+    /**
+     * Histórico de resolvidas paginado por cursor, juntando notificações ativas e arquivadas.
+     */
+    @GetMapping("/ja-resolvidas/cursor")
+    public ResponseEntity<AlertaDTO.Pagina> buscarNotificacoesJaResolvidasPorCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limite) throws SmartValidityException {
+        return ResponseEntity.ok(notificacaoService.buscarNotificacoesProdutosInspecionadosDoUsuarioAutenticado(cursor, limite));
+    }
+
     @GetMapping("/personalizadas")
     public ResponseEntity<List<AlertaDTO.Listagem>> buscarNotificacoesPersonalizadas() throws SmartValidityException {
         List<AlertaDTO.Listagem> notificacoes = notificacaoService.buscarNotificacoesPersonalizadasDoUsuarioAutenticado();
         return ResponseEntity.ok(notificacoes);
     }
 
+    @GetMapping("/personalizadas/cursor")
+    public ResponseEntity<AlertaDTO.Pagina> buscarNotificacoesPersonalizadasPorCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limite) throws SmartValidityException {
+        return ResponseEntity.ok(notificacaoService.buscarNotificacoesPersonalizadasDoUsuarioAutenticado(cursor, limite));
+    }
+
+    /**
+     * Stream SSE com as alterações de notificações e os contadores do sininho.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() throws SmartValidityException {
+        return notificacaoService.abrirStreamDoUsuarioAutenticado();
+    }
+
     @GetMapping("/count-pendentes")
     public ResponseEntity<Long> contarNotificacoesPendentes() throws SmartValidityException {
         Long count = notificacaoService.contarNotificacoesPendentesDoUsuarioAutenticado();
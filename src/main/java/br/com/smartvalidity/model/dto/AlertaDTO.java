@@ -66,12 +66,36 @@ public class AlertaDTO {
         private int limite = 10;
         private String sortBy = "dataCriacao";
         private String sortDirection = "desc";
+        private String cursor;
         // Campos de recorrência removidos - alertas personalizados são mais simples
         public boolean temPaginacao() {
             return limite > 0 && pagina > 0;
         }
     }
     @Data
+    public static class Pagina {
+        private List<Listagem> itens;
+        private int limite;
+        private boolean temProximaPagina;
+        private String proximoCursor;
+    }
+    @Data
+    public static class LeaseMetricas {
+        private String nome;
+        // nó que respondeu a consulta
+        private String no;
+        private String detentor;
+        private boolean detentorEsteNo;
+        private LocalDateTime expiraEm;
+        private LocalDateTime dataHoraAquisicao;
+        private long execucoes;
+        // execuções puladas por outro nó deter a concessão
+        private long execucoesPuladas;
+        private long aquisicoes;
+        private long ultimaLatenciaAquisicaoMs;
+        private long maiorLatenciaAquisicaoMs;
+    }
+    @Data
     public static class Request {
         private String titulo;
         private String descricao;
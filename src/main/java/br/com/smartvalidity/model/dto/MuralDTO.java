@@ -2,7 +2,11 @@ package br.com.smartvalidity.model.dto;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
+import br.com.smartvalidity.model.enums.FormatoRelatorio;
+import br.com.smartvalidity.model.enums.ResultadoInspecao;
+import br.com.smartvalidity.model.enums.SituacaoRelatorio;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -33,6 +37,34 @@ public class MuralDTO {
         private LocalDateTime dataHoraInspecao;
     }
 
+    /**
+     * Linha plana do mural preenchida diretamente pela consulta (expressão construtora),
+     * sem carregar as entidades; a ordem dos campos é a ordem do construtor.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ListagemProjecao {
+        private String id;
+        private String produtoId;
+        private String produtoDescricao;
+        private String codigoBarras;
+        private String marca;
+        private String unidadeMedida;
+        private String categoria;
+        private String corredor;
+        private String fornecedor;
+        private LocalDateTime dataVencimento;
+        private LocalDateTime dataFabricacao;
+        private LocalDateTime dataRecebimento;
+        private String lote;
+        private Double precoVenda;
+        private Boolean inspecionado;
+        private String motivoInspecao;
+        private String usuarioInspecao;
+        private LocalDateTime dataHoraInspecao;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -46,7 +78,7 @@ public class MuralDTO {
         private String unidadeMedida;
     }
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class Filtro {
@@ -77,6 +109,7 @@ public class MuralDTO {
         private String status;
         private Integer pagina;
         private Integer limite;
+        private String cursor;
         
         public boolean temPaginacao() {
             return this.limite != null && this.limite > 0 && this.pagina != null && this.pagina > 0;
@@ -153,6 +186,52 @@ public class MuralDTO {
         }
     }
 
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pagina {
+        private List<Listagem> itens;
+        private Integer pagina;
+        private Integer limite;
+        private Long totalRegistros;
+        private Integer totalPaginas;
+        private Boolean temProximaPagina;
+        private String proximoCursor;
+    }
+
+    /**
+     * Opções disponíveis para cada filtro do mural; contagens traz, por faceta,
+     * a quantidade de itens de cada opção (ex.: contagens.corredores["Corredor 3"] = 42).
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FiltroOpcoes {
+        private List<String> marcas;
+        private List<String> corredores;
+        private List<String> categorias;
+        private List<String> fornecedores;
+        private List<String> lotes;
+        private List<String> usuariosInspecao;
+        private Map<String, Map<String, Long>> contagens;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IndiceVencimentoMetricas {
+        private Integer totalItens;
+        private Integer totalDias;
+        private Long tempoUltimaReconstrucaoMs;
+        private LocalDateTime dataHoraUltimaReconstrucao;
+        private Long consultasProximosVencer;
+        private Long consultasVencemHoje;
+        private Long itensRetornados;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -173,6 +252,29 @@ public class MuralDTO {
         private String usuarioInspecao;
     }
 
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InspecaoLoteResultado {
+        private String id;
+        private ResultadoInspecao resultado;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InspecaoLoteResposta {
+        /** Itens encontrados (atualizados ou já inspecionados), na ordem solicitada */
+        private List<Listagem> itens;
+        /** Resultado de cada id informado */
+        private List<InspecaoLoteResultado> resultados;
+        private int atualizados;
+        private int jaInspecionados;
+        private int naoEncontrados;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -182,6 +284,34 @@ public class MuralDTO {
         private List<String> ids;
         private MuralDTO.Filtro filtro;
         private String status;
+        /** xlsx (padrão), csv ou ndjson */
+        private String formato;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RelatorioPreparado {
+        private String titulo;
+        private Long totalItens;
+        private FormatoRelatorio formato;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RelatorioJob {
+        private String id;
+        private SituacaoRelatorio situacao;
+        private FormatoRelatorio formato;
+        private Long linhasEscritas;
+        private Long totalLinhas;
+        private String mensagem;
+        private LocalDateTime dataHoraCriacao;
+        private LocalDateTime dataHoraConclusao;
+        private LocalDateTime dataHoraExpiracao;
     }
 
     public enum TipoRelatorio {
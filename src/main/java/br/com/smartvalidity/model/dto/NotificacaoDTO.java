@@ -1,10 +1,15 @@
 package br.com.smartvalidity.model.dto;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import br.com.smartvalidity.model.enums.TipoAlerta;
+import br.com.smartvalidity.model.enums.TipoEventoNotificacao;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 public class NotificacaoDTO {
 
@@ -28,4 +33,33 @@ public class NotificacaoDTO {
         private Boolean itemInspecionado;
         private String motivoInspecao;
     }
-}
\ No newline at end of file
+
+    /**
+     * Evento interno publicado quando notificações mudam; usuarios nulo significa todos.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Alteracao {
+        private TipoEventoNotificacao tipo;
+        private Collection<String> usuarios;
+        private Collection<Integer> alertas;
+        private Long notificacaoId;
+    }
+
+    /**
+     * Evento enviado pelo stream de notificações, já com os contadores atuais do usuário.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Evento {
+        private TipoEventoNotificacao tipo;
+        private Collection<Integer> alertas;
+        private Long notificacaoId;
+        private long pendentes;
+        private long naoLidas;
+    }
+}
@@ -3,6 +3,8 @@ package br.com.smartvalidity.model.entity;
 import java.time.LocalDateTime;
 import java.util.Set;
 
+import org.hibernate.annotations.BatchSize;
+
 import br.com.smartvalidity.model.enums.TipoAlerta;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -11,6 +13,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -20,7 +23,12 @@ import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
-@Table(name = "alerta")
+@Table(name = "alerta", indexes = {
+    // suporta a paginação por cursor dos alertas, ordenada por (data_hora_criacao, id)
+    @Index(name = "idx_alerta_excluido_criacao_id", columnList = "excluido, data_hora_criacao, id"),
+    // verificação de alerta vigente por item na varredura de vencimentos
+    @Index(name = "idx_alerta_item_excluido_tipo", columnList = "id_item_produto, excluido, tipo")
+})
 @Data
 public class Alerta {
 
@@ -53,7 +61,9 @@ public class Alerta {
     @JoinColumn(name = "id_usuario_criador")
     private Usuario usuarioCriador;
 
+    // carregadas em lote para todos os alertas de uma página de listagem
     @ManyToMany
+    @BatchSize(size = 50)
     @JoinTable(
         name = "alerta_usuario",
         joinColumns = @JoinColumn(name = "id_alerta"),
@@ -62,6 +72,7 @@ public class Alerta {
     private Set<Usuario> usuariosAlerta;
 
     @ManyToMany
+    @BatchSize(size = 50)
     @JoinTable(
         name = "alerta_produto",
         joinColumns = @JoinColumn(name = "id_alerta"),
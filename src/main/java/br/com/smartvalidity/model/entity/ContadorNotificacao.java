@@ -0,0 +1,29 @@
+package br.com.smartvalidity.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Contadores do sininho por usuário, mantidos junto com as notificações para que as
+ * consultas de quantidade não precisem percorrer as notificações.
+ */
+@Entity
+@Table(name = "contador_notificacao")
+@Data
+public class ContadorNotificacao {
+
+    @Id
+    @Column(name = "id_usuario")
+    private String idUsuario;
+
+    // notificações de alertas cujo item ainda não foi inspecionado
+    @Column(nullable = false)
+    private Long pendentes = 0L;
+
+    // notificações de alertas personalizados ainda não lidas
+    @Column(name = "personalizadas_nao_lidas", nullable = false)
+    private Long personalizadasNaoLidas = 0L;
+}
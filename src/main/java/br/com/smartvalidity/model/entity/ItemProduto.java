@@ -10,14 +10,22 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 @Entity
-@Table
+@Table(indexes = {
+    // suporta a paginação por cursor do mural, ordenada por (data_vencimento, id)
+    @Index(name = "idx_item_produto_vencimento_id", columnList = "data_vencimento, id"),
+    // varredura incremental de alertas, que busca apenas itens alterados desde a última execução
+    @Index(name = "idx_item_produto_atualizacao", columnList = "data_hora_atualizacao")
+})
 @Data
 public class ItemProduto {
 
@@ -60,7 +68,16 @@ public class ItemProduto {
     @Enumerated(EnumType.STRING)
     private SituacaoValidade situacaoValidade;
 
+    @Column(name = "data_hora_atualizacao")
+    private LocalDateTime dataHoraAtualizacao;
+
     @ManyToOne
     @JoinColumn(name = "id_produto", nullable = false)
     private Produto produto;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        dataHoraAtualizacao = LocalDateTime.now();
+    }
 }
@@ -0,0 +1,40 @@
+package br.com.smartvalidity.model.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Concessão (lease) de uma tarefa agendada: enquanto não expira, só o nó detentor a executa.
+ */
+@Entity
+@Table(name = "lease_agendamento")
+@Data
+@NoArgsConstructor
+public class LeaseAgendamento {
+
+    @Id
+    @Column(length = 50)
+    private String nome;
+
+    @Column(length = 200)
+    private String detentor;
+
+    @Column(name = "expira_em")
+    private LocalDateTime expiraEm;
+
+    @Column(name = "data_hora_aquisicao")
+    private LocalDateTime dataHoraAquisicao;
+
+    @Column(name = "data_hora_renovacao")
+    private LocalDateTime dataHoraRenovacao;
+
+    public LeaseAgendamento(String nome) {
+        this.nome = nome;
+    }
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -15,7 +16,14 @@ import lombok.Data;
 
 
 @Entity
-@Table(name = "notificacao")
+@Table(name = "notificacao", indexes = {
+    // verificação de notificação existente por (alerta, usuário) ao notificar em lote
+    @Index(name = "idx_notificacao_alerta_usuario", columnList = "id_alerta, id_usuario"),
+    // listagem paginada por cursor das notificações do usuário, ordenada por (data_hora_criacao, id)
+    @Index(name = "idx_notificacao_usuario_criacao_id", columnList = "id_usuario, data_hora_criacao, id"),
+    // seleção das lidas antigas no arquivamento
+    @Index(name = "idx_notificacao_lida_criacao", columnList = "lida, data_hora_criacao")
+})
 @Data
 public class Notificacao {
 
@@ -0,0 +1,46 @@
+package br.com.smartvalidity.model.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Notificações lidas de itens já inspecionados, movidas da tabela notificacao pelo
+ * arquivamento. Guardam o mesmo id da original e só o necessário para o histórico;
+ * o usuário fica como coluna simples, sem chave estrangeira.
+ */
+@Entity
+@Table(name = "notificacao_arquivo", indexes = {
+    @Index(name = "idx_notificacao_arquivo_usuario", columnList = "id_usuario"),
+    @Index(name = "idx_notificacao_arquivo_alerta", columnList = "id_alerta")
+})
+@Data
+public class NotificacaoArquivo {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_alerta", nullable = false)
+    private Alerta alerta;
+
+    @Column(name = "id_usuario", nullable = false)
+    private String idUsuario;
+
+    @Column(name = "data_hora_criacao", nullable = false)
+    private LocalDateTime dataHoraCriacao;
+
+    @Column(name = "data_hora_leitura")
+    private LocalDateTime dataHoraLeitura;
+
+    @Column(name = "data_hora_arquivamento", nullable = false)
+    private LocalDateTime dataHoraArquivamento;
+}
@@ -0,0 +1,66 @@
+package br.com.smartvalidity.model.entity;
+
+import java.time.LocalDateTime;
+
+import br.com.smartvalidity.model.enums.FormatoRelatorio;
+import br.com.smartvalidity.model.enums.SituacaoRelatorio;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Relatório do mural gerado em segundo plano. Fica no banco, e o arquivo no diretório
+ * compartilhado, para que qualquer réplica responda a situação e o download.
+ */
+@Entity
+@Table(name = "relatorio_job", indexes = {
+    // limpeza dos jobs expirados
+    @Index(name = "idx_relatorio_job_expiracao", columnList = "data_hora_expiracao")
+})
+@Data
+public class RelatorioJob {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    // hash da solicitação e do usuário; único enquanto o job pode ser reaproveitado, nulo após erro
+    @Column(length = 64, unique = true)
+    private String chave;
+
+    @Column(name = "id_usuario", nullable = false)
+    private String idUsuario;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FormatoRelatorio formato;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SituacaoRelatorio situacao = SituacaoRelatorio.PENDENTE;
+
+    @Column(name = "total_linhas")
+    private Long totalLinhas;
+
+    @Column(name = "linhas_escritas", nullable = false)
+    private Long linhasEscritas = 0L;
+
+    private String mensagem;
+
+    // nome do arquivo dentro do diretório de relatórios
+    private String arquivo;
+
+    @Column(name = "data_hora_criacao", nullable = false)
+    private LocalDateTime dataHoraCriacao;
+
+    @Column(name = "data_hora_conclusao")
+    private LocalDateTime dataHoraConclusao;
+
+    @Column(name = "data_hora_expiracao")
+    private LocalDateTime dataHoraExpiracao;
+}
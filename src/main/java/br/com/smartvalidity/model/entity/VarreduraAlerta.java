@@ -0,0 +1,44 @@
+package br.com.smartvalidity.model.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Marca d'água da varredura de vencimentos: guarda até onde as alterações de itens
+ * já foram processadas, para que as execuções seguintes olhem só o que mudou.
+ */
+@Entity
+@Table(name = "varredura_alerta")
+@Data
+@NoArgsConstructor
+public class VarreduraAlerta {
+
+    @Id
+    @Column(length = 50)
+    private String nome;
+
+    // dia da última varredura completa da janela de alerta (vencidos, hoje e amanhã)
+    @Column(name = "data_ultima_varredura_completa")
+    private LocalDate dataUltimaVarreduraCompleta;
+
+    // itens alterados a partir deste instante ainda precisam ser verificados
+    @Column(name = "marca_atualizacao")
+    private LocalDateTime marcaAtualizacao;
+
+    @Column(name = "data_hora_ultima_execucao")
+    private LocalDateTime dataHoraUltimaExecucao;
+
+    @Column(name = "itens_ultima_execucao")
+    private Integer itensUltimaExecucao;
+
+    public VarreduraAlerta(String nome) {
+        this.nome = nome;
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.smartvalidity.model.enums;
+
+import java.util.Locale;
+
+public enum FormatoRelatorio {
+
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx"),
+    CSV("text/csv; charset=UTF-8", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extensao;
+
+    FormatoRelatorio(String contentType, String extensao) {
+        this.contentType = contentType;
+        this.extensao = extensao;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    /**
+     * Converte o formato informado na requisição; ausente equivale a XLSX.
+     * Retorna null quando o formato não é suportado.
+     */
+    public static FormatoRelatorio de(String formato) {
+        if (formato == null || formato.isBlank()) {
+            return XLSX;
+        }
+        try {
+            return valueOf(formato.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
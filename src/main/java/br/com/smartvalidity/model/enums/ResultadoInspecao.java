@@ -0,0 +1,8 @@
+package br.com.smartvalidity.model.enums;
+
+public enum ResultadoInspecao {
+
+    ATUALIZADO,
+    JA_INSPECIONADO,
+    NAO_ENCONTRADO
+}
@@ -0,0 +1,9 @@
+package br.com.smartvalidity.model.enums;
+
+public enum SituacaoRelatorio {
+
+    PENDENTE,
+    PROCESSANDO,
+    CONCLUIDO,
+    ERRO
+}
@@ -0,0 +1,10 @@
+package br.com.smartvalidity.model.enums;
+
+public enum TipoEventoNotificacao {
+
+    CRIADAS,
+    ATUALIZADAS,
+    EXCLUIDAS,
+    // só os contadores mudaram (ex.: item inspecionado ou alteração vinda de outro nó)
+    CONTADORES
+}
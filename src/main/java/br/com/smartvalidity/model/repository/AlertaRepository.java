@@ -1,9 +1,12 @@
 package br.com.smartvalidity.model.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,7 +17,7 @@ import br.com.smartvalidity.model.entity.ItemProduto;
 import br.com.smartvalidity.model.entity.Usuario;
 import br.com.smartvalidity.model.enums.TipoAlerta;
 
-public interface AlertaRepository extends JpaRepository<Alerta, Integer> {
+public interface AlertaRepository extends JpaRepository<Alerta, Integer>, JpaSpecificationExecutor<Alerta> {
     
 
     boolean existsByItemProdutoAndTipoAndExcluidoFalse(ItemProduto itemProduto, TipoAlerta tipo);
@@ -34,6 +37,14 @@ public interface AlertaRepository extends JpaRepository<Alerta, Integer> {
     @Query("SELECT a FROM Alerta a WHERE a.itemProduto = :itemProduto AND a.excluido = false")
     List<Alerta> findByItemProdutoAndExcluidoFalse(@Param("itemProduto") ItemProduto itemProduto);
 
+    @Query("SELECT a.id FROM Alerta a WHERE a.itemProduto.id IN :itens AND a.excluido = false")
+    List<Integer> findIdsNaoExcluidosPorItens(@Param("itens") Collection<String> itens);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE Alerta a SET a.excluido = true WHERE a.id IN :ids AND a.excluido = false")
+    int marcarExcluidos(@Param("ids") Collection<Integer> ids);
+
     @Query("SELECT a FROM Alerta a WHERE a.itemProduto = :itemProduto AND a.excluido = false")
     Optional<Alerta> findFirstByItemProdutoAndExcluidoFalse(@Param("itemProduto") ItemProduto itemProduto);
 
@@ -44,6 +55,68 @@ public interface AlertaRepository extends JpaRepository<Alerta, Integer> {
 
     // Métodos para alertas recorrentes removidos - alertas personalizados são mais simples
 
+    /*
+     * Alertas automáticos em lote: tipo, título e descrição são calculados no próprio SQL a partir
+     * do vencimento do item (:inicioHoje e :inicioAmanha no fuso da loja), com os mesmos textos
+     * usados pelo scheduler. Só os alertas automáticos contam: um alerta PERSONALIZADO no item não
+     * impede nem substitui o de vencimento, a mesma regra de
+     * {@link ItemProdutoRepository#CONSULTA_SEM_ALERTA_VIGENTE}.
+     */
+    String TIPOS_AUTOMATICOS = "('VENCIMENTO_AMANHA', 'VENCIMENTO_HOJE', 'VENCIMENTO_ATRASO')";
+
+    String TIPO_AUTOMATICO = "CASE WHEN i.data_vencimento < :inicioHoje THEN 'VENCIMENTO_ATRASO' "
+            + "WHEN i.data_vencimento < :inicioAmanha THEN 'VENCIMENTO_HOJE' ELSE 'VENCIMENTO_AMANHA' END";
+
+    String TITULO_AUTOMATICO = "CASE WHEN i.data_vencimento < :inicioHoje THEN 'Produto vencido' "
+            + "WHEN i.data_vencimento < :inicioAmanha THEN 'Produto vence hoje' ELSE 'Produto vence amanhã' END";
+
+    String DESCRICAO_AUTOMATICA = "CASE WHEN i.data_vencimento < :inicioHoje THEN "
+            + "CONCAT('O item ''', COALESCE(p.descricao, 'Produto'), ''' (Lote: ', i.lote, ') está vencido desde ', "
+            + "CAST(i.data_vencimento AS DATE), '. Remova do estoque imediatamente!') "
+            + "WHEN i.data_vencimento < :inicioAmanha THEN "
+            + "CONCAT('O item ''', COALESCE(p.descricao, 'Produto'), ''' (Lote: ', i.lote, ') vence HOJE (', "
+            + "CAST(i.data_vencimento AS DATE), '). Ação imediata necessária!') "
+            + "ELSE CONCAT('O item ''', COALESCE(p.descricao, 'Produto'), ''' (Lote: ', i.lote, ') vence amanhã (', "
+            + "CAST(i.data_vencimento AS DATE), '). Verifique o estoque!') END";
+
+    @Modifying
+    @Query(value = "INSERT INTO alerta (titulo, descricao, tipo, data_hora_disparo, excluido, data_hora_criacao, id_item_produto) "
+            + "SELECT " + TITULO_AUTOMATICO + ", " + DESCRICAO_AUTOMATICA + ", " + TIPO_AUTOMATICO + ", :agora, false, :agora, i.id "
+            + "FROM item_produto i LEFT JOIN produto p ON p.id = i.id_produto "
+            + "WHERE i.id IN (:itens) AND i.inspecionado = false AND i.data_vencimento < :limite "
+            + "AND NOT EXISTS (SELECT 1 FROM alerta a WHERE a.id_item_produto = i.id AND a.excluido = false "
+            + "AND a.tipo IN " + TIPOS_AUTOMATICOS + ")",
+            nativeQuery = true)
+    int inserirAlertasAutomaticos(@Param("itens") Collection<String> itens, @Param("inicioHoje") LocalDateTime inicioHoje,
+            @Param("inicioAmanha") LocalDateTime inicioAmanha, @Param("limite") LocalDateTime limite,
+            @Param("agora") LocalDateTime agora);
+
+    // item do alerta nas subconsultas correlacionadas do UPDATE (sem UPDATE ... JOIN, que o H2 dos testes não aceita)
+    String ITEM_DO_ALERTA = " FROM item_produto i LEFT JOIN produto p ON p.id = i.id_produto WHERE i.id = a.id_item_produto";
+
+    @Modifying
+    @Query(value = "UPDATE alerta a SET a.tipo = (SELECT " + TIPO_AUTOMATICO + ITEM_DO_ALERTA + "), "
+            + "a.titulo = (SELECT " + TITULO_AUTOMATICO + ITEM_DO_ALERTA + "), "
+            + "a.descricao = (SELECT " + DESCRICAO_AUTOMATICA + ITEM_DO_ALERTA + "), a.data_hora_disparo = :agora "
+            + "WHERE a.id_item_produto IN (:itens) AND a.excluido = false AND a.tipo IN " + TIPOS_AUTOMATICOS + " "
+            + "AND EXISTS (SELECT 1" + ITEM_DO_ALERTA + " AND i.inspecionado = false AND i.data_vencimento < :limite "
+            + "AND a.tipo <> " + TIPO_AUTOMATICO + ")",
+            nativeQuery = true)
+    int atualizarTiposAutomaticos(@Param("itens") Collection<String> itens, @Param("inicioHoje") LocalDateTime inicioHoje,
+            @Param("inicioAmanha") LocalDateTime inicioAmanha, @Param("limite") LocalDateTime limite,
+            @Param("agora") LocalDateTime agora);
+
+    @Query("SELECT a.id FROM Alerta a WHERE a.itemProduto.id IN :itens AND a.excluido = false AND a.dataHoraCriacao = :criacao "
+            + "AND a.tipo <> br.com.smartvalidity.model.enums.TipoAlerta.PERSONALIZADO")
+    List<Integer> findIdsCriadosEm(@Param("itens") Collection<String> itens, @Param("criacao") LocalDateTime criacao);
+
+    // ASSINANTES e ADMINS ficam vinculados aos alertas automáticos
+    @Modifying
+    @Query(value = "INSERT INTO alerta_usuario (id_alerta, id_usuario) "
+            + "SELECT a.id, u.id FROM alerta a JOIN usuario u ON u.id IN (:usuarios) "
+            + "WHERE a.id IN (:alertas)", nativeQuery = true)
+    int vincularUsuarios(@Param("alertas") Collection<Integer> alertas, @Param("usuarios") Collection<String> usuarios);
+
     @Modifying
     @Transactional
     @Query(value = "DELETE FROM alerta_usuario WHERE id_alerta = :alertaId", nativeQuery = true)
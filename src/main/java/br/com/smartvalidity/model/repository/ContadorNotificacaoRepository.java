@@ -0,0 +1,128 @@
+package br.com.smartvalidity.model.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.smartvalidity.model.entity.ContadorNotificacao;
+
+@Repository
+public interface ContadorNotificacaoRepository extends JpaRepository<ContadorNotificacao, String> {
+
+    String RECONTAGEM = "INSERT INTO contador_notificacao (id_usuario, pendentes, personalizadas_nao_lidas) "
+            + "SELECT * FROM (SELECT u.id AS usuario, "
+            + "COALESCE(SUM(CASE WHEN i.inspecionado = false THEN 1 ELSE 0 END), 0) AS total_pendentes, "
+            + "COALESCE(SUM(CASE WHEN a.tipo = 'PERSONALIZADO' AND n.lida = false THEN 1 ELSE 0 END), 0) AS total_personalizadas "
+            + "FROM usuario u LEFT JOIN notificacao n ON n.id_usuario = u.id "
+            + "LEFT JOIN alerta a ON a.id = n.id_alerta "
+            + "LEFT JOIN item_produto i ON i.id = a.id_item_produto ";
+
+    // o GROUP BY fica na tabela derivada, como o MySQL exige para usar ON DUPLICATE KEY UPDATE
+    String SUBSTITUIR_CONTAGEM = ") contagem ON DUPLICATE KEY UPDATE pendentes = VALUES(pendentes), "
+            + "personalizadas_nao_lidas = VALUES(personalizadas_nao_lidas)";
+
+    @Modifying
+    @Transactional
+    @Query(value = RECONTAGEM + "GROUP BY u.id" + SUBSTITUIR_CONTAGEM, nativeQuery = true)
+    int recontarTodos();
+
+    @Modifying
+    @Transactional
+    @Query(value = RECONTAGEM + "WHERE u.id IN (:usuarios) GROUP BY u.id" + SUBSTITUIR_CONTAGEM, nativeQuery = true)
+    int recontar(@Param("usuarios") Collection<String> usuarios);
+
+    /**
+     * Soma aos contadores as notificações que {@link NotificacaoRepository#inserirFaltantes} vai
+     * criar; precisa rodar antes dele, na mesma transação.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO contador_notificacao (id_usuario, pendentes, personalizadas_nao_lidas) "
+            + "SELECT * FROM (SELECT u.id AS usuario, "
+            + "SUM(CASE WHEN i.inspecionado = false THEN 1 ELSE 0 END) AS novas_pendentes, "
+            + "SUM(CASE WHEN a.tipo = 'PERSONALIZADO' THEN 1 ELSE 0 END) AS novas_personalizadas "
+            + "FROM alerta a JOIN usuario u ON u.id IN (:usuarios) "
+            + "LEFT JOIN item_produto i ON i.id = a.id_item_produto "
+            + "WHERE a.id IN (:alertas) AND NOT EXISTS (SELECT 1 FROM notificacao n "
+            + "WHERE n.id_alerta = a.id AND n.id_usuario = u.id) AND NOT EXISTS (SELECT 1 FROM notificacao_arquivo na "
+            + "WHERE na.id_alerta = a.id AND na.id_usuario = u.id) "
+            + "GROUP BY u.id) novas "
+            + "ON DUPLICATE KEY UPDATE pendentes = pendentes + VALUES(pendentes), "
+            + "personalizadas_nao_lidas = personalizadas_nao_lidas + VALUES(personalizadas_nao_lidas)",
+            nativeQuery = true)
+    int somarNovas(@Param("alertas") Collection<Integer> alertas, @Param("usuarios") Collection<String> usuarios);
+
+    // Os descontos usam subconsultas correlacionadas, e não UPDATE ... JOIN, para rodar também no
+    // H2 dos testes; cada fragmento abaixo é o FROM/WHERE das notificações afetadas.
+    String NOTIFICACOES_DOS_ITENS_PENDENTES = "FROM notificacao n JOIN alerta a ON a.id = n.id_alerta "
+            + "JOIN item_produto i ON i.id = a.id_item_produto WHERE i.id IN (:itens) AND i.inspecionado = false";
+
+    String NOTIFICACOES_DOS_ALERTAS = "FROM notificacao n JOIN alerta a ON a.id = n.id_alerta "
+            + "LEFT JOIN item_produto i ON i.id = a.id_item_produto WHERE n.id_alerta IN (:alertas)";
+
+    String PERSONALIZADAS_NAO_LIDAS = "FROM notificacao n JOIN alerta a ON a.id = n.id_alerta "
+            + "WHERE n.id IN (:notificacoes) AND n.lida = false AND a.tipo = 'PERSONALIZADO'";
+
+    /**
+     * Usuários com notificações dos itens que ainda estão pendentes, ou seja, os que
+     * {@link #descontarInspecionados} vai alterar.
+     */
+    @Query(value = "SELECT DISTINCT n.id_usuario " + NOTIFICACOES_DOS_ITENS_PENDENTES, nativeQuery = true)
+    List<String> findUsuariosDosItensPendentes(@Param("itens") Collection<String> itens);
+
+    /**
+     * Desconta as notificações dos itens que vão ser inspecionados; precisa rodar antes de
+     * marcá-los, na mesma transação, pois só considera os que ainda estão pendentes.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE contador_notificacao c SET c.pendentes = GREATEST(c.pendentes - ("
+            + "SELECT COUNT(*) " + NOTIFICACOES_DOS_ITENS_PENDENTES + " AND n.id_usuario = c.id_usuario), 0) "
+            + "WHERE c.id_usuario IN (SELECT n.id_usuario " + NOTIFICACOES_DOS_ITENS_PENDENTES + ")",
+            nativeQuery = true)
+    int descontarInspecionados(@Param("itens") Collection<String> itens);
+
+    /**
+     * Desconta as notificações dos alertas que vão ser excluídas; precisa rodar antes da exclusão.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE contador_notificacao c SET c.pendentes = GREATEST(c.pendentes - ("
+            + "SELECT COALESCE(SUM(CASE WHEN i.inspecionado = false THEN 1 ELSE 0 END), 0) "
+            + NOTIFICACOES_DOS_ALERTAS + " AND n.id_usuario = c.id_usuario), 0), "
+            + "c.personalizadas_nao_lidas = GREATEST(c.personalizadas_nao_lidas - ("
+            + "SELECT COALESCE(SUM(CASE WHEN a.tipo = 'PERSONALIZADO' AND n.lida = false THEN 1 ELSE 0 END), 0) "
+            + NOTIFICACOES_DOS_ALERTAS + " AND n.id_usuario = c.id_usuario), 0) "
+            + "WHERE c.id_usuario IN (SELECT n.id_usuario " + NOTIFICACOES_DOS_ALERTAS + ")",
+            nativeQuery = true)
+    int descontarExcluidas(@Param("alertas") Collection<Integer> alertas);
+
+    /**
+     * Desconta as personalizadas entre as notificações que vão ser marcadas como lidas; precisa
+     * rodar antes de {@link NotificacaoRepository#marcarLidas}, na mesma transação.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE contador_notificacao c SET c.personalizadas_nao_lidas = GREATEST(c.personalizadas_nao_lidas - ("
+            + "SELECT COUNT(*) " + PERSONALIZADAS_NAO_LIDAS + " AND n.id_usuario = c.id_usuario), 0) "
+            + "WHERE c.id_usuario IN (SELECT n.id_usuario " + PERSONALIZADAS_NAO_LIDAS + ")",
+            nativeQuery = true)
+    int descontarLidas(@Param("notificacoes") Collection<Long> notificacoes);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ContadorNotificacao c SET c.personalizadasNaoLidas = c.personalizadasNaoLidas - 1 "
+            + "WHERE c.idUsuario = :usuario AND c.personalizadasNaoLidas > 0")
+    int descontarPersonalizadaLida(@Param("usuario") String usuario);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ContadorNotificacao c SET c.personalizadasNaoLidas = 0 WHERE c.idUsuario = :usuario")
+    int zerarPersonalizadas(@Param("usuario") String usuario);
+}
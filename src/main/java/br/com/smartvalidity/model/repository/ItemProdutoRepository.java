@@ -1,15 +1,22 @@
 package br.com.smartvalidity.model.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import br.com.smartvalidity.model.entity.ItemProduto;
 
 @Repository
-public interface ItemProdutoRepository extends JpaRepository<ItemProduto, String>, JpaSpecificationExecutor<ItemProduto> {
+public interface ItemProdutoRepository extends JpaRepository<ItemProduto, String>, JpaSpecificationExecutor<ItemProduto>,
+        ItemProdutoRepositoryCustom {
 
     List<ItemProduto> findByProdutoId(String produtoId);
 
@@ -18,4 +25,122 @@ public interface ItemProdutoRepository extends JpaRepository<ItemProduto, String
     List<ItemProduto> findByInspecionadoFalse();
     
     List<ItemProduto> findByProdutoIdAndInspecionadoFalse(String produtoId);
+
+    /**
+     * Marca como inspecionados, em um único UPDATE, os itens informados que ainda não foram inspecionados.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ItemProduto i SET i.inspecionado = true, i.motivoInspecao = :motivo, "
+            + "i.usuarioInspecao = :usuario, i.dataHoraInspecao = :dataHora "
+            + "WHERE i.id IN :ids AND (i.inspecionado = false OR i.inspecionado IS NULL)")
+    int marcarInspecionados(@Param("ids") Collection<String> ids, @Param("motivo") String motivo,
+            @Param("usuario") String usuario, @Param("dataHora") LocalDateTime dataHora);
+
+    /**
+     * Itens não inspecionados dentro da janela de alerta (vencimento antes de :limite)
+     * que ainda não têm alerta automático ativo do tipo correspondente à sua data (um PERSONALIZADO
+     * não conta, como em {@link AlertaRepository#inserirAlertasAutomaticos}), restritos à faixa de ids
+     * [:idInicial, :idFinal) da partição (:idFinal vazio = sem limite superior).
+     */
+    String CONSULTA_SEM_ALERTA_VIGENTE = "SELECT i.id AS id, i.dataVencimento AS dataVencimento FROM ItemProduto i "
+            + "WHERE i.inspecionado = false AND i.dataVencimento < :limite "
+            + "AND NOT EXISTS (SELECT a.id FROM Alerta a WHERE a.itemProduto = i AND a.excluido = false AND ("
+            + "(i.dataVencimento < :inicioHoje AND a.tipo = br.com.smartvalidity.model.enums.TipoAlerta.VENCIMENTO_ATRASO) "
+            + "OR (i.dataVencimento >= :inicioHoje AND i.dataVencimento < :inicioAmanha "
+            + "AND a.tipo = br.com.smartvalidity.model.enums.TipoAlerta.VENCIMENTO_HOJE) "
+            + "OR (i.dataVencimento >= :inicioAmanha AND a.tipo = br.com.smartvalidity.model.enums.TipoAlerta.VENCIMENTO_AMANHA))) "
+            + "AND i.id >= :idInicial AND (:idFinal = '' OR i.id < :idFinal)";
+
+    /**
+     * Cursor da varredura: itens depois do último (vencimento, id) do lote anterior; nulo = início.
+     * Um lote sem nada a alterar não volta na consulta seguinte nem esconde o resto da faixa.
+     */
+    String APOS_CURSOR = " AND (:ultimoVencimento IS NULL OR i.dataVencimento > :ultimoVencimento "
+            + "OR (i.dataVencimento = :ultimoVencimento AND i.id > :ultimoId))";
+
+    @Query(CONSULTA_SEM_ALERTA_VIGENTE + APOS_CURSOR + " ORDER BY i.dataVencimento, i.id")
+    List<VencimentoItem> findSemAlertaVigente(@Param("inicioHoje") LocalDateTime inicioHoje,
+            @Param("inicioAmanha") LocalDateTime inicioAmanha, @Param("limite") LocalDateTime limite,
+            @Param("idInicial") String idInicial, @Param("idFinal") String idFinal,
+            @Param("ultimoVencimento") LocalDateTime ultimoVencimento, @Param("ultimoId") String ultimoId, Limit limit);
+
+    @Query(CONSULTA_SEM_ALERTA_VIGENTE + " AND i.dataHoraAtualizacao >= :marca" + APOS_CURSOR
+            + " ORDER BY i.dataVencimento, i.id")
+    List<VencimentoItem> findSemAlertaVigenteAlteradosDesde(@Param("inicioHoje") LocalDateTime inicioHoje,
+            @Param("inicioAmanha") LocalDateTime inicioAmanha, @Param("limite") LocalDateTime limite,
+            @Param("marca") LocalDateTime marca, @Param("idInicial") String idInicial, @Param("idFinal") String idFinal,
+            @Param("ultimoVencimento") LocalDateTime ultimoVencimento, @Param("ultimoId") String ultimoId, Limit limit);
+
+    /**
+     * Id e vencimento dos itens que vencem no intervalo [inicio, fim), usados para montar a janela
+     * do índice de vencimentos; usa o índice (data_vencimento, id).
+     */
+    @Query("SELECT i.id AS id, i.dataVencimento AS dataVencimento FROM ItemProduto i "
+            + "WHERE i.dataVencimento >= :inicio AND i.dataVencimento < :fim")
+    List<VencimentoItem> findVencimentosEntre(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    /**
+     * Id e vencimento dos itens gravados desde a marca, para a atualização incremental do índice.
+     */
+    @Query("SELECT i.id AS id, i.dataVencimento AS dataVencimento FROM ItemProduto i "
+            + "WHERE i.dataHoraAtualizacao >= :desde")
+    List<VencimentoItem> findVencimentosAlteradosDesde(@Param("desde") LocalDateTime desde);
+
+    /**
+     * Trava as linhas dos itens (em ordem de id, evitando deadlock) até o fim da transação, para que
+     * dois nós não criem alertas para o mesmo item ao mesmo tempo.
+     */
+    @Query(value = "SELECT id FROM item_produto WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<String> travarParaAlertas(@Param("ids") Collection<String> ids);
+
+    /**
+     * Vencimentos dos itens não inspecionados a partir de :desde, usados para montar a agenda de alertas.
+     */
+    @Query("SELECT i.id AS id, i.dataVencimento AS dataVencimento FROM ItemProduto i "
+            + "WHERE i.inspecionado = false AND i.dataVencimento >= :desde")
+    List<VencimentoItem> findVencimentosNaoInspecionadosDesde(@Param("desde") LocalDateTime desde);
+
+    /**
+     * Itens não inspecionados que vencem no intervalo [inicio, fim), para a virada do dia da agenda de alertas.
+     */
+    @Query("SELECT i.id FROM ItemProduto i WHERE i.inspecionado = false "
+            + "AND i.dataVencimento >= :inicio AND i.dataVencimento < :fim")
+    List<String> findIdsNaoInspecionadosEntre(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    /**
+     * Agrupa os itens do intervalo pelas combinações de valores das facetas do mural
+     * (exceto fornecedor), permitindo calcular todas as opções e contagens em uma passada.
+     */
+    @Query("SELECT p.marca AS marca, co.nome AS corredor, c.nome AS categoria, i.lote AS lote, "
+            + "i.inspecionado AS inspecionado, i.usuarioInspecao AS usuarioInspecao, COUNT(i) AS quantidade "
+            + "FROM ItemProduto i JOIN i.produto p LEFT JOIN p.categoria c LEFT JOIN c.corredor co "
+            + "WHERE i.dataVencimento > :inicio AND i.dataVencimento < :fim "
+            + "GROUP BY p.marca, co.nome, c.nome, i.lote, i.inspecionado, i.usuarioInspecao")
+    List<FacetaMural> agruparFacetasMural(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    @Query("SELECT f.nome AS valor, COUNT(DISTINCT i.id) AS quantidade "
+            + "FROM ItemProduto i JOIN i.produto p JOIN p.fornecedores f "
+            + "WHERE i.dataVencimento > :inicio AND i.dataVencimento < :fim "
+            + "GROUP BY f.nome")
+    List<ContagemFaceta> contarFornecedoresMural(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    interface FacetaMural {
+        String getMarca();
+        String getCorredor();
+        String getCategoria();
+        String getLote();
+        Boolean getInspecionado();
+        String getUsuarioInspecao();
+        Long getQuantidade();
+    }
+
+    interface ContagemFaceta {
+        String getValor();
+        Long getQuantidade();
+    }
+
+    interface VencimentoItem {
+        String getId();
+        LocalDateTime getDataVencimento();
+    }
 }
@@ -0,0 +1,24 @@
+package br.com.smartvalidity.model.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import br.com.smartvalidity.model.dto.MuralDTO;
+import br.com.smartvalidity.model.entity.ItemProduto;
+
+public interface ItemProdutoRepositoryCustom {
+
+    /**
+     * Lista as linhas do mural que atendem à especificação, selecionando apenas as
+     * colunas da listagem. Com limite <= 0 retorna todas a partir de inicio.
+     */
+    List<MuralDTO.ListagemProjecao> buscarListagemMural(Specification<ItemProduto> especificacao, int inicio, int limite);
+
+    /**
+     * Mesma consulta da listagem, lida do banco linha a linha. Deve ser consumida
+     * e fechada dentro de uma transação.
+     */
+    Stream<MuralDTO.ListagemProjecao> streamListagemMural(Specification<ItemProduto> especificacao);
+}
@@ -0,0 +1,97 @@
+package br.com.smartvalidity.model.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import br.com.smartvalidity.model.dto.MuralDTO;
+import br.com.smartvalidity.model.entity.Categoria;
+import br.com.smartvalidity.model.entity.Fornecedor;
+import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.entity.Produto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+public class ItemProdutoRepositoryImpl implements ItemProdutoRepositoryCustom {
+
+    /**
+     * Com o MySQL Connector/J, fetch size Integer.MIN_VALUE faz o driver entregar
+     * as linhas uma a uma em vez de carregar todo o resultado em memória.
+     */
+    private static final int FETCH_SIZE_STREAM = Integer.MIN_VALUE;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<MuralDTO.ListagemProjecao> buscarListagemMural(Specification<ItemProduto> especificacao,
+                                                              int inicio, int limite) {
+        TypedQuery<MuralDTO.ListagemProjecao> consulta = criarConsultaListagem(especificacao);
+        consulta.setFirstResult(inicio);
+        if (limite > 0) {
+            consulta.setMaxResults(limite);
+        }
+        return consulta.getResultList();
+    }
+
+    @Override
+    public Stream<MuralDTO.ListagemProjecao> streamListagemMural(Specification<ItemProduto> especificacao) {
+        return criarConsultaListagem(especificacao)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE_STREAM)
+                .getResultStream();
+    }
+
+    private TypedQuery<MuralDTO.ListagemProjecao> criarConsultaListagem(Specification<ItemProduto> especificacao) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MuralDTO.ListagemProjecao> query = cb.createQuery(MuralDTO.ListagemProjecao.class);
+        Root<ItemProduto> root = query.from(ItemProduto.class);
+
+        Path<Produto> produto = root.get("produto");
+        Path<Categoria> categoria = produto.get("categoria");
+        Join<Categoria, ?> corredor = root.join("produto").join("categoria").join("corredor", JoinType.LEFT);
+
+        // o mural exibe um único fornecedor por produto
+        Subquery<String> fornecedor = query.subquery(String.class);
+        Root<Produto> produtoSub = fornecedor.from(Produto.class);
+        Join<Produto, Fornecedor> fornecedores = produtoSub.join("fornecedores");
+        fornecedor.select(cb.least(fornecedores.<String>get("nome"))).where(cb.equal(produtoSub, produto));
+
+        query.select(cb.construct(MuralDTO.ListagemProjecao.class,
+                root.get("id"),
+                produto.get("id"),
+                produto.get("descricao"),
+                produto.get("codigoBarras"),
+                produto.get("marca"),
+                produto.get("unidadeMedida"),
+                categoria.get("nome"),
+                corredor.get("nome"),
+                fornecedor,
+                root.get("dataVencimento"),
+                root.get("dataFabricacao"),
+                root.get("dataRecebimento"),
+                root.get("lote"),
+                root.get("precoVenda"),
+                root.get("inspecionado"),
+                root.get("motivoInspecao"),
+                root.get("usuarioInspecao"),
+                root.get("dataHoraInspecao")));
+
+        Predicate predicado = especificacao != null ? especificacao.toPredicate(root, query, cb) : null;
+        if (predicado != null) {
+            query.where(predicado);
+        }
+
+        return entityManager.createQuery(query);
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.smartvalidity.model.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.smartvalidity.model.entity.LeaseAgendamento;
+
+@Repository
+public interface LeaseAgendamentoRepository extends JpaRepository<LeaseAgendamento, String> {
+
+    /**
+     * Adquire ou renova a concessão em um único UPDATE atômico: só tem efeito se o nó já é o
+     * detentor ou se a concessão atual expirou.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE LeaseAgendamento l SET "
+            + "l.dataHoraAquisicao = CASE WHEN l.detentor = :detentor AND l.expiraEm >= :agora "
+            + "THEN l.dataHoraAquisicao ELSE :agora END, "
+            + "l.detentor = :detentor, l.expiraEm = :expiraEm, l.dataHoraRenovacao = :agora "
+            + "WHERE l.nome = :nome AND (l.detentor = :detentor OR l.expiraEm IS NULL OR l.expiraEm < :agora)")
+    int adquirir(@Param("nome") String nome, @Param("detentor") String detentor,
+            @Param("agora") LocalDateTime agora, @Param("expiraEm") LocalDateTime expiraEm);
+
+    /**
+     * Prorroga a concessão só enquanto o nó ainda é o detentor; 0 indica que outro nó a assumiu.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE LeaseAgendamento l SET l.expiraEm = :expiraEm, l.dataHoraRenovacao = :agora "
+            + "WHERE l.nome = :nome AND l.detentor = :detentor")
+    int renovar(@Param("nome") String nome, @Param("detentor") String detentor,
+            @Param("agora") LocalDateTime agora, @Param("expiraEm") LocalDateTime expiraEm);
+
+    /**
+     * Cria a linha da concessão, sem detentor, se ainda não existir. Não usa save(): com o id
+     * atribuído ele faria merge e poderia sobrescrever a linha criada por outro nó.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO lease_agendamento (nome) VALUES (:nome)", nativeQuery = true)
+    int criar(@Param("nome") String nome);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE LeaseAgendamento l SET l.expiraEm = :agora WHERE l.nome = :nome AND l.detentor = :detentor")
+    int liberar(@Param("nome") String nome, @Param("detentor") String detentor, @Param("agora") LocalDateTime agora);
+}
@@ -0,0 +1,68 @@
+package br.com.smartvalidity.model.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.smartvalidity.model.entity.NotificacaoArquivo;
+
+public interface NotificacaoArquivoRepository extends JpaRepository<NotificacaoArquivo, Long> {
+
+    /**
+     * Próximo lote de notificações lidas, de itens já inspecionados, criadas antes do limite.
+     * Paginado por cursor (id maior que o último do lote anterior), para não reler a cada lote
+     * as notificações lidas de itens ainda não inspecionados.
+     */
+    @Query(value = "SELECT n.id FROM notificacao n JOIN alerta a ON a.id = n.id_alerta "
+            + "JOIN item_produto i ON i.id = a.id_item_produto "
+            + "WHERE n.lida = true AND i.inspecionado = true AND n.data_hora_criacao < :limite "
+            + "AND n.id > :ultimoId ORDER BY n.id LIMIT :lote", nativeQuery = true)
+    List<Long> findIdsArquivaveis(@Param("limite") LocalDateTime limite, @Param("ultimoId") long ultimoId,
+            @Param("lote") int lote);
+
+    /**
+     * Copia as notificações para o arquivo; a remoção da tabela notificacao é feita em seguida,
+     * na mesma transação.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO notificacao_arquivo (id, id_alerta, id_usuario, data_hora_criacao, "
+            + "data_hora_leitura, data_hora_arquivamento) "
+            + "SELECT n.id, n.id_alerta, n.id_usuario, n.data_hora_criacao, n.data_hora_leitura, :agora "
+            + "FROM notificacao n WHERE n.id IN (:ids)", nativeQuery = true)
+    int arquivar(@Param("ids") Collection<Long> ids, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Histórico arquivado do usuário na mesma ordem das notificações ativas inspecionadas (data de
+     * inspeção do item, ou de criação se não houver, e id, decrescentes), a partir do cursor
+     * (ultimaData nula: desde o início). O id é o mesmo da notificação original, então o par é
+     * único nas duas tabelas.
+     */
+    @Query("SELECT na FROM NotificacaoArquivo na JOIN FETCH na.alerta a JOIN FETCH a.itemProduto i "
+            + "JOIN FETCH i.produto LEFT JOIN FETCH a.usuarioCriador WHERE na.idUsuario = :usuario "
+            + "AND (:ultimaData IS NULL OR COALESCE(i.dataHoraInspecao, na.dataHoraCriacao) < :ultimaData "
+            + "OR (COALESCE(i.dataHoraInspecao, na.dataHoraCriacao) = :ultimaData AND na.id < :ultimoId)) "
+            + "ORDER BY COALESCE(i.dataHoraInspecao, na.dataHoraCriacao) DESC, na.id DESC")
+    List<NotificacaoArquivo> findHistoricoDoUsuario(@Param("usuario") String usuario,
+            @Param("ultimaData") LocalDateTime ultimaData, @Param("ultimoId") Long ultimoId, Limit limite);
+
+    @Query("SELECT DISTINCT na.idUsuario FROM NotificacaoArquivo na WHERE na.alerta.id IN :alertas")
+    List<String> findUsuariosPorAlertas(@Param("alertas") Collection<Integer> alertas);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM NotificacaoArquivo na WHERE na.alerta.id IN :alertas")
+    int excluirPorAlertas(@Param("alertas") Collection<Integer> alertas);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM NotificacaoArquivo na WHERE na.id = :id AND na.idUsuario = :usuario")
+    int excluirDoUsuario(@Param("id") Long id, @Param("usuario") String usuario);
+}
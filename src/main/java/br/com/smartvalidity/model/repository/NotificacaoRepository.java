@@ -1,9 +1,12 @@
 package br.com.smartvalidity.model.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,7 +18,7 @@ import br.com.smartvalidity.model.entity.Usuario;
 import br.com.smartvalidity.model.enums.TipoAlerta;
 
 
-public interface NotificacaoRepository extends JpaRepository<Notificacao, Long> {
+public interface NotificacaoRepository extends JpaRepository<Notificacao, Long>, JpaSpecificationExecutor<Notificacao> {
 
     List<Notificacao> findByUsuarioOrderByDataHoraCriacaoDesc(Usuario usuario);
 
@@ -27,17 +30,75 @@ public interface NotificacaoRepository extends JpaRepository<Notificacao, Long>
 
     boolean existsByAlertaIdAndUsuarioId(Integer alertaId, String usuarioId);
 
+    /**
+     * Notifica de uma vez os usuários informados sobre os alertas, pulando os pares
+     * (alerta, usuário) que já têm notificação, ativa ou arquivada, e os usuários que não
+     * existem mais.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notificacao (id_alerta, id_usuario, lida, data_hora_criacao) "
+            + "SELECT a.id, u.id, false, :agora FROM alerta a JOIN usuario u ON u.id IN (:usuarios) "
+            + "WHERE a.id IN (:alertas) AND NOT EXISTS (SELECT 1 FROM notificacao n "
+            + "WHERE n.id_alerta = a.id AND n.id_usuario = u.id) AND NOT EXISTS (SELECT 1 FROM notificacao_arquivo na "
+            + "WHERE na.id_alerta = a.id AND na.id_usuario = u.id)", nativeQuery = true)
+    int inserirFaltantes(@Param("alertas") Collection<Integer> alertas, @Param("usuarios") Collection<String> usuarios,
+            @Param("agora") LocalDateTime agora);
+
     List<Notificacao> findByAlerta(Alerta alerta);
 
-    @Query("SELECT n FROM Notificacao n WHERE n.usuario = :usuario AND n.alerta.itemProduto.inspecionado = true ORDER BY n.alerta.itemProduto.dataHoraInspecao DESC")
+    @Query("SELECT DISTINCT n.usuario.id FROM Notificacao n WHERE n.alerta.id IN :alertas")
+    List<String> findUsuariosPorAlertas(@Param("alertas") Collection<Integer> alertas);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("DELETE FROM Notificacao n WHERE n.alerta.id IN :alertas")
+    int excluirPorAlertas(@Param("alertas") Collection<Integer> alertas);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("DELETE FROM Notificacao n WHERE n.id IN :ids")
+    int excluirPorIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT n FROM Notificacao n JOIN FETCH n.alerta a JOIN FETCH a.itemProduto i JOIN FETCH i.produto "
+            + "LEFT JOIN FETCH a.usuarioCriador WHERE n.usuario = :usuario AND i.inspecionado = true "
+            + "ORDER BY i.dataHoraInspecao DESC")
     List<Notificacao> findByUsuarioAndProdutoInspecionado(@Param("usuario") Usuario usuario);
 
-    @Query("SELECT n FROM Notificacao n WHERE n.usuario = :usuario AND n.alerta.tipo = :tipo ORDER BY n.dataHoraCriacao DESC")
-    List<Notificacao> findByUsuarioAndAlertaTipoOrderByDataHoraCriacaoDesc(@Param("usuario") Usuario usuario, @Param("tipo") TipoAlerta tipo);
+    /**
+     * Dados mínimos para registrar a leitura sem carregar a notificação inteira.
+     */
+    @Query("SELECT n.lida AS lida, a.id AS alertaId, a.tipo AS tipo FROM Notificacao n JOIN n.alerta a "
+            + "WHERE n.id = :id AND n.usuario.id = :usuario")
+    Optional<SituacaoLeitura> findSituacaoLeitura(@Param("id") Long id, @Param("usuario") String usuario);
+
+    /**
+     * Marca uma notificação como lida só se ainda não estava: entre cliques concorrentes, apenas
+     * um recebe 1 e desconta o contador.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notificacao n SET n.lida = true, n.dataHoraLeitura = :agora "
+            + "WHERE n.id = :id AND n.usuario.id = :usuario AND n.lida = false")
+    int marcarLida(@Param("id") Long id, @Param("usuario") String usuario, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Grava de uma vez as leituras acumuladas; ignora as que já estavam lidas ou foram excluídas.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notificacao n SET n.lida = true, n.dataHoraLeitura = :agora WHERE n.id IN :ids AND n.lida = false")
+    int marcarLidas(@Param("ids") Collection<Long> ids, @Param("agora") LocalDateTime agora);
 
     @Query("UPDATE Notificacao n SET n.lida = true, n.dataHoraLeitura = CURRENT_TIMESTAMP WHERE n.usuario = :usuario AND n.lida = false")
     @Modifying
     @Transactional
     int marcarTodasComoLidasPorUsuario(@Param("usuario") Usuario usuario);
 
-}
\ No newline at end of file
+    interface SituacaoLeitura {
+        Boolean getLida();
+
+        Integer getAlertaId();
+
+        TipoAlerta getTipo();
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.smartvalidity.model.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.smartvalidity.model.entity.RelatorioJob;
+
+public interface RelatorioJobRepository extends JpaRepository<RelatorioJob, String> {
+
+    Optional<RelatorioJob> findByChave(String chave);
+
+    @Query("SELECT j FROM RelatorioJob j WHERE j.dataHoraExpiracao < :agora")
+    List<RelatorioJob> findExpirados(@Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RelatorioJob j WHERE j.id = :id AND j.dataHoraExpiracao < :agora")
+    int excluirSeExpirado(@Param("id") String id, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RelatorioJob j SET j.situacao = br.com.smartvalidity.model.enums.SituacaoRelatorio.PROCESSANDO "
+            + "WHERE j.id = :id")
+    int marcarProcessando(@Param("id") String id);
+
+    /**
+     * Chamado durante a escrita do arquivo, dentro da transação somente leitura que lê os itens;
+     * por isso grava na sua própria transação.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE RelatorioJob j SET j.linhasEscritas = :linhas WHERE j.id = :id")
+    int atualizarProgresso(@Param("id") String id, @Param("linhas") long linhas);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RelatorioJob j SET j.situacao = br.com.smartvalidity.model.enums.SituacaoRelatorio.CONCLUIDO, "
+            + "j.arquivo = :arquivo, j.linhasEscritas = :linhas, j.dataHoraConclusao = :agora, "
+            + "j.dataHoraExpiracao = :expiracao WHERE j.id = :id")
+    int concluir(@Param("id") String id, @Param("arquivo") String arquivo, @Param("linhas") long linhas,
+            @Param("agora") LocalDateTime agora, @Param("expiracao") LocalDateTime expiracao);
+
+    /**
+     * Marca o job com erro e libera a chave, para que a mesma solicitação gere um job novo.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RelatorioJob j SET j.situacao = br.com.smartvalidity.model.enums.SituacaoRelatorio.ERRO, "
+            + "j.chave = null, j.mensagem = :mensagem, j.dataHoraConclusao = :agora, j.dataHoraExpiracao = :expiracao "
+            + "WHERE j.id = :id")
+    int falhar(@Param("id") String id, @Param("mensagem") String mensagem, @Param("agora") LocalDateTime agora,
+            @Param("expiracao") LocalDateTime expiracao);
+
+    /**
+     * Jobs pendentes ou em andamento desde antes do limite: o nó que os gerava caiu.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RelatorioJob j SET j.situacao = br.com.smartvalidity.model.enums.SituacaoRelatorio.ERRO, "
+            + "j.chave = null, j.mensagem = :mensagem, j.dataHoraConclusao = :agora, j.dataHoraExpiracao = :expiracao "
+            + "WHERE j.situacao IN (br.com.smartvalidity.model.enums.SituacaoRelatorio.PENDENTE, "
+            + "br.com.smartvalidity.model.enums.SituacaoRelatorio.PROCESSANDO) AND j.dataHoraCriacao < :limite")
+    int falharAbandonados(@Param("limite") LocalDateTime limite, @Param("mensagem") String mensagem,
+            @Param("agora") LocalDateTime agora, @Param("expiracao") LocalDateTime expiracao);
+}
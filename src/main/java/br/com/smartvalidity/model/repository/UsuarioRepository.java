@@ -1,10 +1,12 @@
 package br.com.smartvalidity.model.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import br.com.smartvalidity.model.entity.Empresa;
@@ -17,8 +19,6 @@ public interface UsuarioRepository extends JpaRepository<Usuario, String>, JpaSp
 
     Optional<Usuario> findByEmail(String email);
 
-    Optional<Usuario> findBySenha(String senha);
-
     boolean existsByEmail(String email);
 
     boolean existsByEmailAndIdNot(String email, String id);
@@ -29,4 +29,30 @@ public interface UsuarioRepository extends JpaRepository<Usuario, String>, JpaSp
 
     Optional<Usuario> findFirstByPerfilAcesso(PerfilAcesso perfilAcesso);
 
+    /**
+     * Carrega apenas id, empresa e perfil, usados para montar o cadastro de destinatários dos alertas.
+     */
+    @Query("SELECT u.id AS id, e.id AS empresaId, u.perfilAcesso AS perfilAcesso FROM Usuario u LEFT JOIN u.empresa e")
+    List<DestinatarioAlerta> findAllDestinatarios();
+
+    /**
+     * Quantidade de usuários e a criação mais recente, conferidas antes de reaproveitar o cadastro
+     * de destinatários: mudam quando um usuário é criado, convidado ou excluído em qualquer nó.
+     */
+    @Query("SELECT COUNT(u) AS total, MAX(u.dataCriacao) AS ultimaCriacao FROM Usuario u")
+    VersaoCadastro findVersaoCadastro();
+
+    interface DestinatarioAlerta {
+        String getId();
+
+        String getEmpresaId();
+
+        PerfilAcesso getPerfilAcesso();
+    }
+
+    interface VersaoCadastro {
+        Long getTotal();
+
+        LocalDateTime getUltimaCriacao();
+    }
 }
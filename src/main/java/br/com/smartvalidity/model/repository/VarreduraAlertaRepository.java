@@ -0,0 +1,10 @@
+package br.com.smartvalidity.model.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import br.com.smartvalidity.model.entity.VarreduraAlerta;
+
+@Repository
+public interface VarreduraAlertaRepository extends JpaRepository<VarreduraAlerta, String> {
+}
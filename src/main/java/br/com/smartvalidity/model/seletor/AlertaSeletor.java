@@ -22,6 +22,16 @@ public class AlertaSeletor extends BaseSeletor implements Specification<Alerta>
     private LocalDateTime dataInicialDisparo;
     private LocalDateTime dataFinalDisparo;
     private String usuarioCriador;
+    private Boolean excluido;
+
+    /**
+     * Paginação por cursor: ordena por (dataHoraCriacao, id) e, quando informados,
+     * retorna apenas os alertas posteriores ao último par entregue.
+     */
+    private boolean paginacaoPorCursor;
+    private boolean ordemAscendente;
+    private LocalDateTime cursorDataHoraCriacao;
+    private Integer cursorId;
 
     @Override
     public Predicate toPredicate(Root<Alerta> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
@@ -50,6 +60,22 @@ public class AlertaSeletor extends BaseSeletor implements Specification<Alerta>
                 "%" + usuarioCriador.toLowerCase() + "%"));
         }
 
+        if (excluido != null) {
+            predicates.add(cb.equal(root.get("excluido"), excluido));
+        }
+
+        if (paginacaoPorCursor) {
+            if (cursorDataHoraCriacao != null && cursorId != null) {
+                predicates.add(Cursor.predicadoApos(cb, root.get("dataHoraCriacao"), root.<Integer>get("id"),
+                        cursorDataHoraCriacao, cursorId, ordemAscendente));
+            }
+            if (!isConsultaContagem(query)) {
+                query.orderBy(ordemAscendente
+                        ? List.of(cb.asc(root.get("dataHoraCriacao")), cb.asc(root.get("id")))
+                        : List.of(cb.desc(root.get("dataHoraCriacao")), cb.desc(root.get("id"))));
+            }
+        }
+
         return cb.and(predicates.toArray(new Predicate[0]));
     }
 
@@ -1,6 +1,7 @@
 package br.com.smartvalidity.model.seletor;
 
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import lombok.Data;
@@ -23,6 +24,14 @@ public class BaseSeletor {
         return texto != null && !texto.isBlank();
     }
 
+    /**
+     * Consultas de contagem não aceitam ORDER BY; os seletores só ordenam fora delas.
+     */
+    public static boolean isConsultaContagem(CriteriaQuery<?> query) {
+        Class<?> tipo = query.getResultType();
+        return Long.class.equals(tipo) || long.class.equals(tipo);
+    }
+
     public static void aplicarFiltroIntervalo(Root root,
                                               CriteriaBuilder cb, List<Predicate> predicates,
                                               Integer valorMinimo, Integer valorMaximo, String nomeAtributo) {
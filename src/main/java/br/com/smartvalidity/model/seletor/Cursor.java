@@ -0,0 +1,61 @@
+package br.com.smartvalidity.model.seletor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import br.com.smartvalidity.exception.SmartValidityException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Token opaco da paginação por cursor (keyset): guarda a data e o id do último
+ * registro entregue, de modo que a próxima página começa logo após ele sem OFFSET.
+ */
+@Getter
+@AllArgsConstructor
+public class Cursor {
+
+    private static final String SEPARADOR = "|";
+
+    private final LocalDateTime data;
+    private final String id;
+
+    public String codificar() {
+        String conteudo = data.toString() + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decodificar(String token) throws SmartValidityException {
+        try {
+            String conteudo = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = conteudo.indexOf(SEPARADOR);
+            if (separador <= 0 || separador == conteudo.length() - 1) {
+                throw new SmartValidityException("Cursor de paginação inválido");
+            }
+            return new Cursor(LocalDateTime.parse(conteudo.substring(0, separador)), conteudo.substring(separador + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new SmartValidityException("Cursor de paginação inválido");
+        }
+    }
+
+    /**
+     * WHERE (data, id) > (ultimaData, ultimoId), ou &lt; quando a ordem é decrescente.
+     */
+    public static <I extends Comparable<? super I>> Predicate predicadoApos(CriteriaBuilder cb,
+            Expression<LocalDateTime> data, Expression<I> id, LocalDateTime ultimaData, I ultimoId,
+            boolean ascendente) {
+        if (ascendente) {
+            return cb.or(
+                    cb.greaterThan(data, ultimaData),
+                    cb.and(cb.equal(data, ultimaData), cb.greaterThan(id, ultimoId)));
+        }
+        return cb.or(
+                cb.lessThan(data, ultimaData),
+                cb.and(cb.equal(data, ultimaData), cb.lessThan(id, ultimoId)));
+    }
+}
@@ -0,0 +1,310 @@
+package br.com.smartvalidity.model.seletor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import br.com.smartvalidity.model.dto.MuralDTO;
+import br.com.smartvalidity.model.entity.Fornecedor;
+import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.entity.Produto;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import lombok.Getter;
+
+/**
+ * Traduz o {@link MuralDTO.Filtro} em predicados, ordenação e paginação SQL,
+ * para que o mural carregue do banco apenas a página solicitada.
+ */
+@Getter
+public class MuralSeletor extends BaseSeletor implements Specification<ItemProduto> {
+
+    public static final int DIAS_PROXIMO_VENCIMENTO = 15;
+
+    private static final List<String> MOTIVOS_PADRAO = List.of("Avaria/Quebra", "Promoção");
+
+    private final MuralDTO.Filtro filtro;
+    private final LocalDateTime referencia;
+
+    private boolean paginacaoPorCursor;
+    private Cursor cursor;
+
+    /**
+     * @param referencia instante atual no fuso da loja, que delimita as abas (vencidos, hoje, próximos)
+     */
+    public MuralSeletor(MuralDTO.Filtro filtro, LocalDateTime referencia) {
+        this.filtro = filtro != null ? filtro : new MuralDTO.Filtro();
+        this.referencia = referencia;
+        if (this.filtro.temPaginacao()) {
+            this.setPagina(this.filtro.getPagina());
+            this.setLimite(this.filtro.getLimite());
+        }
+    }
+
+    /**
+     * Ativa a paginação por cursor: ordena por (dataVencimento, id) e, quando
+     * houver cursor, retorna apenas os itens posteriores a ele.
+     */
+    public void usarCursor(Cursor cursor) {
+        this.paginacaoPorCursor = true;
+        this.cursor = cursor;
+    }
+
+    /**
+     * No modo cursor a ordem é crescente por padrão (vencimentos mais próximos primeiro).
+     */
+    public boolean isCursorAscendente() {
+        return !"desc".equalsIgnoreCase(filtro.getSortDirection());
+    }
+
+    @Override
+    public Predicate toPredicate(Root<ItemProduto> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+        Path<Produto> produto = root.get("produto");
+
+        if (stringValida(filtro.getSearchTerm())) {
+            String termo = "%" + filtro.getSearchTerm().trim().toLowerCase() + "%";
+            predicates.add(cb.or(
+                    cb.like(cb.lower(produto.get("descricao")), termo),
+                    cb.like(cb.lower(produto.get("codigoBarras")), termo),
+                    cb.like(cb.lower(produto.get("marca")), termo),
+                    cb.like(cb.lower(root.get("lote")), termo)));
+        }
+
+        List<String> marcas = filtro.getMarcasEfetivas();
+        if (!marcas.isEmpty()) {
+            predicates.add(produto.get("marca").in(marcas));
+        }
+
+        List<String> corredores = filtro.getCorredoresEfetivos();
+        if (!corredores.isEmpty()) {
+            predicates.add(produto.get("categoria").get("corredor").get("nome").in(corredores));
+        }
+
+        List<String> categorias = filtro.getCategoriasEfetivas();
+        if (!categorias.isEmpty()) {
+            predicates.add(produto.get("categoria").get("nome").in(categorias));
+        }
+
+        List<String> fornecedores = filtro.getFornecedoresEfetivos();
+        if (!fornecedores.isEmpty()) {
+            // EXISTS evita linhas duplicadas quando o produto possui vários fornecedores
+            Subquery<Integer> subquery = query.subquery(Integer.class);
+            Root<Produto> produtoSub = subquery.from(Produto.class);
+            Join<Produto, Fornecedor> fornecedor = produtoSub.join("fornecedores");
+            subquery.select(fornecedor.get("id"))
+                    .where(cb.equal(produtoSub, produto), fornecedor.get("nome").in(fornecedores));
+            predicates.add(cb.exists(subquery));
+        }
+
+        List<String> lotes = filtro.getLotesEfetivos();
+        if (!lotes.isEmpty()) {
+            predicates.add(root.get("lote").in(lotes));
+        }
+
+        aplicarFiltroPeriodo(root, cb, predicates,
+                filtro.getDataVencimentoInicio(), filtro.getDataVencimentoFim(), "dataVencimento");
+        aplicarFiltroPeriodo(root, cb, predicates,
+                filtro.getDataFabricacaoInicio(), filtro.getDataFabricacaoFim(), "dataFabricacao");
+        aplicarFiltroPeriodo(root, cb, predicates,
+                filtro.getDataRecebimentoInicio(), filtro.getDataRecebimentoFim(), "dataRecebimento");
+
+        if (filtro.getInspecionado() != null) {
+            predicates.add(cb.equal(root.get("inspecionado"), filtro.getInspecionado()));
+        }
+
+        if (stringValida(filtro.getStatus())) {
+            predicates.add(predicadoStatus(root, cb, filtro.getStatus()));
+        }
+
+        List<String> motivos = filtro.getMotivosInspecaoEfetivos();
+        if (!motivos.isEmpty()) {
+            List<Predicate> motivoPredicates = new ArrayList<>();
+            for (String motivo : motivos) {
+                String motivoNormalizado = motivo.trim();
+                if ("Outro".equals(motivoNormalizado)) {
+                    // "Outro" engloba todo motivo customizado, ou seja, diferente dos motivos padrão
+                    motivoPredicates.add(cb.not(root.get("motivoInspecao").in(MOTIVOS_PADRAO)));
+                } else {
+                    motivoPredicates.add(cb.equal(root.get("motivoInspecao"), motivoNormalizado));
+                }
+            }
+            predicates.add(cb.isNotNull(root.get("motivoInspecao")));
+            predicates.add(cb.or(motivoPredicates.toArray(new Predicate[0])));
+        }
+
+        List<String> usuarios = filtro.getUsuariosInspecaoEfetivos();
+        if (!usuarios.isEmpty()) {
+            List<String> usuariosNormalizados = usuarios.stream()
+                    .map(usuario -> usuario.trim().toLowerCase())
+                    .toList();
+            predicates.add(cb.lower(cb.trim(root.<String>get("usuarioInspecao"))).in(usuariosNormalizados));
+        }
+
+        if (paginacaoPorCursor && cursor != null) {
+            predicates.add(Cursor.predicadoApos(cb, root.get("dataVencimento"), root.<String>get("id"),
+                    cursor.getData(), cursor.getId(), isCursorAscendente()));
+        }
+
+        if (!isConsultaContagem(query)) {
+            query.orderBy(paginacaoPorCursor ? ordenacaoCursor(root, cb) : ordenacao(root, query, cb));
+        }
+
+        return cb.and(predicates.toArray(new Predicate[0]));
+    }
+
+    private List<Order> ordenacaoCursor(Root<ItemProduto> root, CriteriaBuilder cb) {
+        // a ordem precisa coincidir com o predicado do cursor e com o índice (data_vencimento, id)
+        if (isCursorAscendente()) {
+            return List.of(cb.asc(root.get("dataVencimento")), cb.asc(root.get("id")));
+        }
+        return List.of(cb.desc(root.get("dataVencimento")), cb.desc(root.get("id")));
+    }
+
+    /**
+     * Itens cujo status exibido no mural (vencido, hoje ou proximo, calculado apenas
+     * pela data) é diferente do informado. Usado para validar relatórios por aba
+     * sem carregar os itens.
+     */
+    public static Specification<ItemProduto> foraDoStatus(String status, LocalDateTime referencia) {
+        return (root, query, cb) -> {
+            Path<LocalDateTime> vencimento = root.get("dataVencimento");
+            LocalDateTime inicioHoje = referencia.toLocalDate().atStartOfDay();
+            LocalDateTime inicioAmanha = inicioHoje.plusDays(1);
+
+            switch (status) {
+                case "vencido":
+                    return cb.greaterThanOrEqualTo(vencimento, inicioHoje);
+                case "hoje":
+                    return cb.or(cb.lessThan(vencimento, inicioHoje), cb.greaterThanOrEqualTo(vencimento, inicioAmanha));
+                case "proximo":
+                    return cb.lessThan(vencimento, inicioAmanha);
+                default:
+                    return cb.conjunction();
+            }
+        };
+    }
+
+    private Predicate predicadoStatus(Root<ItemProduto> root, CriteriaBuilder cb, String status) {
+        Path<LocalDateTime> vencimento = root.get("dataVencimento");
+        LocalDateTime inicioHoje = referencia.toLocalDate().atStartOfDay();
+        LocalDateTime inicioAmanha = inicioHoje.plusDays(1);
+
+        switch (status) {
+            case "proximo":
+                return cb.and(
+                        cb.greaterThanOrEqualTo(vencimento, inicioAmanha),
+                        cb.lessThan(vencimento, referencia.plusDays(DIAS_PROXIMO_VENCIMENTO)));
+            case "hoje":
+                return cb.and(
+                        cb.greaterThanOrEqualTo(vencimento, inicioHoje),
+                        cb.lessThan(vencimento, inicioAmanha));
+            case "vencido":
+                return cb.lessThan(vencimento, inicioHoje);
+            default:
+                // nenhum item possui status diferente de proximo/hoje/vencido
+                return cb.disjunction();
+        }
+    }
+
+    private List<Order> ordenacao(Root<ItemProduto> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        List<Order> ordens = new ArrayList<>();
+        if (!stringValida(filtro.getSortBy())) {
+            ordens.add(cb.asc(root.get("id")));
+            return ordens;
+        }
+
+        boolean ascendente = "asc".equalsIgnoreCase(filtro.getSortDirection());
+        Expression<?> expressao = expressaoOrdenacao(root, query, cb, filtro.getSortBy());
+
+        ordens.add(ascendente ? cb.asc(expressao) : cb.desc(expressao));
+        // desempate estável para que a paginação não repita nem pule itens
+        ordens.add(ascendente ? cb.asc(root.get("id")) : cb.desc(root.get("id")));
+        return ordens;
+    }
+
+    private Expression<?> expressaoOrdenacao(Root<ItemProduto> root, CriteriaQuery<?> query,
+                                             CriteriaBuilder cb, String campo) {
+        Path<Produto> produto = root.get("produto");
+
+        switch (campo.toLowerCase(Locale.ROOT)) {
+            case "datavencimento":
+                return root.get("dataVencimento");
+            case "marca":
+                return textoOrdenavel(cb, produto.get("marca"));
+            case "categoria":
+                return textoOrdenavel(cb, joinCategoria(root).get("nome"));
+            case "corredor":
+                return textoOrdenavel(cb, reutilizarJoin(joinCategoria(root), "corredor", JoinType.LEFT).get("nome"));
+            case "fornecedor": {
+                // o mural exibe apenas um fornecedor por produto; ordena pelo menor nome
+                Subquery<String> subquery = query.subquery(String.class);
+                Root<Produto> produtoSub = subquery.from(Produto.class);
+                Join<Produto, Fornecedor> fornecedor = produtoSub.join("fornecedores");
+                subquery.select(cb.least(fornecedor.<String>get("nome")))
+                        .where(cb.equal(produtoSub, produto));
+                return textoOrdenavel(cb, subquery);
+            }
+            case "status": {
+                LocalDate hoje = referencia.toLocalDate();
+                return cb.<String>selectCase()
+                        .when(cb.lessThan(root.get("dataVencimento"), hoje.atStartOfDay()), "vencido")
+                        .when(cb.lessThan(root.get("dataVencimento"), hoje.plusDays(1).atStartOfDay()), "hoje")
+                        .otherwise("proximo");
+            }
+            case "motivoinspecao":
+                return textoOrdenavel(cb, root.get("motivoInspecao"));
+            case "usuarioinspecao":
+                return textoOrdenavel(cb, root.get("usuarioInspecao"));
+            case "nome":
+            case "descricao":
+            default:
+                return textoOrdenavel(cb, produto.get("descricao"));
+        }
+    }
+
+    private static From<?, ?> joinCategoria(Root<ItemProduto> root) {
+        return reutilizarJoin(reutilizarJoin(root, "produto", JoinType.INNER), "categoria", JoinType.INNER);
+    }
+
+    /**
+     * Reaproveita um join já declarado na consulta (por exemplo, pela projeção do
+     * mural) para não repetir a mesma tabela no SQL.
+     */
+    private static From<?, ?> reutilizarJoin(From<?, ?> origem, String atributo, JoinType tipo) {
+        for (Join<?, ?> join : origem.getJoins()) {
+            if (join.getAttribute().getName().equals(atributo) && join.getJoinType() == tipo) {
+                return join;
+            }
+        }
+        return origem.join(atributo, tipo);
+    }
+
+    private static Expression<String> textoOrdenavel(CriteriaBuilder cb, Expression<String> texto) {
+        return cb.lower(cb.coalesce(texto, ""));
+    }
+
+    private static void aplicarFiltroPeriodo(Root<ItemProduto> root, CriteriaBuilder cb, List<Predicate> predicates,
+                                             LocalDateTime dataInicial, LocalDateTime dataFinal, String nomeAtributo) {
+        if (dataInicial != null && dataFinal != null) {
+            predicates.add(cb.between(root.get(nomeAtributo), dataInicial, dataFinal));
+        } else if (dataInicial != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get(nomeAtributo), dataInicial));
+        } else if (dataFinal != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get(nomeAtributo), dataFinal));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package br.com.smartvalidity.model.seletor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import br.com.smartvalidity.model.entity.Alerta;
+import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.entity.Notificacao;
+import br.com.smartvalidity.model.enums.TipoAlerta;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.Data;
+
+/**
+ * Notificações de um usuário, da mais recente para a mais antiga (pela criação ou, no
+ * histórico de resolvidas, pela inspeção do item). Fora das contagens,
+ * o alerta, o item, o produto e o criador vêm na mesma consulta (JOIN FETCH), e os
+ * filtros usam esses mesmos joins.
+ */
+@Data
+public class NotificacaoSeletor extends BaseSeletor implements Specification<Notificacao> {
+
+    private String usuarioId;
+    private TipoAlerta tipo;
+    // false: só pendentes (item ainda não inspecionado); true: só itens já inspecionados
+    private Boolean itemInspecionado;
+
+    // ordena pela inspeção do item (ou pela criação, se não houver), como o histórico arquivado
+    private boolean ordenarPorInspecao;
+
+    // data de ordenação e id da última notificação da página anterior
+    private LocalDateTime cursorData;
+    private Long cursorId;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Predicate toPredicate(Root<Notificacao> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        From<Notificacao, Alerta> alerta;
+        From<Alerta, ItemProduto> item;
+        if (isConsultaContagem(query)) {
+            alerta = root.join("alerta");
+            item = alerta.join("itemProduto", JoinType.LEFT);
+        } else {
+            // no Hibernate o fetch também é um join, então os filtros reaproveitam o mesmo alias
+            alerta = (From<Notificacao, Alerta>) root.<Notificacao, Alerta>fetch("alerta");
+            item = (From<Alerta, ItemProduto>) alerta.<Alerta, ItemProduto>fetch("itemProduto", JoinType.LEFT);
+            item.fetch("produto", JoinType.LEFT);
+            alerta.fetch("usuarioCriador", JoinType.LEFT);
+        }
+
+        if (stringValida(usuarioId)) {
+            predicates.add(cb.equal(root.get("usuario").get("id"), usuarioId));
+        }
+
+        if (tipo != null) {
+            predicates.add(cb.equal(alerta.get("tipo"), tipo));
+        }
+
+        if (itemInspecionado != null) {
+            predicates.add(cb.equal(item.get("inspecionado"), itemInspecionado));
+        }
+
+        Expression<LocalDateTime> dataOrdem = ordenarPorInspecao
+                ? cb.coalesce(item.<LocalDateTime>get("dataHoraInspecao"), root.<LocalDateTime>get("dataHoraCriacao"))
+                : root.get("dataHoraCriacao");
+
+        if (cursorData != null && cursorId != null) {
+            predicates.add(Cursor.predicadoApos(cb, dataOrdem, root.<Long>get("id"), cursorData, cursorId, false));
+        }
+
+        if (!isConsultaContagem(query)) {
+            query.orderBy(cb.desc(dataOrdem), cb.desc(root.get("id")));
+        }
+
+        return cb.and(predicates.toArray(new Predicate[0]));
+    }
+}
@@ -0,0 +1,255 @@
+package br.com.smartvalidity.scheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.repository.ItemProdutoRepository;
+import br.com.smartvalidity.service.LeaseService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Agenda das transições dos alertas de vencimento (AMANHA → HOJE → ATRASO). Os tipos só
+ * mudam na virada do dia, então cada item fica no grupo da próxima meia-noite (no fuso da
+ * loja) em que muda de tipo, e uma fila com atraso dispara cada grupo uma única vez.
+ * Itens gravados já dentro da janela de alerta são processados logo após o commit, pelo nó
+ * que os gravou.
+ * <p>
+ * Cada réplica monta a sua agenda, mas a virada do dia só é aplicada pelo detentor da
+ * concessão TRANSICOES_ALERTAS, que lê do banco os itens da janela de transição: assim os
+ * itens gravados em outras réplicas depois que a sua agenda foi montada também mudam de tipo,
+ * e as demais réplicas não repetem o trabalho.
+ */
+@Component
+@Slf4j
+public class AgendaAlertas {
+
+    @Autowired
+    private AlertaScheduler alertaScheduler;
+
+    @Autowired
+    private ItemProdutoRepository itemProdutoRepository;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private Clock relogio;
+
+    // mesma validade da concessão da varredura; a virada termina bem antes dela
+    @Value("${alertas.varredura.lease-ttl-ms:1800000}")
+    private long ttlLeaseMs;
+
+    private static final String TRANSICOES_ALERTAS = "TRANSICOES_ALERTAS";
+
+    private final DelayQueue<Transicao> fila = new DelayQueue<>();
+    private final Map<LocalDate, Transicao> transicoesPorDia = new ConcurrentHashMap<>();
+    private final Map<String, LocalDate> diaPorId = new ConcurrentHashMap<>();
+    private final Map<String, LocalDate> vencimentoPorId = new ConcurrentHashMap<>();
+
+    private Thread processador;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        LocalDate hoje = LocalDate.now(relogio);
+        // itens que venceram antes de hoje já estão em ATRASO e não mudam mais de tipo
+        for (ItemProdutoRepository.VencimentoItem item
+                : itemProdutoRepository.findVencimentosNaoInspecionadosDesde(hoje.atStartOfDay())) {
+            agendar(item.getId(), item.getDataVencimento().toLocalDate(), hoje);
+        }
+
+        processador = new Thread(this::processarFila, "agenda-alertas");
+        processador.setDaemon(true);
+        processador.start();
+        log.info("Agenda de alertas iniciada: {} itens em {} transições pendentes ({})",
+                diaPorId.size(), transicoesPorDia.size(), relogio.getZone());
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (processador != null) {
+            processador.interrupt();
+        }
+    }
+
+    public void registrar(ItemProduto item) {
+        registrarTodos(Collections.singletonList(item));
+    }
+
+    public void registrarTodos(Collection<ItemProduto> itens) {
+        LocalDate hoje = LocalDate.now(relogio);
+        Set<String> imediatos = new HashSet<>();
+        for (ItemProduto item : itens) {
+            if (item == null || item.getId() == null) {
+                continue;
+            }
+            remover(item.getId());
+            if (Boolean.TRUE.equals(item.getInspecionado()) || item.getDataVencimento() == null) {
+                continue;
+            }
+            LocalDate vencimento = item.getDataVencimento().toLocalDate();
+            agendar(item.getId(), vencimento, hoje);
+            // já vence até amanhã: o alerta não espera a próxima meia-noite
+            if (!vencimento.isAfter(hoje.plusDays(1))) {
+                imediatos.add(item.getId());
+            }
+        }
+        if (!imediatos.isEmpty()) {
+            dispararAposCommit(imediatos);
+        }
+    }
+
+    public synchronized void remover(String id) {
+        vencimentoPorId.remove(id);
+        LocalDate dia = diaPorId.remove(id);
+        if (dia != null) {
+            Transicao transicao = transicoesPorDia.get(dia);
+            if (transicao != null) {
+                transicao.ids.remove(id);
+            }
+        }
+    }
+
+    public void removerTodos(Collection<String> ids) {
+        ids.forEach(this::remover);
+    }
+
+    private synchronized void agendar(String id, LocalDate vencimento, LocalDate hoje) {
+        LocalDate proxima = proximaTransicao(vencimento, hoje);
+        if (proxima == null) {
+            return;
+        }
+        vencimentoPorId.put(id, vencimento);
+        diaPorId.put(id, proxima);
+        transicoesPorDia.computeIfAbsent(proxima, dia -> {
+            Transicao transicao = new Transicao(dia.atStartOfDay(relogio.getZone()).toInstant().toEpochMilli(), dia);
+            fila.add(transicao);
+            return transicao;
+        }).ids.add(id);
+    }
+
+    /**
+     * Próxima meia-noite em que o tipo muda: véspera (AMANHA), dia do vencimento (HOJE)
+     * e dia seguinte (ATRASO).
+     */
+    private static LocalDate proximaTransicao(LocalDate vencimento, LocalDate hoje) {
+        for (LocalDate dia : new LocalDate[] { vencimento.minusDays(1), vencimento, vencimento.plusDays(1) }) {
+            if (dia.isAfter(hoje)) {
+                return dia;
+            }
+        }
+        return null;
+    }
+
+    private void dispararAposCommit(Set<String> ids) {
+        Transicao transicao = new Transicao(System.currentTimeMillis(), null);
+        transicao.ids.addAll(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fila.add(transicao);
+                }
+            });
+        } else {
+            fila.add(transicao);
+        }
+    }
+
+    private void processarFila() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Set<String> ids = Set.of();
+            try {
+                Transicao transicao = fila.take();
+                ids = retirar(transicao);
+                if (ids.isEmpty()) {
+                    continue;
+                }
+                if (transicao.dia != null) {
+                    aplicarVirada(transicao.dia);
+                } else {
+                    alertaScheduler.processarTransicoes(ids);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // a varredura de segurança do AlertaScheduler corrige o que ficar para trás
+                log.error("Erro ao processar transições de alertas: {}", e.getMessage(), e);
+            } finally {
+                reagendar(ids);
+            }
+        }
+    }
+
+    /**
+     * Transições da meia-noite do dia: vencimento amanhã (AMANHA), hoje (HOJE) e ontem (ATRASO).
+     * Só o detentor da concessão as aplica, com os itens lidos do banco, não só os da sua agenda.
+     */
+    private void aplicarVirada(LocalDate dia) {
+        boolean aplicada = leaseService.executarComLease(TRANSICOES_ALERTAS, Duration.ofMillis(ttlLeaseMs),
+                () -> alertaScheduler.processarTransicoes(itemProdutoRepository.findIdsNaoInspecionadosEntre(
+                        dia.minusDays(1).atStartOfDay(), dia.plusDays(2).atStartOfDay())));
+        if (!aplicada) {
+            log.debug("Virada de {} aplicada por outra réplica", dia);
+        }
+    }
+
+    private synchronized Set<String> retirar(Transicao transicao) {
+        if (transicao.dia != null) {
+            transicoesPorDia.remove(transicao.dia, transicao);
+            transicao.ids.forEach(id -> diaPorId.remove(id, transicao.dia));
+        }
+        return Set.copyOf(transicao.ids);
+    }
+
+    private void reagendar(Set<String> ids) {
+        LocalDate hoje = LocalDate.now(relogio);
+        for (String id : ids) {
+            LocalDate vencimento = vencimentoPorId.get(id);
+            if (vencimento != null && !diaPorId.containsKey(id)) {
+                agendar(id, vencimento, hoje);
+            }
+        }
+    }
+
+    private static final class Transicao implements Delayed {
+        private final long instanteMs;
+        private final LocalDate dia;
+        private final Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        private Transicao(long instanteMs, LocalDate dia) {
+            this.instanteMs = instanteMs;
+            this.dia = dia;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(instanteMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed outro) {
+            return Long.compare(instanteMs, ((Transicao) outro).instanteMs);
+        }
+    }
+}
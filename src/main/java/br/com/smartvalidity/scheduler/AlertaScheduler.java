@@ -1,26 +1,32 @@
 package br.com.smartvalidity.scheduler;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-
-import br.com.smartvalidity.model.entity.Alerta;
-import br.com.smartvalidity.model.entity.ItemProduto;
-import br.com.smartvalidity.model.entity.Usuario;
-import br.com.smartvalidity.model.enums.PerfilAcesso;
-import br.com.smartvalidity.model.enums.TipoAlerta;
-import br.com.smartvalidity.model.repository.AlertaRepository;
+
+import br.com.smartvalidity.model.entity.VarreduraAlerta;
 import br.com.smartvalidity.model.repository.ItemProdutoRepository;
-import br.com.smartvalidity.model.repository.UsuarioRepository;
-import br.com.smartvalidity.service.AlertaService;
-import br.com.smartvalidity.service.NotificacaoService;
+import br.com.smartvalidity.model.repository.VarreduraAlertaRepository;
+import br.com.smartvalidity.service.AlertaLoteService;
+import br.com.smartvalidity.service.LeaseService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 @Component
@@ -31,189 +37,224 @@ public class AlertaScheduler {
     private ItemProdutoRepository itemProdutoRepository;
 
     @Autowired
-    private AlertaRepository alertaRepository;
+    private AlertaLoteService alertaLoteService;
 
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private VarreduraAlertaRepository varreduraAlertaRepository;
 
     @Autowired
-    private NotificacaoService notificacaoService;
+    private LeaseService leaseService;
 
     @Autowired
-    private AlertaService alertaService;
+    private Clock relogio;
+
+    private static final String VARREDURA_VENCIMENTOS = "VENCIMENTOS";
+
+    // recua a marca d'água para não perder itens gravados durante a execução; reprocessar é inofensivo
+    private static final long MARGEM_MARCA_SEGUNDOS = 60;
+
+    // itens por transação na criação/atualização de alertas em lote
+    @Value("${alertas.lote.tamanho:500}")
+    private int tamanhoLote;
+
+    // partições (faixas de id) varridas em paralelo, no máximo 16; cada uma ocupa uma conexão do pool
+    @Value("${alertas.varredura.particoes:4}")
+    private int particoes;
+
+    private static final String DIGITOS_HEXADECIMAIS = "0123456789abcdef";
+
+    private ExecutorService executorParticoes;
+
+    // validade da concessão da varredura; maior que o intervalo para o detentor renová-la a tempo
+    @Value("${alertas.varredura.lease-ttl-ms:1800000}")
+    private long ttlLeaseMs;
+
+    @PostConstruct
+    public void iniciar() {
+        particoes = Math.max(1, Math.min(particoes, DIGITOS_HEXADECIMAIS.length()));
+        AtomicInteger contador = new AtomicInteger();
+        executorParticoes = Executors.newFixedThreadPool(particoes, tarefa -> {
+            Thread thread = new Thread(tarefa, "varredura-alertas-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executorParticoes.shutdownNow();
+    }
 
-    @Scheduled(fixedRate = 30000) // 30 segundos
-    @Transactional
+    /**
+     * Varredura de segurança: as transições são disparadas pela {@link AgendaAlertas};
+     * aqui só se corrige o que tenha escapado dela (alterações feitas fora do serviço, falhas, reinícios).
+     * Não há transação envolvendo a varredura inteira: cada lote é confirmado separadamente.
+     * Com várias réplicas, só o nó que detém a concessão executa.
+     */
+    @Scheduled(fixedDelayString = "${alertas.varredura.intervalo-ms:900000}", initialDelay = 60000)
     public void verificarVencimentosECriarAlertas() {
-        log.info("=== Iniciando verificação de vencimentos ===");
-        
         try {
-            List<ItemProduto> itensNaoInspecionados = itemProdutoRepository.findByInspecionadoFalse();
-            log.info("Encontrados {} itens não inspecionados", itensNaoInspecionados.size());
-
-            LocalDate hoje = LocalDate.now();
-            LocalDate amanha = hoje.plusDays(1);
-
-            int alertasCriados = 0;
-            int alertasAtualizados = 0;
-
-            for (ItemProduto item : itensNaoInspecionados) {
-                LocalDate dataVencimento = item.getDataVencimento().toLocalDate();
-                
-                // Determinar o tipo de alerta baseado na data
-                TipoAlerta tipoAlerta = determinarTipoAlerta(dataVencimento, hoje);
-                
-                if (tipoAlerta != null) {
-                    // Verificar se já existe um alerta para este item-produto
-                    var alertaExistente = alertaRepository.findFirstByItemProdutoAndExcluidoFalse(item);
-                    
-                    if (alertaExistente.isPresent()) {
-                        // Atualizar alerta existente se o tipo mudou
-                        if (atualizarAlertaSeNecessario(alertaExistente.get(), tipoAlerta, item)) {
-                            alertasAtualizados++;
-                        }
-                    } else {
-                        // Criar novo alerta
-                        criarAlertaAutomatico(item, tipoAlerta);
-                        alertasCriados++;
-                    }
-                }
-            }
-
-            log.info("Verificação concluída. {} novos alertas criados, {} alertas atualizados", 
-                alertasCriados, alertasAtualizados);
-            
+            leaseService.executarComLease(VARREDURA_VENCIMENTOS, Duration.ofMillis(ttlLeaseMs), this::varrerVencimentos);
         } catch (Exception e) {
             log.error("Erro durante verificação de vencimentos: {}", e.getMessage(), e);
         }
     }
 
-    /**
-     * Processamento de alertas recorrentes removido - alertas personalizados são mais simples
-     * Apenas alertas automáticos de vencimento são mantidos
-     */
+    private void varrerVencimentos() {
+        // a marca d'água segue o relógio da aplicação, o mesmo usado em dataHoraAtualizacao
+        LocalDateTime inicio = LocalDateTime.now();
+        LocalDate hoje = LocalDate.now(relogio);
 
-    /**
-     * Determina o tipo de alerta baseado na data de vencimento
-     */
-    private TipoAlerta determinarTipoAlerta(LocalDate dataVencimento, LocalDate hoje) {
-        if (dataVencimento.isBefore(hoje)) {
-            return TipoAlerta.VENCIMENTO_ATRASO;
-        } else if (dataVencimento.isEqual(hoje)) {
-            return TipoAlerta.VENCIMENTO_HOJE;
-        } else if (dataVencimento.isEqual(hoje.plusDays(1))) {
-            return TipoAlerta.VENCIMENTO_AMANHA;
+        VarreduraAlerta varredura = varreduraAlertaRepository.findById(VARREDURA_VENCIMENTOS)
+                .orElseGet(() -> new VarreduraAlerta(VARREDURA_VENCIMENTOS));
+
+        // uma vez por dia (ou sem marca d'água) a janela inteira é verificada, pois os tipos mudam na virada do dia;
+        // nas demais execuções só entram itens alterados desde a marca
+        boolean varreduraCompleta = varredura.getMarcaAtualizacao() == null
+                || !hoje.equals(varredura.getDataUltimaVarreduraCompleta());
+
+        // as partições (faixas de id) são varridas em paralelo, cada lote em sua própria transação
+        long inicioVarredura = System.currentTimeMillis();
+        List<Callable<ResumoParticao>> tarefas = new ArrayList<>();
+        for (int particao = 0; particao < particoes; particao++) {
+            String idInicial = limiteParticao(particao, particoes);
+            String idFinal = particao == particoes - 1 ? "" : limiteParticao(particao + 1, particoes);
+            LocalDateTime marca = varreduraCompleta ? null : varredura.getMarcaAtualizacao();
+            tarefas.add(() -> varrerParticao(idInicial, idFinal, hoje, marca));
+        }
+
+        List<Future<ResumoParticao>> resultados;
+        try {
+            resultados = executorParticoes.invokeAll(tarefas);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        int itensPendentes = 0;
+        int alertasCriados = 0;
+        int alertasAtualizados = 0;
+        int particoesComErro = 0;
+        boolean interrompida = false;
+        for (int particao = 0; particao < resultados.size(); particao++) {
+            try {
+                ResumoParticao resumo = resultados.get(particao).get();
+                itensPendentes += resumo.itens;
+                alertasCriados += resumo.criados;
+                alertasAtualizados += resumo.atualizados;
+                interrompida |= resumo.interrompida;
+            } catch (ExecutionException e) {
+                // o erro fica restrito à partição; as demais seguem e a marca não avança
+                particoesComErro++;
+                log.error("Erro na partição {} da verificação de vencimentos: {}", particao,
+                    e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        if (particoesComErro > 0) {
+            log.warn("Verificação {} com erro em {} de {} partições: {} itens pendentes, {} novos alertas criados, {} alertas atualizados",
+                varreduraCompleta ? "completa" : "incremental", particoesComErro, particoes,
+                itensPendentes, alertasCriados, alertasAtualizados);
+            return;
+        }
+        if (interrompida) {
+            // a marca fica para o nó que assumiu a concessão
+            log.warn("Verificação {} interrompida pela perda da concessão: {} itens pendentes, {} novos alertas criados, {} alertas atualizados",
+                varreduraCompleta ? "completa" : "incremental", itensPendentes, alertasCriados, alertasAtualizados);
+            return;
+        }
+
+        // todos os lotes de todas as partições foram confirmados
+        varredura.setMarcaAtualizacao(inicio.minusSeconds(MARGEM_MARCA_SEGUNDOS));
+        if (varreduraCompleta) {
+            varredura.setDataUltimaVarreduraCompleta(hoje);
+        }
+        varredura.setDataHoraUltimaExecucao(inicio);
+        varredura.setItensUltimaExecucao(itensPendentes);
+        varreduraAlertaRepository.save(varredura);
+
+        if (itensPendentes > 0 || varreduraCompleta) {
+            log.info("Verificação {} concluída em {} ms ({} partições): {} itens pendentes, {} novos alertas criados, {} alertas atualizados",
+                varreduraCompleta ? "completa" : "incremental", System.currentTimeMillis() - inicioVarredura, particoes,
+                itensPendentes, alertasCriados, alertasAtualizados);
         }
-        return null; // Não precisa de alerta ainda
     }
 
     /**
-     * Atualiza um alerta existente se necessário
-     * @return true se o alerta foi atualizado, false caso contrário
+     * Percorre uma faixa de ids em lotes, por cursor em (vencimento, id), até o fim da faixa;
+     * marca nula = varredura completa.
      */
-    @Transactional
-    private boolean atualizarAlertaSeNecessario(Alerta alerta, TipoAlerta novoTipo, ItemProduto itemProduto) {
-        if (alerta.getTipo() != novoTipo) {
-            // Tipo mudou, atualizar o alerta
-            alerta.setTipo(novoTipo);
-            atualizarTituloEDescricao(alerta, novoTipo, itemProduto);
-            alerta.setDataHoraDisparo(LocalDateTime.now()); // Atualizar timestamp
-            
-            alertaRepository.save(alerta);
-            
-            log.info("Alerta atualizado: {} → {} para item {} (Lote: {})", 
-                alerta.getTipo(), novoTipo, 
-                itemProduto.getProduto() != null ? itemProduto.getProduto().getDescricao() : "Produto", 
-                itemProduto.getLote());
-            
-            return true;
-        }
-        return false;
+    private ResumoParticao varrerParticao(String idInicial, String idFinal, LocalDate hoje, LocalDateTime marca) {
+        LocalDateTime inicioHoje = hoje.atStartOfDay();
+        LocalDateTime inicioAmanha = hoje.plusDays(1).atStartOfDay();
+        LocalDateTime limite = hoje.plusDays(2).atStartOfDay();
+
+        ResumoParticao resumo = new ResumoParticao();
+        LocalDateTime ultimoVencimento = null;
+        String ultimoId = null;
+        List<ItemProdutoRepository.VencimentoItem> lote;
+        do {
+            lote = marca == null
+                    ? itemProdutoRepository.findSemAlertaVigente(inicioHoje, inicioAmanha, limite,
+                            idInicial, idFinal, ultimoVencimento, ultimoId, Limit.of(tamanhoLote))
+                    : itemProdutoRepository.findSemAlertaVigenteAlteradosDesde(inicioHoje, inicioAmanha, limite,
+                            marca, idInicial, idFinal, ultimoVencimento, ultimoId, Limit.of(tamanhoLote));
+            if (lote.isEmpty()) {
+                break;
+            }
+            AlertaLoteService.ResultadoLote resultado = alertaLoteService.sincronizar(
+                    lote.stream().map(ItemProdutoRepository.VencimentoItem::getId).toList(), hoje);
+            resumo.itens += lote.size();
+            resumo.criados += resultado.getCriados();
+            resumo.atualizados += resultado.getAtualizados();
+
+            ItemProdutoRepository.VencimentoItem ultimo = lote.get(lote.size() - 1);
+            ultimoVencimento = ultimo.getDataVencimento();
+            ultimoId = ultimo.getId();
+            // varreduras mais longas que o TTL renovam a concessão; se outro nó a assumiu, ele continua
+            if (!leaseService.renovar(VARREDURA_VENCIMENTOS, Duration.ofMillis(ttlLeaseMs))) {
+                resumo.interrompida = true;
+                break;
+            }
+        } while (lote.size() == tamanhoLote);
+        return resumo;
     }
 
     /**
-     * Criar um alerta automático para um item-produto específico
+     * Primeiro caractere da faixa de ids da partição. Os ids são UUIDs, então o primeiro
+     * dígito hexadecimal distribui os itens de maneira uniforme entre até 16 partições.
      */
-    @Transactional
-    private void criarAlertaAutomatico(ItemProduto itemProduto, TipoAlerta tipoAlerta) {
-        try {
-            Alerta alerta = new Alerta();
-            
-            // Informações básicas do alerta
-            alerta.setTipo(tipoAlerta);
-            alerta.setItemProduto(itemProduto);
-            alerta.setDataHoraDisparo(LocalDateTime.now());
-
-            // Definir título e descrição usando método comum
-            atualizarTituloEDescricao(alerta, tipoAlerta, itemProduto);
-
-            // Adicionar apenas ASSINANTES e ADMINS para receber o alerta
-            List<Usuario> todosUsuarios = usuarioRepository.findAll();
-            Set<Usuario> usuariosAlerta = new HashSet<>();
-            Set<Usuario> usuariosNotificacao = new HashSet<>();
-            
-            for (Usuario usuario : todosUsuarios) {
-                // ASSINANTES e ADMINS recebem alertas e notificações
-                if (usuario.getPerfilAcesso() == PerfilAcesso.ASSINANTE || 
-                    usuario.getPerfilAcesso() == PerfilAcesso.ADMIN) {
-                    usuariosAlerta.add(usuario);
-                }
-                // TODOS os usuários (incluindo OPERADORES) recebem notificações
-                usuariosNotificacao.add(usuario);
-            }
-            
-            alerta.setUsuariosAlerta(usuariosAlerta);
-
-            // Salvar o alerta
-            alertaRepository.save(alerta);
-            
-            // Criar notificações individuais para TODOS os usuários
-            // Temporariamente substituir usuários do alerta para incluir todos
-            Set<Usuario> usuariosOriginais = alerta.getUsuariosAlerta();
-            alerta.setUsuariosAlerta(usuariosNotificacao);
-            notificacaoService.criarNotificacoesParaAlerta(alerta);
-            // Restaurar usuários originais do alerta
-            alerta.setUsuariosAlerta(usuariosOriginais);
-            
-            String produtoNome = itemProduto.getProduto() != null ? 
-                itemProduto.getProduto().getDescricao() : "Produto";
-            log.info("Alerta automático criado: {} para item {} (Lote: {})", 
-                tipoAlerta, produtoNome, itemProduto.getLote());
-                
-        } catch (Exception e) {
-            log.error("Erro ao criar alerta automático para item {}: {}", 
-                itemProduto.getId(), e.getMessage(), e);
-        }
+    private static String limiteParticao(int particao, int totalParticoes) {
+        return particao == 0 ? "" : String.valueOf(DIGITOS_HEXADECIMAIS.charAt(particao * 16 / totalParticoes));
     }
 
     /**
-     * Atualiza o título e descrição de um alerta com base no tipo de alerta
+     * Aplica as transições disparadas pela {@link AgendaAlertas} aos itens informados, em lotes.
      */
-    private void atualizarTituloEDescricao(Alerta alerta, TipoAlerta tipoAlerta, ItemProduto itemProduto) {
-            String produtoNome = itemProduto.getProduto() != null ? 
-                itemProduto.getProduto().getDescricao() : "Produto";
-            
-            switch (tipoAlerta) {
-                case VENCIMENTO_AMANHA:
-                    alerta.setTitulo("Produto vence amanhã");
-                    alerta.setDescricao(String.format("O item '%s' (Lote: %s) vence amanhã (%s). Verifique o estoque!", 
-                        produtoNome, itemProduto.getLote(), 
-                        itemProduto.getDataVencimento().toLocalDate().toString()));
-                    break;
-                    
-                case VENCIMENTO_HOJE:
-                    alerta.setTitulo("Produto vence hoje");
-                    alerta.setDescricao(String.format("O item '%s' (Lote: %s) vence HOJE (%s). Ação imediata necessária!", 
-                        produtoNome, itemProduto.getLote(), 
-                        itemProduto.getDataVencimento().toLocalDate().toString()));
-                    break;
-                    
-                case VENCIMENTO_ATRASO:
-                    alerta.setTitulo("Produto vencido");
-                alerta.setDescricao(String.format("O item '%s' (Lote: %s) está vencido desde %s. Remova do estoque imediatamente!", 
-                        produtoNome, itemProduto.getLote(), 
-                        itemProduto.getDataVencimento().toLocalDate().toString()));
-                    break;
+    public void processarTransicoes(Collection<String> ids) {
+        LocalDate hoje = LocalDate.now(relogio);
+        List<String> itens = new ArrayList<>(ids);
+        int alertasCriados = 0;
+        int alertasAtualizados = 0;
+
+        for (int inicio = 0; inicio < itens.size(); inicio += tamanhoLote) {
+            List<String> lote = itens.subList(inicio, Math.min(inicio + tamanhoLote, itens.size()));
+            AlertaLoteService.ResultadoLote resultado = alertaLoteService.sincronizar(lote, hoje);
+            alertasCriados += resultado.getCriados();
+            alertasAtualizados += resultado.getAtualizados();
         }
+
+        log.info("Transições de {} itens processadas: {} novos alertas criados, {} alertas atualizados",
+            ids.size(), alertasCriados, alertasAtualizados);
+    }
+
+    private static class ResumoParticao {
+        private int itens;
+        private int criados;
+        private int atualizados;
+        private boolean interrompida;
     }
 }
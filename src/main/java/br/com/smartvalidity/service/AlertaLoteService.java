@@ -0,0 +1,110 @@
+package br.com.smartvalidity.service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.smartvalidity.model.dto.NotificacaoDTO;
+import br.com.smartvalidity.model.enums.PerfilAcesso;
+import br.com.smartvalidity.model.enums.TipoEventoNotificacao;
+import br.com.smartvalidity.model.repository.AlertaRepository;
+import br.com.smartvalidity.model.repository.ItemProdutoRepository;
+import br.com.smartvalidity.model.repository.NotificacaoRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cria e atualiza alertas automáticos de vencimento em lote, com poucos comandos SQL por
+ * grupo de itens. Cada chamada roda em sua própria transação, de modo que quem processa
+ * muitos itens confirma um lote de cada vez.
+ */
+@Service
+@Slf4j
+public class AlertaLoteService {
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private NotificacaoRepository notificacaoRepository;
+
+    @Autowired
+    private ItemProdutoRepository itemProdutoRepository;
+
+    @Autowired
+    private Clock relogio;
+
+    @Autowired
+    private DestinatariosAlertaService destinatariosAlertaService;
+
+    @Autowired
+    private ContadorNotificacaoService contadorNotificacaoService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Deixa os itens informados com o alerta automático do tipo correspondente a hoje: atualiza
+     * os alertas com tipo desatualizado e cria os que faltam, já com usuários e notificações.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public ResultadoLote sincronizar(Collection<String> idsItens, LocalDate hoje) {
+        if (idsItens.isEmpty()) {
+            return new ResultadoLote(0, 0);
+        }
+        LocalDateTime inicioHoje = hoje.atStartOfDay();
+        LocalDateTime inicioAmanha = hoje.plusDays(1).atStartOfDay();
+        LocalDateTime limite = hoje.plusDays(2).atStartOfDay();
+        // sem fração de segundo, para localizar os alertas recém-criados independentemente da precisão da coluna
+        LocalDateTime agora = LocalDateTime.now(relogio).truncatedTo(ChronoUnit.SECONDS);
+
+        // as transições da agenda rodam em todos os nós; a trava serializa quem disputa os mesmos itens
+        itemProdutoRepository.travarParaAlertas(idsItens);
+
+        int atualizados = alertaRepository.atualizarTiposAutomaticos(idsItens, inicioHoje, inicioAmanha, limite, agora);
+        int criados = alertaRepository.inserirAlertasAutomaticos(idsItens, inicioHoje, inicioAmanha, limite, agora);
+
+        if (criados > 0) {
+            List<Integer> novos = alertaRepository.findIdsCriadosEm(idsItens, agora);
+            List<String> vinculados = destinatariosAlertaService
+                    .buscarIdsTodasEmpresas(PerfilAcesso.ASSINANTE, PerfilAcesso.ADMIN);
+            if (!vinculados.isEmpty()) {
+                alertaRepository.vincularUsuarios(novos, vinculados);
+            }
+            // todos os usuários (inclusive OPERADORES) são notificados dos alertas automáticos
+            List<String> notificados = destinatariosAlertaService.buscarTodosIds();
+            if (!notificados.isEmpty()) {
+                contadorNotificacaoService.registrarNovas(novos, notificados);
+                notificacaoRepository.inserirFaltantes(novos, notificados, agora);
+                eventPublisher.publishEvent(NotificacaoDTO.Alteracao.builder()
+                        .tipo(TipoEventoNotificacao.CRIADAS)
+                        .alertas(novos)
+                        .build());
+            }
+        }
+
+        log.debug("Lote de {} itens: {} alertas criados, {} atualizados", idsItens.size(), criados, atualizados);
+        return new ResultadoLote(criados, atualizados);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ResultadoLote {
+        private final int criados;
+        private final int atualizados;
+
+        public int getTotal() {
+            return criados + atualizados;
+        }
+    }
+}
@@ -1,23 +1,32 @@
 package br.com.smartvalidity.service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
 import br.com.smartvalidity.exception.SmartValidityException;
 import br.com.smartvalidity.model.dto.AlertaDTO;
+import br.com.smartvalidity.model.dto.NotificacaoDTO;
 import br.com.smartvalidity.model.entity.Alerta;
 import br.com.smartvalidity.model.entity.ItemProduto;
 import br.com.smartvalidity.model.entity.Produto;
 import br.com.smartvalidity.model.entity.Usuario;
 import br.com.smartvalidity.model.enums.TipoAlerta;
+import br.com.smartvalidity.model.enums.TipoEventoNotificacao;
 import br.com.smartvalidity.model.mapper.AlertaMapper;
 import br.com.smartvalidity.model.repository.AlertaRepository;
+import br.com.smartvalidity.model.seletor.AlertaSeletor;
+import br.com.smartvalidity.model.seletor.Cursor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -41,6 +50,9 @@ public class AlertaService {
     @Autowired
     private NotificacaoService notificacaoService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
 
 
     public AlertaDTO.Response create(AlertaDTO.Request dto) {
@@ -310,6 +322,12 @@ public class AlertaService {
             // O método criarNotificacoesParaAlerta já possui proteção contra duplicação
             log.info("Criando/atualizando notificações para o alerta...");
             notificacaoService.criarNotificacoesParaAlerta(alerta);
+
+            eventPublisher.publishEvent(NotificacaoDTO.Alteracao.builder()
+                    .tipo(TipoEventoNotificacao.ATUALIZADAS)
+                    .usuarios(alerta.getUsuariosAlerta().stream().map(Usuario::getId).collect(Collectors.toList()))
+                    .alertas(List.of(alerta.getId()))
+                    .build());
             
             log.info("Alerta {} atualizado com sucesso", id);
             
@@ -381,6 +399,48 @@ public class AlertaService {
                 .toList();
     }
 
+    /**
+     * Paginação por cursor (keyset) dos alertas não excluídos, ordenada por
+     * (dataHoraCriacao, id) conforme sortDirection. O filtro roda no banco e o
+     * custo de cada página independe da profundidade.
+     */
+    public AlertaDTO.Pagina filtrarAlertasPorCursor(AlertaDTO.Filtro filtro) throws SmartValidityException {
+        AlertaSeletor seletor = new AlertaSeletor();
+        seletor.setTitulo(filtro.getTitulo());
+        seletor.setTipo(filtro.getTipo());
+        seletor.setDataInicialDisparo(filtro.getDataInicialDisparo());
+        seletor.setDataFinalDisparo(filtro.getDataFinalDisparo());
+        seletor.setUsuarioCriador(filtro.getUsuarioCriador());
+        seletor.setExcluido(false);
+        seletor.setPaginacaoPorCursor(true);
+        seletor.setOrdemAscendente("asc".equalsIgnoreCase(filtro.getSortDirection()));
+
+        if (filtro.getCursor() != null && !filtro.getCursor().isBlank()) {
+            Cursor cursor = Cursor.decodificar(filtro.getCursor());
+            try {
+                seletor.setCursorId(Integer.valueOf(cursor.getId()));
+            } catch (NumberFormatException e) {
+                throw new SmartValidityException("Cursor de paginação inválido");
+            }
+            seletor.setCursorDataHoraCriacao(cursor.getData());
+        }
+
+        int limite = filtro.getLimite() > 0 ? filtro.getLimite() : 10;
+        Window<Alerta> janela = alertaRepository.findBy(seletor,
+                consulta -> consulta.limit(limite).scroll(ScrollPosition.offset()));
+        List<Alerta> alertas = janela.getContent();
+
+        AlertaDTO.Pagina pagina = new AlertaDTO.Pagina();
+        pagina.setItens(alertas.stream().map(AlertaMapper::toListagemDTO).toList());
+        pagina.setLimite(limite);
+        pagina.setTemProximaPagina(janela.hasNext());
+        if (janela.hasNext() && !alertas.isEmpty()) {
+            Alerta ultimo = alertas.get(alertas.size() - 1);
+            pagina.setProximoCursor(new Cursor(ultimo.getDataHoraCriacao(), String.valueOf(ultimo.getId())).codificar());
+        }
+        return pagina;
+    }
+
     public long contarAlertasFiltrados(AlertaDTO.Filtro filtro) {
         List<Alerta> todos = alertaRepository.findAllNotDeleted();
 
@@ -417,8 +477,7 @@ public class AlertaService {
 
     /**
      * Exclui logicamente todos os alertas relacionados a um ItemProduto específico
-     * após a inspeção do produto. Este método é chamado automaticamente quando
-     * um produto é inspecionado no mural.
+     * após a inspeção do produto, junto com as notificações deles.
      * 
      * @param itemProduto O item produto que foi inspecionado
      * @throws SmartValidityException Se houver erro durante a exclusão
@@ -429,36 +488,40 @@ public class AlertaService {
             log.warn("ItemProduto é null, não há alertas para excluir");
             return;
         }
+        excluirAlertasPorItensInspecionados(List.of(itemProduto.getId()));
+    }
 
-        log.info("Iniciando exclusão lógica de alertas para o ItemProduto ID: {}", itemProduto.getId());
+    /**
+     * Versão em lote: marca os alertas dos itens como excluídos e remove as notificações
+     * deles com um número fixo de comandos, qualquer que seja a quantidade de itens.
+     * 
+     * @param itens Ids dos itens inspecionados
+     * @return quantidade de alertas excluídos
+     * @throws SmartValidityException Se houver erro durante a exclusão
+     */
+    @org.springframework.transaction.annotation.Transactional
+    public int excluirAlertasPorItensInspecionados(Collection<String> itens) throws SmartValidityException {
+        if (itens.isEmpty()) {
+            return 0;
+        }
 
         try {
-            // Busca todos os alertas não excluídos relacionados ao item produto
-            List<Alerta> alertasRelacionados = alertaRepository.findByItemProdutoAndExcluidoFalse(itemProduto);
-
-            if (alertasRelacionados.isEmpty()) {
-                log.info("Nenhum alerta encontrado para o ItemProduto ID: {}", itemProduto.getId());
-                return;
+            List<Integer> alertas = alertaRepository.findIdsNaoExcluidosPorItens(itens);
+            if (alertas.isEmpty()) {
+                log.info("Nenhum alerta encontrado para {} itens inspecionados", itens.size());
+                return 0;
             }
 
-            int alertasExcluidos = 0;
-            for (Alerta alerta : alertasRelacionados) {
-                log.info("Excluindo logicamente alerta ID: {} ({})", alerta.getId(), alerta.getTitulo());
-                
-                // Marca o alerta como excluído
-                alerta.setExcluido(true);
-                alertaRepository.save(alerta);
-                
-                // Remove as notificações relacionadas a este alerta
-                notificacaoService.excluirNotificacoesPorAlerta(alerta);
-                
-                alertasExcluidos++;
-            }
+            int alertasExcluidos = alertaRepository.marcarExcluidos(alertas);
+            notificacaoService.excluirNotificacoesPorAlertas(alertas);
 
-            log.info("Excluídos logicamente {} alertas para o ItemProduto ID: {}", alertasExcluidos, itemProduto.getId());
+            log.info("Excluídos logicamente {} alertas de {} itens inspecionados", alertasExcluidos, itens.size());
+            return alertasExcluidos;
 
+        } catch (SmartValidityException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("Erro ao excluir alertas para ItemProduto ID {}: {}", itemProduto.getId(), e.getMessage(), e);
+            log.error("Erro ao excluir alertas de {} itens inspecionados: {}", itens.size(), e.getMessage(), e);
             throw new SmartValidityException("Erro ao excluir alertas relacionados ao produto inspecionado: " + e.getMessage());
         }
     }
@@ -0,0 +1,106 @@
+package br.com.smartvalidity.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.smartvalidity.model.repository.NotificacaoArquivoRepository;
+import br.com.smartvalidity.model.repository.NotificacaoRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Arquivamento das notificações antigas: as lidas de itens já inspecionados, criadas há mais
+ * de notificacoes.arquivo.idade-dias, saem da tabela notificacao para notificacao_arquivo, em
+ * lotes com transação própria. Elas não entram nos contadores, e o histórico de resolvidas
+ * continua lendo as duas tabelas.
+ */
+@Service
+@Slf4j
+public class ArquivoNotificacaoService {
+
+    private static final String ARQUIVAMENTO = "arquivamento-notificacoes";
+    private static final Duration TTL_ARQUIVAMENTO = Duration.ofHours(1);
+
+    @Autowired
+    private NotificacaoArquivoRepository notificacaoArquivoRepository;
+
+    @Autowired
+    private NotificacaoRepository notificacaoRepository;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${notificacoes.arquivo.idade-dias:90}")
+    private int idadeDias;
+
+    @Value("${notificacoes.arquivo.lote:1000}")
+    private int tamanhoLote;
+
+    private TransactionTemplate transacao;
+
+    @PostConstruct
+    public void iniciar() {
+        transacao = new TransactionTemplate(transactionManager);
+        transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(cron = "${notificacoes.arquivo.cron:0 40 0 * * *}")
+    public void arquivarAgendado() {
+        try {
+            leaseService.executarComLease(ARQUIVAMENTO, TTL_ARQUIVAMENTO, this::arquivar);
+        } catch (Exception e) {
+            log.error("Erro ao arquivar notificações: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Arquiva lote a lote até não sobrar notificação elegível, renovando a concessão entre os
+     * lotes; devolve o total arquivado.
+     */
+    public int arquivar() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(idadeDias);
+        long inicio = System.currentTimeMillis();
+        int total = 0;
+        long ultimoId = 0;
+        List<Long> arquivadas;
+        do {
+            long depoisDe = ultimoId;
+            arquivadas = transacao.execute(status -> arquivarLote(limite, depoisDe));
+            if (!arquivadas.isEmpty()) {
+                total += arquivadas.size();
+                ultimoId = arquivadas.get(arquivadas.size() - 1);
+            }
+        } while (arquivadas.size() == tamanhoLote && leaseService.renovar(ARQUIVAMENTO, TTL_ARQUIVAMENTO));
+
+        if (total > 0) {
+            log.info("Notificações arquivadas: {} anteriores a {} em {} ms", total, limite,
+                    System.currentTimeMillis() - inicio);
+        }
+        return total;
+    }
+
+    /**
+     * Arquiva o lote seguinte ao id informado; devolve os ids arquivados, em ordem crescente.
+     */
+    private List<Long> arquivarLote(LocalDateTime limite, long ultimoId) {
+        List<Long> ids = notificacaoArquivoRepository.findIdsArquivaveis(limite, ultimoId, tamanhoLote);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        notificacaoArquivoRepository.arquivar(ids, LocalDateTime.now());
+        notificacaoRepository.excluirPorIds(ids);
+        return ids;
+    }
+}
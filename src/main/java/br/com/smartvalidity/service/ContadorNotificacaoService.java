@@ -0,0 +1,170 @@
+package br.com.smartvalidity.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import br.com.smartvalidity.model.entity.ContadorNotificacao;
+import br.com.smartvalidity.model.repository.ContadorNotificacaoRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Contadores de notificações pendentes e personalizadas não lidas por usuário, usados pelo
+ * sininho. Cada operação que muda essas quantidades (notificar, ler, excluir, inspecionar)
+ * ajusta o contador na mesma transação; a recontagem completa roda na inicialização e toda
+ * madrugada para corrigir alterações feitas fora dos serviços.
+ */
+@Service
+@Slf4j
+public class ContadorNotificacaoService {
+
+    private static final String RECONTAGEM_CONTADORES = "recontagem-contadores-notificacao";
+    private static final Duration TTL_RECONTAGEM = Duration.ofMinutes(30);
+
+    @Autowired
+    private ContadorNotificacaoRepository contadorNotificacaoRepository;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private LeituraNotificacaoService leituraNotificacaoService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        reconstruir();
+    }
+
+    @Scheduled(cron = "0 10 0 * * *")
+    public void reconstruir() {
+        try {
+            leaseService.executarComLease(RECONTAGEM_CONTADORES, TTL_RECONTAGEM, this::recontarTodos);
+        } catch (Exception e) {
+            log.error("Erro ao recontar os contadores de notificações: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Contadores do usuário, zerados se ele ainda não tem linha, já descontadas as leituras
+     * que ainda não foram gravadas.
+     */
+    public ContadorNotificacao buscar(String usuarioId) {
+        ContadorNotificacao contador = new ContadorNotificacao();
+        contador.setIdUsuario(usuarioId);
+        contadorNotificacaoRepository.findById(usuarioId).ifPresent(gravado -> {
+            contador.setPendentes(gravado.getPendentes());
+            contador.setPersonalizadasNaoLidas(descontarLeiturasPendentes(usuarioId, gravado.getPersonalizadasNaoLidas()));
+        });
+        return contador;
+    }
+
+    /**
+     * {@link #buscar} de vários usuários com uma consulta, para o heartbeat e as entregas do stream.
+     */
+    public Map<String, ContadorNotificacao> buscarTodos(Collection<String> usuarios) {
+        Map<String, ContadorNotificacao> contadores = new HashMap<>();
+        for (String usuarioId : usuarios) {
+            ContadorNotificacao contador = new ContadorNotificacao();
+            contador.setIdUsuario(usuarioId);
+            contadores.put(usuarioId, contador);
+        }
+        if (usuarios.isEmpty()) {
+            return contadores;
+        }
+        for (ContadorNotificacao gravado : contadorNotificacaoRepository.findAllById(usuarios)) {
+            ContadorNotificacao contador = contadores.get(gravado.getIdUsuario());
+            contador.setPendentes(gravado.getPendentes());
+            contador.setPersonalizadasNaoLidas(
+                    descontarLeiturasPendentes(gravado.getIdUsuario(), gravado.getPersonalizadasNaoLidas()));
+        }
+        return contadores;
+    }
+
+    public long contarPendentes(String usuarioId) {
+        return contadorNotificacaoRepository.findById(usuarioId)
+                .map(ContadorNotificacao::getPendentes)
+                .orElse(0L);
+    }
+
+    /**
+     * Pendentes mais personalizadas não lidas.
+     */
+    public long contarNaoLidasTotal(String usuarioId) {
+        return contadorNotificacaoRepository.findById(usuarioId)
+                .map(contador -> contador.getPendentes()
+                        + descontarLeiturasPendentes(usuarioId, contador.getPersonalizadasNaoLidas()))
+                .orElse(0L);
+    }
+
+    /**
+     * Chamado antes de notificar os usuários sobre os alertas.
+     */
+    public void registrarNovas(Collection<Integer> alertas, Collection<String> usuarios) {
+        if (alertas.isEmpty() || usuarios.isEmpty()) {
+            return;
+        }
+        contadorNotificacaoRepository.somarNovas(alertas, usuarios);
+    }
+
+    /**
+     * Chamado antes de marcar os itens como inspecionados. Devolve os usuários cujos contadores
+     * mudaram, os únicos a avisar pelo stream.
+     */
+    public List<String> registrarInspecao(Collection<String> itens) {
+        if (itens.isEmpty()) {
+            return List.of();
+        }
+        List<String> usuarios = contadorNotificacaoRepository.findUsuariosDosItensPendentes(itens);
+        if (!usuarios.isEmpty()) {
+            contadorNotificacaoRepository.descontarInspecionados(itens);
+        }
+        return usuarios;
+    }
+
+    /**
+     * Chamado antes de excluir as notificações dos alertas.
+     */
+    public void registrarExclusao(Collection<Integer> alertas) {
+        if (alertas.isEmpty()) {
+            return;
+        }
+        contadorNotificacaoRepository.descontarExcluidas(alertas);
+    }
+
+    public void registrarLeituraPersonalizada(String usuarioId) {
+        contadorNotificacaoRepository.descontarPersonalizadaLida(usuarioId);
+    }
+
+    public void registrarLeituraDeTodas(String usuarioId) {
+        contadorNotificacaoRepository.zerarPersonalizadas(usuarioId);
+    }
+
+    /**
+     * Recalcula os contadores dos usuários a partir das notificações, para as operações menos
+     * frequentes (exclusões, edição de alerta personalizado).
+     */
+    public void recontar(Collection<String> usuarios) {
+        if (usuarios.isEmpty()) {
+            return;
+        }
+        contadorNotificacaoRepository.recontar(usuarios);
+    }
+
+    private long descontarLeiturasPendentes(String usuarioId, long personalizadasNaoLidas) {
+        return Math.max(personalizadasNaoLidas - leituraNotificacaoService.contarPersonalizadasPendentes(usuarioId), 0);
+    }
+
+    private void recontarTodos() {
+        long inicio = System.currentTimeMillis();
+        int usuarios = contadorNotificacaoRepository.recontarTodos();
+        log.info("Contadores de notificações recontados: {} linhas em {} ms", usuarios, System.currentTimeMillis() - inicio);
+    }
+}
@@ -0,0 +1,182 @@
+package br.com.smartvalidity.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.com.smartvalidity.model.enums.PerfilAcesso;
+import br.com.smartvalidity.model.repository.UsuarioRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cadastro em memória dos destinatários de alertas, agrupados por empresa e perfil.
+ * É montado com uma única consulta no primeiro uso e descartado pelo {@link UsuarioService}
+ * sempre que um usuário é criado, alterado ou excluído neste nó. Como as alterações podem vir
+ * de outra réplica, passado o intervalo de conferência o cadastro só é reaproveitado se a
+ * quantidade de usuários e a última criação no banco não mudaram, e é recarregado de qualquer
+ * forma ao fim da validade (mudanças de perfil ou empresa não alteram essa conferência).
+ */
+@Service
+@Slf4j
+public class DestinatariosAlertaService {
+
+    // usuários sem empresa ficam agrupados sob esta chave
+    private static final String SEM_EMPRESA = "";
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Value("${alertas.destinatarios.conferencia-ms:30000}")
+    private long conferenciaMs;
+
+    @Value("${alertas.destinatarios.validade-ms:300000}")
+    private long validadeMs;
+
+    private volatile Cadastro cadastro;
+    private final AtomicLong versao = new AtomicLong();
+
+    /**
+     * Ids dos usuários da empresa com algum dos perfis informados.
+     */
+    public List<String> buscarIds(String empresaId, PerfilAcesso... perfis) {
+        Map<PerfilAcesso, List<String>> porPerfil = obterCadastro().idsPorEmpresa
+                .getOrDefault(empresaId != null ? empresaId : SEM_EMPRESA, Map.of());
+        return juntar(porPerfil, perfis);
+    }
+
+    /**
+     * Ids dos usuários de todas as empresas com algum dos perfis informados.
+     */
+    public List<String> buscarIdsTodasEmpresas(PerfilAcesso... perfis) {
+        return juntar(obterCadastro().idsPorPerfil, perfis);
+    }
+
+    public List<String> buscarTodosIds() {
+        return obterCadastro().todos;
+    }
+
+    /**
+     * Descarta o cadastro; dentro de uma transação, só depois do commit, para que a próxima
+     * leitura já enxergue a alteração.
+     */
+    public void invalidar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartar();
+                }
+            });
+        }
+        descartar();
+    }
+
+    private void descartar() {
+        versao.incrementAndGet();
+        cadastro = null;
+    }
+
+    private Cadastro obterCadastro() {
+        Cadastro atual = cadastro;
+        if (atual != null && !atual.precisaConferir(System.currentTimeMillis(), conferenciaMs)) {
+            return atual;
+        }
+        synchronized (this) {
+            atual = cadastro;
+            long agora = System.currentTimeMillis();
+            if (atual != null && !atual.precisaConferir(agora, conferenciaMs)) {
+                return atual;
+            }
+            // uma invalidação durante a carga descarta o resultado, que pode já estar desatualizado
+            long versaoCarga = versao.get();
+            if (atual != null && agora - atual.carregadoEm < validadeMs
+                    && atual.mesmaVersao(usuarioRepository.findVersaoCadastro())) {
+                atual.conferidoEm = agora;
+                return atual;
+            }
+            atual = carregar();
+            if (versao.get() == versaoCarga) {
+                cadastro = atual;
+            }
+            return atual;
+        }
+    }
+
+    private Cadastro carregar() {
+        // conferência lida antes dos usuários: um usuário criado no meio da carga força a próxima recarga
+        UsuarioRepository.VersaoCadastro versaoBanco = usuarioRepository.findVersaoCadastro();
+        Map<String, Map<PerfilAcesso, List<String>>> idsPorEmpresa = new HashMap<>();
+        Map<PerfilAcesso, List<String>> idsPorPerfil = new EnumMap<>(PerfilAcesso.class);
+        List<String> todos = new ArrayList<>();
+
+        for (UsuarioRepository.DestinatarioAlerta destinatario : usuarioRepository.findAllDestinatarios()) {
+            todos.add(destinatario.getId());
+            if (destinatario.getPerfilAcesso() == null) {
+                continue;
+            }
+            String empresaId = destinatario.getEmpresaId() != null ? destinatario.getEmpresaId() : SEM_EMPRESA;
+            idsPorEmpresa.computeIfAbsent(empresaId, chave -> new EnumMap<>(PerfilAcesso.class))
+                    .computeIfAbsent(destinatario.getPerfilAcesso(), chave -> new ArrayList<>())
+                    .add(destinatario.getId());
+            idsPorPerfil.computeIfAbsent(destinatario.getPerfilAcesso(), chave -> new ArrayList<>())
+                    .add(destinatario.getId());
+        }
+
+        log.debug("Cadastro de destinatários carregado: {} usuários em {} empresas", todos.size(), idsPorEmpresa.size());
+        return new Cadastro(idsPorEmpresa, idsPorPerfil, Collections.unmodifiableList(todos), versaoBanco);
+    }
+
+    private List<String> juntar(Map<PerfilAcesso, List<String>> porPerfil, PerfilAcesso... perfis) {
+        if (perfis.length == 1) {
+            return Collections.unmodifiableList(porPerfil.getOrDefault(perfis[0], List.of()));
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        for (PerfilAcesso perfil : perfis) {
+            ids.addAll(porPerfil.getOrDefault(perfil, List.of()));
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private static class Cadastro {
+        private final Map<String, Map<PerfilAcesso, List<String>>> idsPorEmpresa;
+        private final Map<PerfilAcesso, List<String>> idsPorPerfil;
+        private final List<String> todos;
+        private final Long totalUsuarios;
+        private final LocalDateTime ultimaCriacao;
+        private final long carregadoEm = System.currentTimeMillis();
+        private volatile long conferidoEm = carregadoEm;
+
+        private Cadastro(Map<String, Map<PerfilAcesso, List<String>>> idsPorEmpresa,
+                Map<PerfilAcesso, List<String>> idsPorPerfil, List<String> todos,
+                UsuarioRepository.VersaoCadastro versaoBanco) {
+            this.idsPorEmpresa = idsPorEmpresa;
+            this.idsPorPerfil = idsPorPerfil;
+            this.todos = todos;
+            this.totalUsuarios = versaoBanco.getTotal();
+            this.ultimaCriacao = versaoBanco.getUltimaCriacao();
+        }
+
+        private boolean precisaConferir(long agora, long conferenciaMs) {
+            return agora - conferidoEm >= conferenciaMs;
+        }
+
+        private boolean mesmaVersao(UsuarioRepository.VersaoCadastro versaoBanco) {
+            return Objects.equals(totalUsuarios, versaoBanco.getTotal())
+                    && Objects.equals(ultimaCriacao, versaoBanco.getUltimaCriacao());
+        }
+    }
+}
@@ -31,6 +31,9 @@ public class EmpresaService {
     @Autowired
     private OtpService otpService;
 
+    @Autowired
+    private DestinatariosAlertaService destinatariosAlertaService;
+
     @Transactional
     public Empresa cadastrarEmpresaEAssinante(EmpresaUsuarioDTO dto) throws SmartValidityException {
 
@@ -66,6 +69,7 @@ public class EmpresaService {
 
         // Persistir (cascade ALL salva o usuário)
         Empresa salva = empresaRepository.save(empresa);
+        destinatariosAlertaService.invalidar();
 
         // Limpa tokens de verificação
         otpService.removerTokens(dto.getEmail(), OtpPurpose.VERIFICAR_EMAIL);
@@ -1,8 +1,9 @@
 package br.com.smartvalidity.service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Iterator;
+import java.util.function.IntConsumer;
 
 import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.Cell;
@@ -15,7 +16,7 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -29,11 +30,41 @@ public class ExcelService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
 
-    public byte[] gerarExcelMural(List<MuralDTO.Listagem> itens, String titulo) throws SmartValidityException {
+    /**
+     * Quantidade de linhas mantidas em memória pelo SXSSF; as demais são descarregadas
+     * em arquivo temporário, então o heap não cresce com o tamanho do relatório.
+     */
+    private static final int JANELA_LINHAS = 200;
+
+    private static final String[] CABECALHOS = {
+        "Produto", "Marca", "Categoria", "Corredor", "Fornecedor",
+        "Data Fabricação", "Data Recebimento", "Data Vencimento",
+        "Lote", "Status", "Inspecionado", "Motivo Inspeção", "Usuário Inspeção"
+    };
+
+    // larguras fixas (em caracteres): autoSizeColumn exigiria reler todas as linhas
+    private static final int[] LARGURAS_COLUNAS = {40, 20, 20, 15, 25, 16, 16, 16, 15, 12, 13, 25, 25};
+
+    /**
+     * Escreve a planilha do mural diretamente na saída informada, consumindo os itens
+     * sob demanda. Retorna a quantidade de linhas de dados escritas.
+     */
+    public int escreverExcelMural(Iterator<MuralDTO.Listagem> itens, String titulo, OutputStream saida)
+            throws SmartValidityException {
+        return escreverExcelMural(itens, titulo, saida, linhas -> { });
+    }
+
+    /**
+     * Igual a {@link #escreverExcelMural(Iterator, String, OutputStream)}, informando ao
+     * progresso a quantidade de linhas já escritas.
+     */
+    public int escreverExcelMural(Iterator<MuralDTO.Listagem> itens, String titulo, OutputStream saida,
+            IntConsumer progresso) throws SmartValidityException {
         logger.info("Iniciando geracao de relatorio Excel: {}", titulo);
-        logger.debug("Quantidade de itens para o relatorio: {}", itens.size());
-        
-        try (Workbook workbook = new XSSFWorkbook()) {
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(JANELA_LINHAS);
+        workbook.setCompressTempFiles(true);
+        try {
             Sheet sheet = workbook.createSheet("Mural");
             
             // Estilos
@@ -49,23 +80,18 @@ public class ExcelService {
             
             // Cabeçalhos
             Row headerRow = sheet.createRow(2);
-            String[] headers = {
-                "Produto", "Marca", "Categoria", "Corredor", "Fornecedor",
-                "Data Fabricação", "Data Recebimento", "Data Vencimento",
-                "Lote", "Status", "Inspecionado", "Motivo Inspeção", "Usuário Inspeção"
-            };
-            
-            for (int i = 0; i < headers.length; i++) {
+            for (int i = 0; i < CABECALHOS.length; i++) {
                 Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
+                cell.setCellValue(CABECALHOS[i]);
                 cell.setCellStyle(headerStyle);
-                sheet.setColumnWidth(i, 256 * 20); // 20 caracteres de largura
+                sheet.setColumnWidth(i, 256 * LARGURAS_COLUNAS[i]);
             }
             
             // Dados
             int rowNum = 3;
             int processados = 0;
-            for (MuralDTO.Listagem item : itens) {
+            while (itens.hasNext()) {
+                MuralDTO.Listagem item = itens.next();
                 Row row = sheet.createRow(rowNum++);
                 
                 row.createCell(0).setCellValue(item.getProduto() != null ? item.getProduto().getDescricao() : "");
@@ -100,27 +126,24 @@ public class ExcelService {
                 row.createCell(12).setCellValue(item.getUsuarioInspecao() != null ? item.getUsuarioInspecao() : "");
                 
                 processados++;
-                if (processados % 100 == 0) {
-                    logger.debug("Processados {} de {} itens", processados, itens.size());
+                progresso.accept(processados);
+                if (processados % 10000 == 0) {
+                    logger.debug("Processados {} itens", processados);
                 }
             }
             
-            // Auto-size para todas as colunas
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            
-            // Converter para bytes
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            byte[] resultado = outputStream.toByteArray();
-            
-            logger.info("Relatorio Excel gerado com sucesso: {} itens processados, {} bytes", itens.size(), resultado.length);
-            return resultado;
+            workbook.write(saida);
+            saida.flush();
+
+            logger.info("Relatorio Excel gerado com sucesso: {} itens processados", processados);
+            return processados;
             
         } catch (Exception e) {
             logger.error("Erro ao gerar arquivo Excel: {}", e.getMessage(), e);
             throw new SmartValidityException("Erro ao gerar arquivo Excel: " + e.getMessage());
+        } finally {
+            // remove os arquivos temporários do SXSSF
+            workbook.dispose();
         }
     }
     
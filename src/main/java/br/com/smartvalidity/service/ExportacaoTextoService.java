@@ -0,0 +1,127 @@
+package br.com.smartvalidity.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.function.IntConsumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import br.com.smartvalidity.exception.SmartValidityException;
+import br.com.smartvalidity.model.dto.MuralDTO;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exporta o mural em formatos de texto (CSV e NDJSON), escrevendo cada item assim
+ * que é lido, sem montar o arquivo em memória.
+ */
+@Service
+@Slf4j
+public class ExportacaoTextoService {
+
+    private static final String[] CABECALHOS_CSV = {
+        "id", "produto", "codigoBarras", "marca", "categoria", "corredor", "fornecedor",
+        "dataFabricacao", "dataRecebimento", "dataVencimento", "lote", "precoVenda", "status",
+        "inspecionado", "motivoInspecao", "usuarioInspecao", "dataHoraInspecao"
+    };
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public int escreverCsvMural(Iterator<MuralDTO.Listagem> itens, OutputStream saida, IntConsumer progresso)
+            throws SmartValidityException {
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+            escreverLinhaCsv(writer, (Object[]) CABECALHOS_CSV);
+
+            int escritos = 0;
+            while (itens.hasNext()) {
+                MuralDTO.Listagem item = itens.next();
+                MuralDTO.Produto produto = item.getProduto();
+                escreverLinhaCsv(writer,
+                        item.getId(),
+                        produto != null ? produto.getDescricao() : null,
+                        produto != null ? produto.getCodigoBarras() : null,
+                        produto != null ? produto.getMarca() : null,
+                        item.getCategoria(),
+                        item.getCorredor(),
+                        item.getFornecedor(),
+                        item.getDataFabricacao(),
+                        item.getDataRecebimento(),
+                        item.getDataValidade(),
+                        item.getLote(),
+                        item.getPrecoVenda(),
+                        item.getStatus(),
+                        item.getInspecionado(),
+                        item.getMotivoInspecao(),
+                        item.getUsuarioInspecao(),
+                        item.getDataHoraInspecao());
+                progresso.accept(++escritos);
+            }
+            writer.flush();
+            log.info("Exportacao CSV do mural concluida: {} itens", escritos);
+            return escritos;
+        } catch (IOException e) {
+            log.error("Erro ao exportar CSV do mural: {}", e.getMessage(), e);
+            throw new SmartValidityException("Erro ao gerar arquivo CSV: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Um objeto JSON por linha, no mesmo formato da listagem do mural.
+     */
+    public int escreverNdjsonMural(Iterator<MuralDTO.Listagem> itens, OutputStream saida, IntConsumer progresso)
+            throws SmartValidityException {
+        try (SequenceWriter writer = objectMapper.writerFor(MuralDTO.Listagem.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(saida)) {
+            int escritos = 0;
+            while (itens.hasNext()) {
+                writer.write(itens.next());
+                progresso.accept(++escritos);
+            }
+            writer.flush();
+            if (escritos > 0) {
+                saida.write('\n');
+            }
+            saida.flush();
+            log.info("Exportacao NDJSON do mural concluida: {} itens", escritos);
+            return escritos;
+        } catch (IOException e) {
+            log.error("Erro ao exportar NDJSON do mural: {}", e.getMessage(), e);
+            throw new SmartValidityException("Erro ao gerar arquivo NDJSON: " + e.getMessage());
+        }
+    }
+
+    private static void escreverLinhaCsv(Writer writer, Object... valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(valorCsv(valores[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String valorCsv(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor instanceof LocalDateTime data ? data.toString() : String.valueOf(valor);
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+            return '"' + texto.replace("\"", "\"\"") + '"';
+        }
+        return texto;
+    }
+}
@@ -0,0 +1,216 @@
+package br.com.smartvalidity.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import br.com.smartvalidity.model.dto.MuralDTO;
+import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.repository.ItemProdutoRepository;
+import br.com.smartvalidity.model.seletor.MuralSeletor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice em memória dos itens agrupados por dia de vencimento, usado pelas abas "vence hoje"
+ * e "próximos a vencer". Guarda só a janela dessas abas (de hoje até pouco além dos
+ * {@link MuralSeletor#DIAS_PROXIMO_VENCIMENTO} dias), não o histórico; os vencidos são lidos
+ * do banco por faixa de data_vencimento.
+ * É montado na inicialização e mantido pelo {@link ItemProdutoService}; a cada
+ * mural.indice.atualizacao-ms relê os itens gravados desde a última leitura (pela
+ * data_hora_atualizacao), o que traz as alterações feitas em outras réplicas, e toda
+ * madrugada é reconstruído para avançar a janela e descartar os itens excluídos fora deste nó.
+ */
+@Service
+@Slf4j
+public class IndiceVencimentoService {
+
+    // sobreposição entre leituras incrementais: transações que gravaram antes da marca mas
+    // confirmaram depois dela, e diferença de relógio entre as réplicas
+    private static final Duration MARGEM_ATUALIZACAO = Duration.ofMinutes(2);
+
+    // dias além da aba de próximos a vencer, para que a janela ainda a cubra entre a virada do
+    // dia e a reconstrução da madrugada
+    private static final int DIAS_MARGEM_JANELA = 2;
+
+    @Autowired
+    private ItemProdutoRepository itemProdutoRepository;
+
+    @Autowired
+    private Clock relogio;
+
+    private volatile LocalDateTime marcaAtualizacao;
+
+    // janela [inicioJanela, fimJanela) dos vencimentos guardados no índice
+    private volatile LocalDateTime inicioJanela;
+    private volatile LocalDateTime fimJanela;
+
+    private volatile NavigableMap<LocalDate, Set<String>> idsPorDia = new ConcurrentSkipListMap<>();
+    private volatile Map<String, LocalDateTime> vencimentoPorId = new ConcurrentHashMap<>();
+
+    private final AtomicLong tempoUltimaReconstrucaoMs = new AtomicLong();
+    private volatile LocalDateTime dataHoraUltimaReconstrucao;
+    private final AtomicLong consultasProximosVencer = new AtomicLong();
+    private final AtomicLong consultasVencemHoje = new AtomicLong();
+    private final AtomicLong itensRetornados = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        reconstruir();
+    }
+
+    @Scheduled(cron = "0 5 0 * * *")
+    public synchronized void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        // a marca segue o relógio da JVM, o mesmo de dataHoraAtualizacao; a janela, o fuso da loja
+        LocalDateTime inicioLeitura = LocalDateTime.now();
+        LocalDate hoje = LocalDate.now(relogio);
+        LocalDateTime novoInicioJanela = hoje.atStartOfDay();
+        LocalDateTime novoFimJanela = hoje.plusDays(MuralSeletor.DIAS_PROXIMO_VENCIMENTO + DIAS_MARGEM_JANELA)
+                .atStartOfDay();
+
+        NavigableMap<LocalDate, Set<String>> novoIdsPorDia = new ConcurrentSkipListMap<>();
+        Map<String, LocalDateTime> novoVencimentoPorId = new ConcurrentHashMap<>();
+        for (ItemProdutoRepository.VencimentoItem item
+                : itemProdutoRepository.findVencimentosEntre(novoInicioJanela, novoFimJanela)) {
+            novoVencimentoPorId.put(item.getId(), item.getDataVencimento());
+            novoIdsPorDia.computeIfAbsent(item.getDataVencimento().toLocalDate(), dia -> ConcurrentHashMap.newKeySet())
+                    .add(item.getId());
+        }
+
+        this.idsPorDia = novoIdsPorDia;
+        this.vencimentoPorId = novoVencimentoPorId;
+        this.inicioJanela = novoInicioJanela;
+        this.fimJanela = novoFimJanela;
+        this.dataHoraUltimaReconstrucao = LocalDateTime.now(relogio);
+        this.marcaAtualizacao = inicioLeitura;
+        this.tempoUltimaReconstrucaoMs.set(System.currentTimeMillis() - inicio);
+
+        log.info("Índice de vencimentos reconstruído: {} itens em {} dias ({} ms)",
+                novoVencimentoPorId.size(), novoIdsPorDia.size(), tempoUltimaReconstrucaoMs.get());
+    }
+
+    /**
+     * Relê os itens gravados desde a leitura anterior, em qualquer réplica, e move cada um para o
+     * dia do vencimento atual; os que saíram da janela deixam o índice.
+     */
+    @Scheduled(fixedDelayString = "${mural.indice.atualizacao-ms:60000}",
+            initialDelayString = "${mural.indice.atualizacao-ms:60000}")
+    public void atualizar() {
+        LocalDateTime marca = marcaAtualizacao;
+        if (marca == null) {
+            return;
+        }
+        LocalDateTime inicioLeitura = LocalDateTime.now();
+        List<ItemProdutoRepository.VencimentoItem> alterados =
+                itemProdutoRepository.findVencimentosAlteradosDesde(marca.minus(MARGEM_ATUALIZACAO));
+        synchronized (this) {
+            // uma reconstrução no meio já leu tudo, inclusive estas alterações
+            if (marcaAtualizacao != marca) {
+                return;
+            }
+            alterados.forEach(item -> registrar(item.getId(), item.getDataVencimento()));
+            marcaAtualizacao = inicioLeitura;
+        }
+        if (!alterados.isEmpty()) {
+            log.debug("Índice de vencimentos atualizado: {} itens gravados desde {}", alterados.size(), marca);
+        }
+    }
+
+    public synchronized void registrar(ItemProduto item) {
+        if (item == null || item.getId() == null) {
+            return;
+        }
+        registrar(item.getId(), item.getDataVencimento());
+    }
+
+    private synchronized void registrar(String id, LocalDateTime dataVencimento) {
+        remover(id);
+        if (!naJanela(dataVencimento)) {
+            return;
+        }
+        vencimentoPorId.put(id, dataVencimento);
+        idsPorDia.computeIfAbsent(dataVencimento.toLocalDate(), dia -> ConcurrentHashMap.newKeySet())
+                .add(id);
+    }
+
+    public void registrarTodos(Collection<ItemProduto> itens) {
+        itens.forEach(this::registrar);
+    }
+
+    public synchronized void remover(String id) {
+        LocalDateTime vencimento = vencimentoPorId.remove(id);
+        if (vencimento == null) {
+            return;
+        }
+        idsPorDia.computeIfPresent(vencimento.toLocalDate(), (dia, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Itens que vencem depois de agora e antes de agora + dias.
+     */
+    public List<String> buscarProximosVencer(LocalDateTime agora, int dias) {
+        consultasProximosVencer.incrementAndGet();
+        LocalDateTime limite = agora.plusDays(dias);
+        return coletar(idsPorDia.subMap(agora.toLocalDate(), true, limite.toLocalDate(), true).values(),
+                vencimento -> vencimento.isAfter(agora) && vencimento.isBefore(limite));
+    }
+
+    public List<String> buscarVencemHoje(LocalDate hoje) {
+        consultasVencemHoje.incrementAndGet();
+        Set<String> ids = idsPorDia.get(hoje);
+        return coletar(ids != null ? List.of(ids) : List.of(), vencimento -> true);
+    }
+
+    public MuralDTO.IndiceVencimentoMetricas getMetricas() {
+        return MuralDTO.IndiceVencimentoMetricas.builder()
+                .totalItens(vencimentoPorId.size())
+                .totalDias(idsPorDia.size())
+                .tempoUltimaReconstrucaoMs(tempoUltimaReconstrucaoMs.get())
+                .dataHoraUltimaReconstrucao(dataHoraUltimaReconstrucao)
+                .consultasProximosVencer(consultasProximosVencer.get())
+                .consultasVencemHoje(consultasVencemHoje.get())
+                .itensRetornados(itensRetornados.get())
+                .build();
+    }
+
+    private boolean naJanela(LocalDateTime dataVencimento) {
+        LocalDateTime inicio = inicioJanela;
+        LocalDateTime fim = fimJanela;
+        return dataVencimento != null && inicio != null
+                && !dataVencimento.isBefore(inicio) && dataVencimento.isBefore(fim);
+    }
+
+    private List<String> coletar(Collection<Set<String>> dias, Predicate<LocalDateTime> filtroHorario) {
+        List<String> ids = new ArrayList<>();
+        for (Set<String> idsDoDia : dias) {
+            for (String id : idsDoDia) {
+                LocalDateTime vencimento = vencimentoPorId.get(id);
+                if (vencimento != null && filtroHorario.test(vencimento)) {
+                    ids.add(id);
+                }
+            }
+        }
+        itensRetornados.addAndGet(ids.size());
+        return ids;
+    }
+}
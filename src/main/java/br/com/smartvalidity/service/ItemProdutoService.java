@@ -1,16 +1,33 @@
 package br.com.smartvalidity.service;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import br.com.smartvalidity.exception.SmartValidityException;
 import br.com.smartvalidity.model.dto.ItemProdutoDTO;
+import br.com.smartvalidity.model.dto.MuralDTO;
+import br.com.smartvalidity.model.dto.NotificacaoDTO;
 import br.com.smartvalidity.model.entity.ItemProduto;
 import br.com.smartvalidity.model.entity.Produto;
+import br.com.smartvalidity.model.enums.TipoEventoNotificacao;
 import br.com.smartvalidity.model.repository.ItemProdutoRepository;
+import br.com.smartvalidity.model.seletor.MuralSeletor;
+import br.com.smartvalidity.scheduler.AgendaAlertas;
 
 @Service
 public class ItemProdutoService {
@@ -18,14 +35,112 @@ public class ItemProdutoService {
     @Autowired
     private ItemProdutoRepository itemProdutoRepository;
 
+    @Autowired
+    private Clock relogio;
+
     @Autowired
     @org.springframework.context.annotation.Lazy
     private ProdutoService produtoService;
 
+    @Autowired
+    private IndiceVencimentoService indiceVencimentoService;
+
+    @Autowired
+    private AgendaAlertas agendaAlertas;
+
+    @Autowired
+    private ContadorNotificacaoService contadorNotificacaoService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<ItemProduto> buscarTodos() {
         return itemProdutoRepository.findAll();
     }
 
+    /**
+     * As consultas de listagem do mural selecionam direto as colunas de
+     * {@link MuralDTO.ListagemProjecao}, sem carregar entidades nem disparar
+     * carregamentos lazy de produto, categoria, corredor e fornecedores.
+     */
+    @Transactional(readOnly = true)
+    public List<MuralDTO.ListagemProjecao> listarMuralComSeletor(MuralSeletor seletor) {
+        if (seletor.temPaginacao()) {
+            int inicio = (seletor.getPagina() - 1) * seletor.getLimite();
+            return itemProdutoRepository.buscarListagemMural(seletor, inicio, seletor.getLimite());
+        }
+        return itemProdutoRepository.buscarListagemMural(seletor, 0, 0);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<MuralDTO.ListagemProjecao> listarPaginaMuralComSeletor(MuralSeletor seletor) {
+        PageRequest pagina = PageRequest.of(seletor.getPagina() - 1, seletor.getLimite());
+        List<MuralDTO.ListagemProjecao> itens = itemProdutoRepository.buscarListagemMural(
+                seletor, (int) pagina.getOffset(), pagina.getPageSize());
+        // o COUNT só é executado quando o total não pode ser deduzido da própria página
+        return PageableExecutionUtils.getPage(itens, pagina, () -> itemProdutoRepository.count(seletor));
+    }
+
+    /**
+     * Busca a página do seletor sem executar o COUNT: lê uma linha a mais que o
+     * limite apenas para saber se existe uma próxima página.
+     */
+    @Transactional(readOnly = true)
+    public Window<MuralDTO.ListagemProjecao> listarJanelaMuralComSeletor(MuralSeletor seletor) {
+        int inicio = (seletor.getPagina() - 1) * seletor.getLimite();
+        return criarJanela(itemProdutoRepository.buscarListagemMural(seletor, inicio, seletor.getLimite() + 1),
+                seletor.getLimite(), inicio);
+    }
+
+    /**
+     * Busca a próxima página do seletor em modo cursor: o próprio seletor filtra
+     * os itens posteriores ao cursor, então a leitura sempre começa do início.
+     */
+    @Transactional(readOnly = true)
+    public Window<MuralDTO.ListagemProjecao> listarJanelaMuralPorCursor(MuralSeletor seletor, int limite) {
+        return criarJanela(itemProdutoRepository.buscarListagemMural(seletor, 0, limite + 1), limite, 0);
+    }
+
+    /**
+     * Lê a listagem do mural sob demanda, sem montar a lista em memória. O chamador
+     * precisa estar em uma transação e fechar o stream.
+     */
+    @Transactional(readOnly = true)
+    public Stream<MuralDTO.ListagemProjecao> streamMuralComSeletor(MuralSeletor seletor) {
+        return itemProdutoRepository.streamListagemMural(seletor);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MuralDTO.ListagemProjecao> listarMuralPorIds(Collection<String> ids) {
+        return itemProdutoRepository.buscarListagemMural((root, query, cb) -> root.get("id").in(ids), 0, 0);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MuralDTO.ListagemProjecao> listarMuralVencidosAntes(LocalDateTime agora) {
+        return itemProdutoRepository.buscarListagemMural((root, query, cb) -> {
+            query.orderBy(cb.asc(root.get("dataVencimento")), cb.asc(root.get("id")));
+            return cb.lessThan(root.get("dataVencimento"), agora);
+        }, 0, 0);
+    }
+
+    private static <T> Window<T> criarJanela(List<T> itens, int limite, long inicio) {
+        boolean temProxima = itens.size() > limite;
+        List<T> conteudo = temProxima ? itens.subList(0, limite) : itens;
+        return Window.from(conteudo, indice -> ScrollPosition.offset(inicio + indice), temProxima);
+    }
+
+    public long contarComSeletor(Specification<ItemProduto> seletor) {
+        return itemProdutoRepository.count(seletor);
+    }
+
+    public List<ItemProdutoRepository.FacetaMural> agruparFacetasMural(LocalDateTime inicio, LocalDateTime fim) {
+        return itemProdutoRepository.agruparFacetasMural(inicio, fim);
+    }
+
+    public List<ItemProdutoRepository.ContagemFaceta> contarFornecedoresMural(LocalDateTime inicio, LocalDateTime fim) {
+        return itemProdutoRepository.contarFornecedoresMural(inicio, fim);
+    }
+
     public ItemProduto buscarPorId(String id) throws SmartValidityException {
         return itemProdutoRepository.findById(id)
                 .orElseThrow(() -> new SmartValidityException("ItemProduto não encontrado com o ID: " + id));
@@ -48,7 +163,10 @@ public class ItemProdutoService {
     }
 
     public ItemProduto salvar2(ItemProduto itemProduto) {
-        return itemProdutoRepository.save(itemProduto);
+        ItemProduto itemSalvo = itemProdutoRepository.save(itemProduto);
+        indiceVencimentoService.registrar(itemSalvo);
+        agendaAlertas.registrar(itemSalvo);
+        return itemSalvo;
     }
 
     public ItemProduto salvar(final ItemProduto itemProduto) throws SmartValidityException {
@@ -66,7 +184,10 @@ public class ItemProdutoService {
         validarDataVencimento(itemProduto.getDataVencimento());
         produto.setQuantidade(produto.getQuantidade() + 1);
         this.produtoService.salvar(produto);
-        return itemProdutoRepository.save(itemProduto);
+        ItemProduto itemSalvo = itemProdutoRepository.save(itemProduto);
+        indiceVencimentoService.registrar(itemSalvo);
+        agendaAlertas.registrar(itemSalvo);
+        return itemSalvo;
     }
 
     public ItemProduto atualizar(String id, ItemProduto itemProdutoAtualizado) throws SmartValidityException {
@@ -81,12 +202,17 @@ public class ItemProdutoService {
         itemProduto.setDataRecebimento(itemProdutoAtualizado.getDataRecebimento());
         itemProduto.setProduto(itemProdutoAtualizado.getProduto());
 
-        return itemProdutoRepository.save(itemProduto);
+        ItemProduto itemSalvo = itemProdutoRepository.save(itemProduto);
+        indiceVencimentoService.registrar(itemSalvo);
+        agendaAlertas.registrar(itemSalvo);
+        return itemSalvo;
     }
 
     public void excluir2(String id) throws SmartValidityException {
         ItemProduto itemProduto = this.buscarPorId(id);
         itemProdutoRepository.delete(itemProduto);
+        indiceVencimentoService.remover(id);
+        agendaAlertas.remover(id);
     }
 
     public void excluir(final String idItemProduto) throws SmartValidityException {
@@ -95,6 +221,8 @@ public class ItemProdutoService {
         Produto produto = this.produtoService.buscarPorId(itemProduto.getProduto().getId());
 
         this.itemProdutoRepository.delete(itemProduto);
+        indiceVencimentoService.remover(idItemProduto);
+        agendaAlertas.remover(idItemProduto);
 
         produto.setQuantidade(produto.getQuantidade() - 1);
 
@@ -136,43 +264,22 @@ public class ItemProdutoService {
 
     }
 
-    @org.springframework.transaction.annotation.Transactional(rollbackFor = Exception.class)
-    public ItemProduto salvarItemInspecionado(ItemProduto itemProduto) throws SmartValidityException {
-        try {
-            // Verificação adicional para garantir que o item existe
-            if (itemProduto.getId() != null) {
-                ItemProduto itemExistente = itemProdutoRepository.findById(itemProduto.getId())
-                    .orElseThrow(() -> new SmartValidityException("ItemProduto não encontrado com o ID: "
-                            + itemProduto.getId()));
-                
-                // Se o item já estiver inspecionado, retorna o item sem alterações
-                if (itemExistente.getInspecionado() != null && itemExistente.getInspecionado()) {
-                    System.out.println("Tentativa de alterar item já inspecionado ignorada. ID: "
-                            + itemExistente.getId() +
-                        ", Motivo atual: " + itemExistente.getMotivoInspecao());
-                    return itemExistente;
-                }
-                
-                // Atualizar os campos necessários para inspeção
-                itemExistente.setInspecionado(itemProduto.getInspecionado());
-                itemExistente.setMotivoInspecao(itemProduto.getMotivoInspecao());
-                itemExistente.setUsuarioInspecao(itemProduto.getUsuarioInspecao());
-                itemExistente.setDataHoraInspecao(itemProduto.getDataHoraInspecao());
-                
-                // Salvar o item
-                return itemProdutoRepository.save(itemExistente);
-            } else {
-                throw new SmartValidityException("ID do item não pode ser nulo para inspeção");
-            }
-        } catch (Exception e) {
-            if (e instanceof SmartValidityException) {
-                throw (SmartValidityException) e;
-            }
-            // Loga o erro para diagnóstico
-            System.err.println("Erro ao salvar item inspecionado: " + e.getMessage());
-            e.printStackTrace();
-            throw new SmartValidityException("Erro ao salvar item inspecionado: " + e.getMessage());
+    @Transactional
+    public int marcarInspecionados(Collection<String> ids, String motivo, String usuario, LocalDateTime dataHora) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        itemProdutoRepository.travarParaAlertas(ids);
+        List<String> afetados = contadorNotificacaoService.registrarInspecao(ids);
+        int atualizados = itemProdutoRepository.marcarInspecionados(ids, motivo, usuario, dataHora);
+        if (atualizados > 0 && !afetados.isEmpty()) {
+            eventPublisher.publishEvent(NotificacaoDTO.Alteracao.builder()
+                    .tipo(TipoEventoNotificacao.CONTADORES)
+                    .usuarios(afetados)
+                    .build());
         }
+        agendaAlertas.removerTodos(ids);
+        return atualizados;
     }
 
     public List<ItemProduto> salvarMultiplos(final ItemProduto itemProduto, final Integer quantidade) throws SmartValidityException {
@@ -212,7 +319,9 @@ public class ItemProdutoService {
             ItemProduto itemSalvo = itemProdutoRepository.save(novoItem);
             itensCriados.add(itemSalvo);
         }
-        
+
+        indiceVencimentoService.registrarTodos(itensCriados);
+        agendaAlertas.registrarTodos(itensCriados);
         return itensCriados;
     }
 
@@ -248,7 +357,7 @@ public class ItemProdutoService {
     }
 
     private void validarDataVencimento(java.time.LocalDateTime dataVencimento) throws SmartValidityException {
-        if (dataVencimento != null && dataVencimento.isBefore(java.time.LocalDateTime.now())) {
+        if (dataVencimento != null && dataVencimento.isBefore(LocalDateTime.now(relogio))) {
             throw new SmartValidityException("Não é possivel dar entrada no estoque pois já passou da data de vencimento.");
         }
     }
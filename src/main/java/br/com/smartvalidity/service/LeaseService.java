@@ -0,0 +1,166 @@
+package br.com.smartvalidity.service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import br.com.smartvalidity.model.dto.AlertaDTO;
+import br.com.smartvalidity.model.entity.LeaseAgendamento;
+import br.com.smartvalidity.model.repository.LeaseAgendamentoRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Garante que uma tarefa agendada rode em um único nó quando há várias réplicas da API.
+ * A concessão fica em uma linha da tabela lease_agendamento com prazo de validade: o detentor
+ * a renova a cada execução e, nas tarefas longas, entre os lotes ({@link #renovar}); se ele
+ * cair, outro nó assume depois que o prazo expira.
+ * Os prazos usam o relógio de cada nó, por isso o TTL deve ser bem maior que a diferença entre eles.
+ */
+@Service
+@Slf4j
+public class LeaseService {
+
+    @Autowired
+    private LeaseAgendamentoRepository leaseAgendamentoRepository;
+
+    @Value("${agendamento.no-id:}")
+    private String noConfigurado;
+
+    private String idNo;
+
+    private final Map<String, Metricas> metricasPorLease = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void iniciar() {
+        idNo = noConfigurado != null && !noConfigurado.isBlank()
+                ? noConfigurado
+                : ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        log.info("Concessões de agendamento identificadas como {}", idNo);
+    }
+
+    /**
+     * Libera as concessões deste nó ao desligar, para que outro assuma sem esperar o prazo.
+     */
+    @PreDestroy
+    public void encerrar() {
+        for (String nome : metricasPorLease.keySet()) {
+            try {
+                leaseAgendamentoRepository.liberar(nome, idNo, LocalDateTime.now());
+            } catch (Exception e) {
+                log.warn("Não foi possível liberar a concessão {}: {}", nome, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Executa a tarefa se este nó obtiver (ou já detiver) a concessão.
+     * @return false se outro nó detém a concessão e a execução foi pulada
+     */
+    public boolean executarComLease(String nome, Duration ttl, Runnable tarefa) {
+        Metricas metricas = metricasPorLease.computeIfAbsent(nome, n -> new Metricas());
+
+        long inicio = System.nanoTime();
+        boolean adquirida = adquirir(nome, ttl);
+        long latenciaMs = (System.nanoTime() - inicio) / 1_000_000;
+        metricas.ultimaLatenciaMs.set(latenciaMs);
+        metricas.maiorLatenciaMs.accumulateAndGet(latenciaMs, Math::max);
+
+        if (!adquirida) {
+            metricas.execucoesPuladas.incrementAndGet();
+            metricas.detinhaLease = false;
+            log.debug("Concessão {} pertence a outro nó; execução pulada", nome);
+            return false;
+        }
+        if (!metricas.detinhaLease) {
+            metricas.aquisicoes.incrementAndGet();
+            metricas.detinhaLease = true;
+            log.info("Nó {} assumiu a concessão {}", idNo, nome);
+        }
+
+        metricas.execucoes.incrementAndGet();
+        metricas.renovadaEm = System.nanoTime();
+        tarefa.run();
+        return true;
+    }
+
+    /**
+     * Chamado entre os lotes de uma tarefa em execução com {@link #executarComLease}, para que
+     * ela não perca a concessão se durar mais que o TTL. Só vai ao banco depois de passado um
+     * quarto do TTL desde a última renovação.
+     * @return false se outro nó assumiu a concessão; a tarefa deve parar
+     */
+    public boolean renovar(String nome, Duration ttl) {
+        Metricas metricas = metricasPorLease.computeIfAbsent(nome, n -> new Metricas());
+        long agoraNanos = System.nanoTime();
+        if (metricas.detinhaLease && agoraNanos - metricas.renovadaEm < ttl.toNanos() / 4) {
+            return true;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        if (leaseAgendamentoRepository.renovar(nome, idNo, agora, agora.plus(ttl)) > 0) {
+            metricas.renovadaEm = agoraNanos;
+            return true;
+        }
+        metricas.detinhaLease = false;
+        log.warn("Nó {} perdeu a concessão {} durante a execução", idNo, nome);
+        return false;
+    }
+
+    public List<AlertaDTO.LeaseMetricas> getMetricas() {
+        return metricasPorLease.entrySet().stream()
+                .map(entrada -> toMetricasDTO(entrada.getKey(), entrada.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    private boolean adquirir(String nome, Duration ttl) {
+        LocalDateTime agora = LocalDateTime.now();
+        if (leaseAgendamentoRepository.adquirir(nome, idNo, agora, agora.plus(ttl)) > 0) {
+            return true;
+        }
+        // a linha já existia e a concessão é de outro nó
+        if (leaseAgendamentoRepository.criar(nome) == 0) {
+            return false;
+        }
+        // primeira execução no cluster: a linha acabou de ser criada, sem detentor
+        return leaseAgendamentoRepository.adquirir(nome, idNo, agora, agora.plus(ttl)) > 0;
+    }
+
+    private AlertaDTO.LeaseMetricas toMetricasDTO(String nome, Metricas metricas) {
+        LeaseAgendamento lease = leaseAgendamentoRepository.findById(nome).orElse(null);
+        AlertaDTO.LeaseMetricas dto = new AlertaDTO.LeaseMetricas();
+        dto.setNome(nome);
+        dto.setNo(idNo);
+        dto.setDetentor(lease != null ? lease.getDetentor() : null);
+        dto.setExpiraEm(lease != null ? lease.getExpiraEm() : null);
+        dto.setDataHoraAquisicao(lease != null ? lease.getDataHoraAquisicao() : null);
+        dto.setDetentorEsteNo(lease != null && idNo.equals(lease.getDetentor())
+                && lease.getExpiraEm() != null && lease.getExpiraEm().isAfter(LocalDateTime.now()));
+        dto.setExecucoes(metricas.execucoes.get());
+        dto.setExecucoesPuladas(metricas.execucoesPuladas.get());
+        dto.setAquisicoes(metricas.aquisicoes.get());
+        dto.setUltimaLatenciaAquisicaoMs(metricas.ultimaLatenciaMs.get());
+        dto.setMaiorLatenciaAquisicaoMs(metricas.maiorLatenciaMs.get());
+        return dto;
+    }
+
+    private static class Metricas {
+        private final AtomicLong execucoes = new AtomicLong();
+        private final AtomicLong execucoesPuladas = new AtomicLong();
+        private final AtomicLong aquisicoes = new AtomicLong();
+        private final AtomicLong ultimaLatenciaMs = new AtomicLong();
+        private final AtomicLong maiorLatenciaMs = new AtomicLong();
+        private volatile boolean detinhaLease;
+        private volatile long renovadaEm;
+    }
+}
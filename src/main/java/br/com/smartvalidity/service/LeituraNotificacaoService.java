@@ -0,0 +1,182 @@
+package br.com.smartvalidity.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.smartvalidity.model.repository.ContadorNotificacaoRepository;
+import br.com.smartvalidity.model.repository.NotificacaoRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Leituras de notificação gravadas em lote (write-behind). Com o modo ativo, marcar como lida
+ * só registra a leitura em memória, uma por notificação, e a gravação acontece a cada
+ * intervalo ou quando o buffer enche, com um único UPDATE para todas. O intervalo conta a
+ * partir do fim da gravação anterior e depende de haver thread livre no agendador, então é
+ * um atraso típico, não um limite. Até lá, os contadores
+ * e as listagens deste nó já descontam as leituras pendentes; no desligamento o buffer é
+ * gravado antes de o contexto fechar.
+ */
+@Service
+@Slf4j
+public class LeituraNotificacaoService {
+
+    // limite de ids por UPDATE ... WHERE id IN (...)
+    private static final int TAMANHO_LOTE = 1000;
+
+    @Autowired
+    private NotificacaoRepository notificacaoRepository;
+
+    @Autowired
+    private ContadorNotificacaoRepository contadorNotificacaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${notificacoes.leitura.write-behind:false}")
+    private boolean ativo;
+
+    @Value("${notificacoes.leitura.max-pendentes:500}")
+    private int maxPendentes;
+
+    private TransactionTemplate transacao;
+
+    private final Map<Long, Leitura> pendentes = new ConcurrentHashMap<>();
+    private final ReentrantLock gravacao = new ReentrantLock();
+
+    @PostConstruct
+    public void iniciar() {
+        // a gravação não pode entrar na transação de quem disparou o buffer cheio
+        transacao = new TransactionTemplate(transactionManager);
+        transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        gravar();
+    }
+
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    /**
+     * Acumula a leitura; devolve false se a notificação já estava no buffer. Com o buffer
+     * cheio, quem registrou grava o lote, a menos que outra gravação já esteja em curso.
+     */
+    public boolean registrar(Long notificacaoId, String usuarioId, Integer alertaId, boolean personalizada) {
+        boolean nova = pendentes.putIfAbsent(notificacaoId, new Leitura(usuarioId, alertaId, personalizada)) == null;
+        if (pendentes.size() >= maxPendentes && gravacao.tryLock()) {
+            try {
+                gravarPendentes();
+            } finally {
+                gravacao.unlock();
+            }
+        }
+        return nova;
+    }
+
+    public boolean foiLida(Long notificacaoId) {
+        return !pendentes.isEmpty() && pendentes.containsKey(notificacaoId);
+    }
+
+    /**
+     * Personalizadas do usuário lidas e ainda não gravadas, a descontar do contador.
+     */
+    public long contarPersonalizadasPendentes(String usuarioId) {
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+        return pendentes.values().stream()
+                .filter(leitura -> leitura.personalizada && leitura.usuarioId.equals(usuarioId))
+                .count();
+    }
+
+    /**
+     * Descarta as leituras do usuário, já cobertas por marcar todas como lidas.
+     */
+    public void descartarDoUsuario(String usuarioId) {
+        pendentes.values().removeIf(leitura -> leitura.usuarioId.equals(usuarioId));
+    }
+
+    /**
+     * Descarta as leituras dos alertas cujas notificações foram excluídas ou voltaram a não lidas.
+     */
+    public void descartarDosAlertas(Collection<Integer> alertas) {
+        if (pendentes.isEmpty()) {
+            return;
+        }
+        pendentes.values().removeIf(leitura -> alertas.contains(leitura.alertaId));
+    }
+
+    public void descartar(Long notificacaoId) {
+        pendentes.remove(notificacaoId);
+    }
+
+    @Scheduled(fixedDelayString = "${notificacoes.leitura.intervalo-ms:2000}")
+    public void gravar() {
+        if (pendentes.isEmpty()) {
+            return;
+        }
+        gravacao.lock();
+        try {
+            gravarPendentes();
+        } finally {
+            gravacao.unlock();
+        }
+    }
+
+    /**
+     * Grava o que está no buffer. As leituras só saem dele depois do commit: se a gravação
+     * falhar, continuam contando e são tentadas de novo na próxima rodada.
+     */
+    private void gravarPendentes() {
+        List<Map.Entry<Long, Leitura>> lote = new ArrayList<>(pendentes.entrySet());
+        long inicio = System.currentTimeMillis();
+        int gravadas = 0;
+        for (int i = 0; i < lote.size(); i += TAMANHO_LOTE) {
+            List<Map.Entry<Long, Leitura>> parte = lote.subList(i, Math.min(i + TAMANHO_LOTE, lote.size()));
+            List<Long> ids = parte.stream().map(Map.Entry::getKey).toList();
+            try {
+                // a data de leitura gravada é a da gravação: em geral um intervalo após o clique, mais
+                // se as threads do agendador (spring.task.scheduling.pool.size) estiverem ocupadas
+                gravadas += transacao.execute(status -> {
+                    contadorNotificacaoRepository.descontarLidas(ids);
+                    return notificacaoRepository.marcarLidas(ids, LocalDateTime.now());
+                });
+            } catch (Exception e) {
+                log.error("Erro ao gravar {} leituras de notificação: {}", ids.size(), e.getMessage(), e);
+                return;
+            }
+            parte.forEach(entrada -> pendentes.remove(entrada.getKey(), entrada.getValue()));
+        }
+        log.debug("Leituras de notificação gravadas: {} de {} em {} ms", gravadas, lote.size(),
+                System.currentTimeMillis() - inicio);
+    }
+
+    private static class Leitura {
+        private final String usuarioId;
+        private final Integer alertaId;
+        private final boolean personalizada;
+
+        private Leitura(String usuarioId, Integer alertaId, boolean personalizada) {
+            this.usuarioId = usuarioId;
+            this.alertaId = alertaId;
+            this.personalizada = personalizada;
+        }
+    }
+}
@@ -1,22 +1,42 @@
 package br.com.smartvalidity.service;
 
+import java.io.OutputStream;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import br.com.smartvalidity.exception.SmartValidityException;
 import br.com.smartvalidity.model.dto.MuralDTO;
 import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.enums.FormatoRelatorio;
+import br.com.smartvalidity.model.enums.ResultadoInspecao;
+import br.com.smartvalidity.model.repository.ItemProdutoRepository;
+import br.com.smartvalidity.model.seletor.Cursor;
+import br.com.smartvalidity.model.seletor.MuralSeletor;
 
 @Service
 public class MuralService {
@@ -28,9 +48,25 @@ public class MuralService {
     @Autowired
     private ExcelService excelService;
 
+    @Autowired
+    private ExportacaoTextoService exportacaoTextoService;
+
+    @Autowired
+    private IndiceVencimentoService indiceVencimentoService;
+
+    @Autowired
+    private Clock relogio;
+
     @Autowired
     private UsuarioService usuarioService;
 
+    private static final int LIMITE_PADRAO_CURSOR = 20;
+
+    private static final long TTL_FACETAS_MS = 30_000;
+
+    private volatile MuralDTO.FiltroOpcoes facetasEmCache;
+    private volatile long facetasCalculadasEm;
+
     private static final List<String> MOTIVOS_INSPECAO_VALIDOS = Arrays.asList(
         "Avaria/Quebra",
         "Promoção",
@@ -62,454 +98,223 @@ public class MuralService {
 
 
     public List<MuralDTO.Listagem> getProximosVencer() {
-        List<ItemProduto> itens = itemProdutoService.buscarTodos();
-        LocalDateTime hoje = LocalDateTime.now();
-        LocalDateTime limite = hoje.plusDays(15);
-        
-        return itens.stream()
-                .filter(item -> {
-                    LocalDateTime vencimento = item.getDataVencimento();
-                    return vencimento.isAfter(hoje) && vencimento.isBefore(limite);
-                })
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        LocalDateTime agora = LocalDateTime.now(relogio);
+        LocalDateTime limite = agora.plusDays(MuralSeletor.DIAS_PROXIMO_VENCIMENTO);
+        return carregarDoIndice(indiceVencimentoService.buscarProximosVencer(agora, MuralSeletor.DIAS_PROXIMO_VENCIMENTO),
+                vencimento -> vencimento.isAfter(agora) && vencimento.isBefore(limite));
     }
 
     public List<MuralDTO.Listagem> getVencemHoje() {
-        List<ItemProduto> itens = itemProdutoService.buscarTodos();
-        LocalDateTime hoje = LocalDateTime.now();
-        
-        return itens.stream()
-                .filter(item -> {
-                    LocalDateTime vencimento = item.getDataVencimento();
-                    return vencimento.toLocalDate().isEqual(hoje.toLocalDate());
-                })
+        LocalDate hoje = LocalDate.now(relogio);
+        return carregarDoIndice(indiceVencimentoService.buscarVencemHoje(hoje),
+                vencimento -> vencimento.toLocalDate().isEqual(hoje));
+    }
+
+    /**
+     * Os vencidos crescem sem limite com o histórico, por isso não passam pelo índice em memória:
+     * são lidos por faixa de data_vencimento, já na ordem do índice (data_vencimento, id).
+     */
+    public List<MuralDTO.Listagem> getVencidos() {
+        return itemProdutoService.listarMuralVencidosAntes(LocalDateTime.now(relogio)).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
-    public List<MuralDTO.Listagem> getVencidos() {
-        List<ItemProduto> itens = itemProdutoService.buscarTodos();
-        LocalDateTime hoje = LocalDateTime.now();
-        
-        return itens.stream()
-                .filter(item -> item.getDataVencimento().isBefore(hoje))
+    public MuralDTO.IndiceVencimentoMetricas getMetricasIndiceVencimento() {
+        return indiceVencimentoService.getMetricas();
+    }
+
+    /**
+     * Carrega os itens apontados pelo índice e confere o vencimento lido do banco contra a aba:
+     * o índice pode ainda não ter visto uma alteração feita em outra réplica.
+     */
+    private List<MuralDTO.Listagem> carregarDoIndice(List<String> ids, Predicate<LocalDateTime> vencimentoNaAba) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return itemProdutoService.listarMuralPorIds(ids).stream()
+                .filter(item -> item.getDataVencimento() != null && vencimentoNaAba.test(item.getDataVencimento()))
+                .sorted(Comparator.comparing(MuralDTO.ListagemProjecao::getDataVencimento))
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
     public List<MuralDTO.Listagem> buscarComFiltro(MuralDTO.Filtro filtro) {
-        List<ItemProduto> itens = itemProdutoService.buscarTodos();
-        List<MuralDTO.Listagem> dtos = itens.stream()
+        return itemProdutoService.listarMuralComSeletor(new MuralSeletor(filtro, LocalDateTime.now(relogio))).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
-        
-        List<MuralDTO.Listagem> itensFiltrados = aplicarFiltros(dtos, filtro);
-        List<MuralDTO.Listagem> itensOrdenados = ordenarItens(itensFiltrados, filtro.getSortBy(), filtro.getSortDirection());
-        
-        if (filtro.temPaginacao()) {
-            int inicio = (filtro.getPagina() - 1) * filtro.getLimite();
-            inicio = Math.max(0, inicio);
-            
-            if (inicio >= itensOrdenados.size()) {
-                return new ArrayList<>();
-            }
-            
-            int fim = Math.min(inicio + filtro.getLimite(), itensOrdenados.size());
-            return itensOrdenados.subList(inicio, fim);
-        }
-        
-        return itensOrdenados;
     }
-    
-    private List<MuralDTO.Listagem> aplicarFiltros(List<MuralDTO.Listagem> itens, MuralDTO.Filtro filtro) {
-        if (filtro == null) {
-            return itens;
-        }
-        
-        List<MuralDTO.Listagem> resultado = new ArrayList<>(itens);
-        
-        if (filtro.getMotivoInspecao() != null) {
-            filtro.setMotivoInspecao(filtro.getMotivoInspecao().trim());
-        }
-        if (filtro.getUsuarioInspecao() != null) {
-            filtro.setUsuarioInspecao(filtro.getUsuarioInspecao().trim());
-        }
-        
-        if (StringUtils.hasText(filtro.getSearchTerm())) {
-            resultado = aplicarFiltroBusca(resultado, filtro.getSearchTerm());
-        }
-        
-        resultado = aplicarFiltrosTexto(resultado, filtro);
-        resultado = aplicarFiltrosData(resultado, filtro);
-        
-        if (filtro.getInspecionado() != null) {
-            resultado = resultado.stream()
-                    .filter(item -> filtro.getInspecionado().equals(item.getInspecionado()))
-                    .collect(Collectors.toList());
-        }
-        
-        if (StringUtils.hasText(filtro.getStatus())) {
-            LocalDateTime hoje = LocalDateTime.now();
-            LocalDateTime limite = hoje.plusDays(15);
-            
-            resultado = resultado.stream()
-                    .filter(item -> {
-                        LocalDateTime vencimento = item.getDataValidade();
-                        switch (filtro.getStatus()) {
-                            case "proximo":
-                                return vencimento.isAfter(hoje) && 
-                                      !vencimento.toLocalDate().isEqual(hoje.toLocalDate()) &&
-                                      vencimento.isBefore(limite);
-                            case "hoje":
-                                return vencimento.toLocalDate().isEqual(hoje.toLocalDate());
-                            case "vencido":
-                                return vencimento.toLocalDate().isBefore(hoje.toLocalDate());
-                            default:
-                                return filtro.getStatus().equals(item.getStatus());
-                        }
-                    })
-                    .collect(Collectors.toList());
-        }
-        
-        // filtro por motivo de inspeção
-        List<String> motivosInspecao = filtro.getMotivosInspecaoEfetivos();
-        if (!motivosInspecao.isEmpty()) {
-            resultado = resultado.stream()
-                    .filter(item -> {
-                        String motivoItem = item.getMotivoInspecao();
-                        if (motivoItem == null) return false;
-                        
-                        for (String motivo : motivosInspecao) {
-                            if ("Outro".equals(motivo)) {
-                                // para o motivo "outro" inclui todos que não são "avaria/quebra" nem "promoção"
-                                if (!motivoItem.equals("Avaria/Quebra") && !motivoItem.equals("Promoção")) {
-                                    return true;
-                                }
-                            } else {
-                                // para motivos específicos (outro), verifica igualdade
-                                if (motivo.equals(motivoItem)) {
-                                    return true;
-                                }
-                            }
-                        }
-                        return false;
-                    })
-                    .collect(Collectors.toList());
-        }
 
-        // filtro de usuário que fez a inspeção
-        List<String> usuariosInspecao = filtro.getUsuariosInspecaoEfetivos();
-        if (!usuariosInspecao.isEmpty()) {
-            resultado = resultado.stream()
-                    .filter(item -> {
-                        String usuario = item.getUsuarioInspecao();
-                        if (usuario == null) return false;
-                        
-                        String usuarioNormalizado = usuario.trim().toLowerCase();
-                        return usuariosInspecao.stream()
-                                .anyMatch(filtroUsuario -> 
-                                    filtroUsuario.trim().toLowerCase().equals(usuarioNormalizado));
-                    })
+    /**
+     * Retorna a página filtrada junto com o total de registros, evitando que o
+     * front-end precise chamar contar-registros e contar-paginas separadamente.
+     * Com incluirTotal = false o COUNT é omitido e apenas temProximaPagina é informado.
+     */
+    public MuralDTO.Pagina buscarPaginaComFiltro(MuralDTO.Filtro filtro, boolean incluirTotal) {
+        MuralSeletor seletor = new MuralSeletor(filtro, LocalDateTime.now(relogio));
+
+        if (!seletor.temPaginacao()) {
+            List<MuralDTO.Listagem> itens = itemProdutoService.listarMuralComSeletor(seletor).stream()
+                    .map(this::mapToDTO)
                     .collect(Collectors.toList());
-        }
-        
-        return resultado;
+            return MuralDTO.Pagina.builder()
+                    .itens(itens)
+                    .pagina(1)
+                    .limite(itens.size())
+                    .totalRegistros((long) itens.size())
+                    .totalPaginas(itens.isEmpty() ? 0 : 1)
+                    .temProximaPagina(false)
+                    .build();
+        }
+
+        MuralDTO.Pagina.PaginaBuilder resposta = MuralDTO.Pagina.builder()
+                .pagina(seletor.getPagina())
+                .limite(seletor.getLimite());
+
+        if (incluirTotal) {
+            Page<MuralDTO.ListagemProjecao> pagina = itemProdutoService.listarPaginaMuralComSeletor(seletor);
+            return resposta
+                    .itens(pagina.getContent().stream().map(this::mapToDTO).collect(Collectors.toList()))
+                    .totalRegistros(pagina.getTotalElements())
+                    .totalPaginas(pagina.getTotalPages())
+                    .temProximaPagina(pagina.hasNext())
+                    .build();
+        }
+
+        Window<MuralDTO.ListagemProjecao> janela = itemProdutoService.listarJanelaMuralComSeletor(seletor);
+        return resposta
+                .itens(janela.getContent().stream().map(this::mapToDTO).collect(Collectors.toList()))
+                .temProximaPagina(janela.hasNext())
+                .build();
     }
-    
-    private List<MuralDTO.Listagem> aplicarFiltrosTexto(List<MuralDTO.Listagem> itens, MuralDTO.Filtro filtro) {
-        List<MuralDTO.Listagem> resultado = new ArrayList<>(itens);
-        
-        // filtro de marca
-        List<String> marcas = filtro.getMarcasEfetivas();
-        if (!marcas.isEmpty()) {
-            resultado = resultado.stream()
-                    .filter(item -> item.getProduto() != null && 
-                            marcas.contains(item.getProduto().getMarca()))
-                    .collect(Collectors.toList());
-        }
-        
-        // corredor
-        List<String> corredores = filtro.getCorredoresEfetivos();
-        if (!corredores.isEmpty()) {
-            resultado = resultado.stream()
-                    .filter(item -> corredores.contains(item.getCorredor()))
-                    .collect(Collectors.toList());
-        }
-        
-        // categoria
-        List<String> categorias = filtro.getCategoriasEfetivas();
-        if (!categorias.isEmpty()) {
-            resultado = resultado.stream()
-                    .filter(item -> categorias.contains(item.getCategoria()))
-                    .collect(Collectors.toList());
-        }
-        
-        // fornecedor
-        List<String> fornecedores = filtro.getFornecedoresEfetivos();
-        if (!fornecedores.isEmpty()) {
-            resultado = resultado.stream()
-                    .filter(item -> fornecedores.contains(item.getFornecedor()))
-                    .collect(Collectors.toList());
-        }
-        
-        // lote
-        List<String> lotes = filtro.getLotesEfetivos();
-        if (!lotes.isEmpty()) {
-            resultado = resultado.stream()
-                    .filter(item -> lotes.contains(item.getLote()))
-                    .collect(Collectors.toList());
+
+    /**
+     * Paginação por cursor (keyset) ordenada por (dataVencimento, id): o custo de
+     * cada página independe da profundidade, pois não há OFFSET nem COUNT.
+     * Um cursor vazio retorna a primeira página.
+     */
+    public MuralDTO.Pagina buscarPaginaPorCursor(MuralDTO.Filtro filtro) throws SmartValidityException {
+        MuralSeletor seletor = new MuralSeletor(filtro, LocalDateTime.now(relogio));
+        String token = seletor.getFiltro().getCursor();
+        seletor.usarCursor(StringUtils.hasText(token) ? Cursor.decodificar(token) : null);
+
+        Integer limiteInformado = seletor.getFiltro().getLimite();
+        int limite = limiteInformado != null && limiteInformado > 0 ? limiteInformado : LIMITE_PADRAO_CURSOR;
+
+        Window<MuralDTO.ListagemProjecao> janela = itemProdutoService.listarJanelaMuralPorCursor(seletor, limite);
+        List<MuralDTO.ListagemProjecao> itens = janela.getContent();
+
+        String proximoCursor = null;
+        if (janela.hasNext() && !itens.isEmpty()) {
+            MuralDTO.ListagemProjecao ultimo = itens.get(itens.size() - 1);
+            proximoCursor = new Cursor(ultimo.getDataVencimento(), ultimo.getId()).codificar();
         }
-        
-        return resultado;
+
+        return MuralDTO.Pagina.builder()
+                .itens(itens.stream().map(this::mapToDTO).collect(Collectors.toList()))
+                .limite(limite)
+                .temProximaPagina(janela.hasNext())
+                .proximoCursor(proximoCursor)
+                .build();
     }
     
-    private List<MuralDTO.Listagem> aplicarFiltrosData(List<MuralDTO.Listagem> itens, MuralDTO.Filtro filtro) {
-        List<MuralDTO.Listagem> resultado = new ArrayList<>(itens);
-        
-        if (filtro.getDataVencimentoInicio() != null || filtro.getDataVencimentoFim() != null) {
-            resultado = resultado.stream()
-                    .filter(item -> {
-                        LocalDateTime dataVencimento = item.getDataValidade();
-                        boolean aposInicio = filtro.getDataVencimentoInicio() == null || 
-                                dataVencimento.isAfter(filtro.getDataVencimentoInicio()) || 
-                                dataVencimento.isEqual(filtro.getDataVencimentoInicio());
-                        boolean antesFim = filtro.getDataVencimentoFim() == null || 
-                                dataVencimento.isBefore(filtro.getDataVencimentoFim()) || 
-                                dataVencimento.isEqual(filtro.getDataVencimentoFim());
-                        return aposInicio && antesFim;
-                    })
-                    .collect(Collectors.toList());
-        }
-        
-        if (filtro.getDataFabricacaoInicio() != null || filtro.getDataFabricacaoFim() != null) {
-            resultado = resultado.stream()
-                    .filter(item -> {
-                        LocalDateTime dataFabricacao = item.getDataFabricacao();
-                        if (dataFabricacao == null) {
-                            return false;
-                        }
-                        boolean aposInicio = filtro.getDataFabricacaoInicio() == null || 
-                                dataFabricacao.isAfter(filtro.getDataFabricacaoInicio()) || 
-                                dataFabricacao.isEqual(filtro.getDataFabricacaoInicio());
-                        boolean antesFim = filtro.getDataFabricacaoFim() == null || 
-                                dataFabricacao.isBefore(filtro.getDataFabricacaoFim()) || 
-                                dataFabricacao.isEqual(filtro.getDataFabricacaoFim());
-                        return aposInicio && antesFim;
-                    })
-                    .collect(Collectors.toList());
+    /**
+     * Calcula todas as facetas do mural (itens que vencem nos próximos dias) com
+     * duas consultas agregadas, reaproveitando o resultado por alguns segundos
+     * já que as telas do mural consultam as opções a cada atualização.
+     */
+    public MuralDTO.FiltroOpcoes getFiltroOpcoes() {
+        MuralDTO.FiltroOpcoes atual = facetasEmCache;
+        if (atual != null && System.currentTimeMillis() - facetasCalculadasEm < TTL_FACETAS_MS) {
+            return atual;
+        }
+
+        LocalDateTime agora = LocalDateTime.now(relogio);
+        LocalDateTime fim = agora.plusDays(MuralSeletor.DIAS_PROXIMO_VENCIMENTO + 1);
+
+        Map<String, Long> marcas = new TreeMap<>();
+        Map<String, Long> corredores = new TreeMap<>();
+        Map<String, Long> categorias = new TreeMap<>();
+        Map<String, Long> lotes = new TreeMap<>();
+        Map<String, Long> usuarios = new TreeMap<>();
+        for (ItemProdutoRepository.FacetaMural faceta : itemProdutoService.agruparFacetasMural(agora, fim)) {
+            long quantidade = faceta.getQuantidade();
+            somarFaceta(marcas, faceta.getMarca(), quantidade);
+            somarFaceta(corredores, faceta.getCorredor(), quantidade);
+            somarFaceta(categorias, faceta.getCategoria(), quantidade);
+            somarFaceta(lotes, faceta.getLote(), quantidade);
+            if (Boolean.TRUE.equals(faceta.getInspecionado())) {
+                somarFaceta(usuarios, faceta.getUsuarioInspecao(), quantidade);
+            }
         }
-        
-        if (filtro.getDataRecebimentoInicio() != null || filtro.getDataRecebimentoFim() != null) {
-            resultado = resultado.stream()
-                    .filter(item -> {
-                        LocalDateTime dataRecebimento = item.getDataRecebimento();
-                        if (dataRecebimento == null) {
-                            return false;
-                        }
-                        boolean aposInicio = filtro.getDataRecebimentoInicio() == null || 
-                                dataRecebimento.isAfter(filtro.getDataRecebimentoInicio()) || 
-                                dataRecebimento.isEqual(filtro.getDataRecebimentoInicio());
-                        boolean antesFim = filtro.getDataRecebimentoFim() == null || 
-                                dataRecebimento.isBefore(filtro.getDataRecebimentoFim()) || 
-                                dataRecebimento.isEqual(filtro.getDataRecebimentoFim());
-                        return aposInicio && antesFim;
-                    })
-                    .collect(Collectors.toList());
+
+        Map<String, Long> fornecedores = new TreeMap<>();
+        for (ItemProdutoRepository.ContagemFaceta faceta : itemProdutoService.contarFornecedoresMural(agora, fim)) {
+            somarFaceta(fornecedores, faceta.getValor(), faceta.getQuantidade());
         }
-        
-        return resultado;
-    }
-    
-    private List<MuralDTO.Listagem> aplicarFiltroBusca(List<MuralDTO.Listagem> itens, String termo) {
-        if (!StringUtils.hasText(termo)) {
-            return itens;
+
+        List<String> usuariosInspecao = new ArrayList<>(usuarios.keySet());
+        if (usuariosInspecao.isEmpty()) {
+            // sem inspeções no período, o filtro oferece todos os usuários cadastrados
+            try {
+                usuariosInspecao = usuarioService.listarTodos().stream()
+                        .map(usuario -> usuario.getNome())
+                        .filter(StringUtils::hasText)
+                        .distinct()
+                        .sorted()
+                        .collect(Collectors.toList());
+            } catch (SmartValidityException e) {
+                logger.warn("Erro ao obter usuários para inspeção: {}", e.getMessage());
+            }
         }
-        
-        String termoBusca = termo.toLowerCase();
-        return itens.stream()
-                .filter(item -> 
-                    (item.getProduto() != null && item.getProduto().getDescricao() != null && 
-                            item.getProduto().getDescricao().toLowerCase().contains(termoBusca)) ||
-                    (item.getProduto() != null && item.getProduto().getCodigoBarras() != null && 
-                            item.getProduto().getCodigoBarras().toLowerCase().contains(termoBusca)) ||
-                    (item.getProduto() != null && item.getProduto().getMarca() != null && 
-                            item.getProduto().getMarca().toLowerCase().contains(termoBusca)) ||
-                    (item.getLote() != null && item.getLote().toLowerCase().contains(termoBusca))
-                )
-                .collect(Collectors.toList());
+
+        Map<String, Map<String, Long>> contagens = new LinkedHashMap<>();
+        contagens.put("marcas", marcas);
+        contagens.put("corredores", corredores);
+        contagens.put("categorias", categorias);
+        contagens.put("fornecedores", fornecedores);
+        contagens.put("lotes", lotes);
+        contagens.put("usuariosInspecao", usuarios);
+
+        MuralDTO.FiltroOpcoes opcoes = MuralDTO.FiltroOpcoes.builder()
+                .marcas(new ArrayList<>(marcas.keySet()))
+                .corredores(new ArrayList<>(corredores.keySet()))
+                .categorias(new ArrayList<>(categorias.keySet()))
+                .fornecedores(new ArrayList<>(fornecedores.keySet()))
+                .lotes(new ArrayList<>(lotes.keySet()))
+                .usuariosInspecao(usuariosInspecao)
+                .contagens(contagens)
+                .build();
+
+        facetasEmCache = opcoes;
+        facetasCalculadasEm = System.currentTimeMillis();
+        return opcoes;
     }
-    
-    private List<MuralDTO.Listagem> ordenarItens(List<MuralDTO.Listagem> itens, String campo, String direcao) {
-        if (!StringUtils.hasText(campo)) {
-            return itens;
-        }
-        
-        boolean ascendente = "asc".equalsIgnoreCase(direcao);
-        
-        Comparator<MuralDTO.Listagem> comparator;
-        
-        switch (campo.toLowerCase()) {
-            case "datavencimento":
-                comparator = (item1, item2) -> {
-                    if (item1.getDataValidade() == null && item2.getDataValidade() == null) {
-                        return 0;
-                    }
-                    if (item1.getDataValidade() == null) {
-                        return 1;
-                    }
-                    if (item2.getDataValidade() == null) {
-                        return -1;
-                    }
 
-                    return item1.getDataValidade().compareTo(item2.getDataValidade());
-                };
-                break;
-                
-            case "nome":
-            case "descricao":
-                comparator = Comparator.comparing(item -> 
-                    item.getProduto() != null ? 
-                    (item.getProduto().getDescricao() != null ? item.getProduto().getDescricao().toLowerCase() : "") : "");
-                break;
-                
-            case "marca":
-                comparator = Comparator.comparing(item -> 
-                    item.getProduto() != null ? 
-                    (item.getProduto().getMarca() != null ? item.getProduto().getMarca().toLowerCase() : "") : "");
-                break;
-                
-            case "categoria":
-                comparator = Comparator.comparing(item -> 
-                    item.getCategoria() != null ? item.getCategoria().toLowerCase() : "");
-                break;
-                
-            case "corredor":
-                comparator = Comparator.comparing(item -> 
-                    item.getCorredor() != null ? item.getCorredor().toLowerCase() : "");
-                break;
-                
-            case "fornecedor":
-                comparator = Comparator.comparing(item -> 
-                    item.getFornecedor() != null ? item.getFornecedor().toLowerCase() : "");
-                break;
-                
-            case "status":
-                comparator = Comparator.comparing(item -> item.getStatus());
-                break;
-                
-            case "motivoInspecao":
-                comparator = Comparator.comparing(item -> 
-                    item.getMotivoInspecao() != null ? item.getMotivoInspecao().toLowerCase() : "");
-                break;
-                
-            case "usuarioInspecao":
-                comparator = Comparator.comparing(item -> 
-                    item.getUsuarioInspecao() != null ? item.getUsuarioInspecao().toLowerCase() : "");
-                break;
-                
-            default:
-                comparator = Comparator.comparing(item -> 
-                    item.getProduto() != null ? 
-                    (item.getProduto().getDescricao() != null ? item.getProduto().getDescricao().toLowerCase() : "") : "");
-        }
-        
-        if (!ascendente) {
-            comparator = comparator.reversed();
+    private static void somarFaceta(Map<String, Long> faceta, String valor, long quantidade) {
+        if (StringUtils.hasText(valor)) {
+            faceta.merge(valor, quantidade, Long::sum);
         }
-        
-        return itens.stream()
-                .sorted(comparator)
-                .collect(Collectors.toList());
     }
-    
 
     public List<String> getMarcasDisponiveis() {
-        LocalDateTime hoje = LocalDateTime.now();
-        LocalDateTime limite = hoje.plusDays(15);
-        
-        return itemProdutoService.buscarTodos().stream()
-                .filter(item -> {
-                    LocalDateTime vencimento = item.getDataVencimento();
-                    return vencimento.isAfter(hoje) && vencimento.isBefore(limite.plusDays(1));
-                })
-                .filter(item -> item.getProduto() != null && StringUtils.hasText(item.getProduto().getMarca()))
-                .map(item -> item.getProduto().getMarca())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return getFiltroOpcoes().getMarcas();
     }
-    
+
     public List<String> getCorredoresDisponiveis() {
-        LocalDateTime hoje = LocalDateTime.now();
-        LocalDateTime limite = hoje.plusDays(15);
-        
-        return itemProdutoService.buscarTodos().stream()
-                .filter(item -> {
-                    LocalDateTime vencimento = item.getDataVencimento();
-                    return vencimento.isAfter(hoje) && vencimento.isBefore(limite.plusDays(1));
-                })
-                .filter(item -> item.getProduto() != null && 
-                        item.getProduto().getCategoria() != null && 
-                        item.getProduto().getCategoria().getCorredor() != null && 
-                        StringUtils.hasText(item.getProduto().getCategoria().getCorredor().getNome()))
-                .map(item -> item.getProduto().getCategoria().getCorredor().getNome())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return getFiltroOpcoes().getCorredores();
     }
-    
+
     public List<String> getCategoriasDisponiveis() {
-        LocalDateTime hoje = LocalDateTime.now();
-        LocalDateTime limite = hoje.plusDays(15);
-        
-        return itemProdutoService.buscarTodos().stream()
-                .filter(item -> {
-                    LocalDateTime vencimento = item.getDataVencimento();
-                    return vencimento.isAfter(hoje) && vencimento.isBefore(limite.plusDays(1));
-                })
-                .filter(item -> item.getProduto() != null && 
-                        item.getProduto().getCategoria() != null && 
-                        StringUtils.hasText(item.getProduto().getCategoria().getNome()))
-                .map(item -> item.getProduto().getCategoria().getNome())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return getFiltroOpcoes().getCategorias();
     }
-    
+
     public List<String> getFornecedoresDisponiveis() {
-        LocalDateTime hoje = LocalDateTime.now();
-        LocalDateTime limite = hoje.plusDays(15);
-        
-        return itemProdutoService.buscarTodos().stream()
-                .filter(item -> {
-                    LocalDateTime vencimento = item.getDataVencimento();
-                    return vencimento.isAfter(hoje) && vencimento.isBefore(limite.plusDays(1));
-                })
-                .filter(item -> item.getProduto() != null && 
-                        item.getProduto().getFornecedores() != null && 
-                        !item.getProduto().getFornecedores().isEmpty() &&
-                        StringUtils.hasText(item.getProduto().getFornecedores().get(0).getNome()))
-                .map(item -> item.getProduto().getFornecedores().get(0).getNome())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return getFiltroOpcoes().getFornecedores();
     }
-    
+
     public List<String> getLotesDisponiveis() {
-        LocalDateTime hoje = LocalDateTime.now();
-        LocalDateTime limite = hoje.plusDays(15);
-        
-        return itemProdutoService.buscarTodos().stream()
-                .filter(item -> {
-                    LocalDateTime vencimento = item.getDataVencimento();
-                    return vencimento.isAfter(hoje) && vencimento.isBefore(limite.plusDays(1));
-                })
-                .filter(item -> StringUtils.hasText(item.getLote()))
-                .map(item -> item.getLote())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return getFiltroOpcoes().getLotes();
     }
 
     private MuralDTO.Listagem mapToDTO(ItemProduto item) {
@@ -555,8 +360,42 @@ public class MuralService {
                 .build();
     }
 
+    private MuralDTO.Listagem mapToDTO(MuralDTO.ListagemProjecao item) {
+        MuralDTO.Produto produtoDTO = MuralDTO.Produto.builder()
+                .id(valorOuVazio(item.getProdutoId()))
+                .nome(valorOuVazio(item.getProdutoDescricao()))
+                .descricao(valorOuVazio(item.getProdutoDescricao()))
+                .codigoBarras(valorOuVazio(item.getCodigoBarras()))
+                .marca(valorOuVazio(item.getMarca()))
+                .unidadeMedida(valorOuVazio(item.getUnidadeMedida()))
+                .build();
+
+        return MuralDTO.Listagem.builder()
+                .id(item.getId())
+                .itemProduto(valorOuVazio(item.getProdutoDescricao()))
+                .produto(produtoDTO)
+                .categoria(valorOuVazio(item.getCategoria()))
+                .corredor(valorOuVazio(item.getCorredor()))
+                .fornecedor(valorOuVazio(item.getFornecedor()))
+                .dataValidade(item.getDataVencimento())
+                .dataFabricacao(item.getDataFabricacao())
+                .dataRecebimento(item.getDataRecebimento())
+                .lote(item.getLote())
+                .precoVenda(item.getPrecoVenda())
+                .status(determinarStatus(item.getDataVencimento()))
+                .inspecionado(item.getInspecionado())
+                .motivoInspecao(item.getMotivoInspecao())
+                .usuarioInspecao(item.getUsuarioInspecao())
+                .dataHoraInspecao(item.getDataHoraInspecao())
+                .build();
+    }
+
+    private static String valorOuVazio(String valor) {
+        return valor != null ? valor : "";
+    }
+
     private String determinarStatus(LocalDateTime dataVencimento) {
-        LocalDateTime hoje = LocalDateTime.now();
+        LocalDateTime hoje = LocalDateTime.now(relogio);
         if (dataVencimento.toLocalDate().isBefore(hoje.toLocalDate())) {
             return "vencido";
         } else if (dataVencimento.toLocalDate().isEqual(hoje.toLocalDate())) {
@@ -570,8 +409,6 @@ public class MuralService {
         try {
             validarMotivoInspecao(motivo, motivoCustomizado);
             
-            ItemProduto item = itemProdutoService.buscarPorId(id);
-            
             String motivoFinal = obterMotivoFinal(motivo, motivoCustomizado);
             
             String nomeUsuario = usuarioInspecao;
@@ -583,13 +420,14 @@ public class MuralService {
                 }
             }
             
-            item.setInspecionado(true);
-            item.setMotivoInspecao(motivoFinal);
-            item.setUsuarioInspecao(nomeUsuario);
-            item.setDataHoraInspecao(LocalDateTime.now());
-            
-            ItemProduto itemSalvo = itemProdutoService.salvarItemInspecionado(item);
-            return mapToDTO(itemSalvo);
+            // mesmo UPDATE condicional da inspeção em lote, que desconta o sininho só se o item
+            // ainda estava pendente; nenhuma entidade da sessão (aberta na view) é alterada
+            itemProdutoService.marcarInspecionados(List.of(id), motivoFinal, nomeUsuario, LocalDateTime.now(relogio));
+
+            return itemProdutoService.listarMuralPorIds(List.of(id)).stream()
+                    .findFirst()
+                    .map(this::mapToDTO)
+                    .orElseThrow(() -> new SmartValidityException("ItemProduto não encontrado com o ID: " + id));
         } catch (Exception e) {
             if (e instanceof SmartValidityException) {
                 throw (SmartValidityException) e;
@@ -604,7 +442,7 @@ public class MuralService {
         return marcarItemInspecionado(id, motivo, motivoCustomizado, usuarioInspecao);
     }
 
-    private List<MuralDTO.Listagem> marcarVariosItensInspecionados(List<String> ids, String motivo, String motivoCustomizado, String usuarioInspecao) throws SmartValidityException {
+    private MuralDTO.InspecaoLoteResposta marcarVariosItensInspecionados(List<String> ids, String motivo, String motivoCustomizado, String usuarioInspecao) throws SmartValidityException {
         if (ids == null || ids.isEmpty()) {
             throw new SmartValidityException("Nenhum item selecionado para inspeção");
         }
@@ -621,34 +459,75 @@ public class MuralService {
             }
         }
         
-        LocalDateTime dataHoraInspecao = LocalDateTime.now();
-        
-        List<MuralDTO.Listagem> itensAtualizados = new ArrayList<>();
-        
-        for (String id : ids) {
-            try {
-                ItemProduto item = itemProdutoService.buscarPorId(id);
-                item.setInspecionado(true);
-                item.setMotivoInspecao(motivoFinal);
-                item.setUsuarioInspecao(nomeUsuario);
-                item.setDataHoraInspecao(dataHoraInspecao);
-                
-                ItemProduto itemSalvo = itemProdutoService.salvarItemInspecionado(item);
-                itensAtualizados.add(mapToDTO(itemSalvo));
-            } catch (Exception e) {
-                System.err.println("Erro ao marcar item " + id + " como inspecionado: " + e.getMessage());
-                e.printStackTrace();
+        LocalDateTime dataHoraInspecao = LocalDateTime.now(relogio).truncatedTo(ChronoUnit.SECONDS);
+        Set<String> idsUnicos = new LinkedHashSet<>(ids);
+
+        // situação atual dos itens, para separar os pendentes dos já inspecionados e inexistentes
+        Set<String> pendentes = new LinkedHashSet<>();
+        for (MuralDTO.ListagemProjecao item : itemProdutoService.listarMuralPorIds(idsUnicos)) {
+            if (!Boolean.TRUE.equals(item.getInspecionado())) {
+                pendentes.add(item.getId());
             }
         }
-        
-        if (itensAtualizados.isEmpty() && !ids.isEmpty()) {
+
+        int atualizados = itemProdutoService.marcarInspecionados(pendentes, motivoFinal, nomeUsuario, dataHoraInspecao);
+
+        Map<String, MuralDTO.ListagemProjecao> itensPorId = itemProdutoService.listarMuralPorIds(idsUnicos).stream()
+                .collect(Collectors.toMap(MuralDTO.ListagemProjecao::getId, item -> item));
+
+        List<MuralDTO.Listagem> itens = new ArrayList<>();
+        List<MuralDTO.InspecaoLoteResultado> resultados = new ArrayList<>();
+        int jaInspecionados = 0;
+        int naoEncontrados = 0;
+        for (String id : idsUnicos) {
+            MuralDTO.ListagemProjecao item = itensPorId.get(id);
+            ResultadoInspecao resultado;
+            if (item == null) {
+                resultado = ResultadoInspecao.NAO_ENCONTRADO;
+                naoEncontrados++;
+            } else if (pendentes.contains(id) && (atualizados == pendentes.size()
+                    || foiInspecionadoPor(item, motivoFinal, nomeUsuario, dataHoraInspecao))) {
+                resultado = ResultadoInspecao.ATUALIZADO;
+            } else {
+                // já estava inspecionado ou foi inspecionado por outra requisição entre a leitura e o UPDATE
+                resultado = ResultadoInspecao.JA_INSPECIONADO;
+                jaInspecionados++;
+            }
+            if (item != null) {
+                itens.add(mapToDTO(item));
+            }
+            resultados.add(new MuralDTO.InspecaoLoteResultado(id, resultado));
+        }
+
+        if (itens.isEmpty()) {
             throw new SmartValidityException("Não foi possível marcar nenhum dos itens como inspecionado");
         }
-        
-        return itensAtualizados;
+
+        logger.debug("Inspeção em lote: {} atualizados, {} já inspecionados, {} não encontrados",
+                atualizados, jaInspecionados, naoEncontrados);
+
+        return MuralDTO.InspecaoLoteResposta.builder()
+                .itens(itens)
+                .resultados(resultados)
+                .atualizados(idsUnicos.size() - jaInspecionados - naoEncontrados)
+                .jaInspecionados(jaInspecionados)
+                .naoEncontrados(naoEncontrados)
+                .build();
+    }
+
+    private boolean foiInspecionadoPor(MuralDTO.ListagemProjecao item, String motivo, String usuario,
+            LocalDateTime dataHora) {
+        return Objects.equals(item.getMotivoInspecao(), motivo)
+                && Objects.equals(item.getUsuarioInspecao(), usuario)
+                && item.getDataHoraInspecao() != null
+                && item.getDataHoraInspecao().truncatedTo(ChronoUnit.SECONDS).isEqual(dataHora);
     }
     
-    public List<MuralDTO.Listagem> marcarVariosInspecionados(List<String> ids, String motivo, String motivoCustomizado, String usuarioInspecao) throws SmartValidityException {
+    /**
+     * Inspeção em lote com um único UPDATE para todos os itens pendentes, dentro de uma transação.
+     */
+    @Transactional(rollbackFor = SmartValidityException.class)
+    public MuralDTO.InspecaoLoteResposta marcarVariosInspecionados(List<String> ids, String motivo, String motivoCustomizado, String usuarioInspecao) throws SmartValidityException {
         return marcarVariosItensInspecionados(ids, motivo, motivoCustomizado, usuarioInspecao);
     }
 
@@ -665,46 +544,11 @@ public class MuralService {
     }
     
     public long contarTotalRegistros(MuralDTO.Filtro filtro) {
-        List<ItemProduto> itens = itemProdutoService.buscarTodos();
-        List<MuralDTO.Listagem> dtos = itens.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
-        
-        List<MuralDTO.Listagem> itensFiltrados = aplicarFiltros(dtos, filtro);
-        
-        return itensFiltrados.size();
+        return itemProdutoService.contarComSeletor(new MuralSeletor(filtro, LocalDateTime.now(relogio)));
     }
 
     public List<String> getUsuariosInspecaoDisponiveis() {
-        try {
-            LocalDateTime hoje = LocalDateTime.now();
-            LocalDateTime limite = hoje.plusDays(15);
-            
-            // Buscar usuários que inspecionaram produtos que vencerão nos próximos 15 dias
-            List<String> usuariosComInspecaoRelevante = itemProdutoService.buscarTodos().stream()
-                    .filter(item -> {
-                        LocalDateTime vencimento = item.getDataVencimento();
-                        return vencimento.isAfter(hoje) && vencimento.isBefore(limite.plusDays(1));
-                    })
-                    .filter(item -> item.getInspecionado() && StringUtils.hasText(item.getUsuarioInspecao()))
-                    .map(item -> item.getUsuarioInspecao())
-                    .distinct()
-                    .sorted()
-                    .collect(Collectors.toList());
-            
-            if (usuariosComInspecaoRelevante.isEmpty()) {
-            return usuarioService.listarTodos().stream()
-                .map(usuario -> usuario.getNome())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
-            }
-            
-            return usuariosComInspecaoRelevante;
-        } catch (Exception e) {
-            logger.warn("Erro ao obter usuários para inspeção: {}", e.getMessage());
-            return new ArrayList<>();
-        }
+        return getFiltroOpcoes().getUsuariosInspecao();
     }
 
     public List<MuralDTO.Listagem> buscarPorIds(List<String> ids) {
@@ -712,17 +556,14 @@ public class MuralService {
             return new ArrayList<>();
         }
         
+        // uma única consulta para todos os ids, devolvidos na ordem em que foram informados
+        Map<String, MuralDTO.ListagemProjecao> itensPorId = itemProdutoService.listarMuralPorIds(ids).stream()
+                .collect(Collectors.toMap(MuralDTO.ListagemProjecao::getId, item -> item));
+
         return ids.stream()
-            .map(id -> {
-                try {
-                    ItemProduto item = itemProdutoService.buscarPorId(id);
-                    return mapToDTO(item);
-                } catch (Exception e) {
-                    System.err.println("Erro ao buscar item " + id + ": " + e.getMessage());
-                    return null;
-                }
-            })
+            .map(itensPorId::get)
             .filter(Objects::nonNull)
+            .map(this::mapToDTO)
             .collect(Collectors.toList());
     }
 
@@ -770,10 +611,19 @@ public class MuralService {
         }
     }
 
-    public byte[] gerarRelatorioExcel(MuralDTO.RelatorioRequest request) throws SmartValidityException {
+    /**
+     * Valida a solicitação de relatório e devolve o título da planilha. As validações
+     * acontecem antes da geração porque, depois que a planilha começa a ser enviada,
+     * não é mais possível responder com erro.
+     */
+    public MuralDTO.RelatorioPreparado prepararRelatorio(MuralDTO.RelatorioRequest request) throws SmartValidityException {
         logger.info("Iniciando geracao de relatorio. Tipo: {}, Status: {}", request.getTipo(), request.getStatus());
-        List<MuralDTO.Listagem> itens;
+        long quantidade;
         try {
+            FormatoRelatorio formato = FormatoRelatorio.de(request.getFormato());
+            if (formato == null) {
+                throw new SmartValidityException("Formato de relatório inválido");
+            }
             switch (request.getTipo()) {
                 case "SELECIONADOS":
                     if (request.getIds() == null || request.getIds().isEmpty()) {
@@ -781,35 +631,28 @@ public class MuralService {
                         throw new SmartValidityException("Nenhum item selecionado para o relatório");
                     }
                     logger.debug("Gerando relatorio para {} itens selecionados", request.getIds().size());
-                    itens = buscarPorIds(request.getIds());
-                    validarItensPertencemAoStatus(itens, request.getStatus());
+                    List<MuralDTO.Listagem> selecionados = buscarPorIds(request.getIds());
+                    validarItensPertencemAoStatus(selecionados, request.getStatus());
+                    quantidade = selecionados.size();
                     break;
                 case "PAGINA":
-                    logger.debug("Gerando relatorio para itens da pagina atual. Filtros: {}", request.getFiltro());
-                    itens = buscarComFiltro(request.getFiltro());
-                    validarItensPertencemAoStatus(itens, request.getStatus());
-                    break;
                 case "TODOS":
-                    logger.debug("Gerando relatorio para todos os itens. Filtros aplicados: {}", request.getFiltro());
-                    MuralDTO.Filtro filtroSemPaginacao = request.getFiltro();
-                    filtroSemPaginacao.setPagina(null);
-                    filtroSemPaginacao.setLimite(null);
-                    itens = buscarComFiltro(filtroSemPaginacao);
-                    validarItensPertencemAoStatus(itens, request.getStatus());
+                    logger.debug("Gerando relatorio {}. Filtros: {}", request.getTipo(), request.getFiltro());
+                    quantidade = contarItensRelatorio(filtroRelatorio(request), request.getStatus());
                     break;
                 default:
                     logger.error("Tipo de relatorio invalido: {}", request.getTipo());
                     throw new SmartValidityException("Tipo de relatório inválido");
             }
-            if (itens.isEmpty()) {
+            if (quantidade == 0) {
                 logger.warn("Nenhum item encontrado para gerar o relatorio");
                 throw new SmartValidityException("Nenhum item encontrado para gerar o relatório");
             }
-            String titulo = gerarTituloRelatorio(request.getStatus(), request.getTipo(), itens.size());
-            logger.info("Gerando Excel para {} itens com titulo: {}", itens.size(), titulo);
-            byte[] resultado = excelService.gerarExcelMural(itens, titulo);
-            logger.info("Relatorio gerado com sucesso. Tamanho: {} bytes", resultado.length);
-            return resultado;
+            return MuralDTO.RelatorioPreparado.builder()
+                    .titulo(gerarTituloRelatorio(request.getStatus(), request.getTipo(), (int) quantidade))
+                    .totalItens(quantidade)
+                    .formato(formato)
+                    .build();
         } catch (SmartValidityException e) {
             logger.warn("Erro de validacao ao gerar relatorio: {}", e.getMessage());
             throw e;
@@ -819,6 +662,70 @@ public class MuralService {
         }
     }
 
+    /**
+     * Escreve a planilha do relatório já validado em {@link #prepararRelatorio}. Os itens
+     * são lidos do banco sob demanda, mantendo o consumo de memória constante.
+     */
+    @Transactional(readOnly = true)
+    public int escreverRelatorio(MuralDTO.RelatorioRequest request, MuralDTO.RelatorioPreparado preparado,
+            OutputStream saida) throws SmartValidityException {
+        return escreverRelatorio(request, preparado, saida, linhas -> { });
+    }
+
+    @Transactional(readOnly = true)
+    public int escreverRelatorio(MuralDTO.RelatorioRequest request, MuralDTO.RelatorioPreparado preparado,
+            OutputStream saida, IntConsumer progresso) throws SmartValidityException {
+        try (Stream<MuralDTO.Listagem> linhas = linhasRelatorio(request)) {
+            switch (preparado.getFormato()) {
+                case CSV:
+                    return exportacaoTextoService.escreverCsvMural(linhas.iterator(), saida, progresso);
+                case NDJSON:
+                    return exportacaoTextoService.escreverNdjsonMural(linhas.iterator(), saida, progresso);
+                default:
+                    return excelService.escreverExcelMural(linhas.iterator(), preparado.getTitulo(), saida, progresso);
+            }
+        }
+    }
+
+    private Stream<MuralDTO.Listagem> linhasRelatorio(MuralDTO.RelatorioRequest request) {
+        if ("SELECIONADOS".equals(request.getTipo())) {
+            return buscarPorIds(request.getIds()).stream();
+        }
+        MuralSeletor seletor = new MuralSeletor(filtroRelatorio(request), LocalDateTime.now(relogio));
+        if (seletor.temPaginacao()) {
+            return itemProdutoService.listarMuralComSeletor(seletor).stream().map(this::mapToDTO);
+        }
+        return itemProdutoService.streamMuralComSeletor(seletor).map(this::mapToDTO);
+    }
+
+    /**
+     * PAGINA usa o filtro como recebido; TODOS ignora a paginação do filtro.
+     */
+    private MuralDTO.Filtro filtroRelatorio(MuralDTO.RelatorioRequest request) {
+        MuralDTO.Filtro filtro = request.getFiltro() != null ? request.getFiltro() : new MuralDTO.Filtro();
+        if ("TODOS".equals(request.getTipo())) {
+            return filtro.toBuilder().pagina(null).limite(null).build();
+        }
+        return filtro;
+    }
+
+    private long contarItensRelatorio(MuralDTO.Filtro filtro, String status) throws SmartValidityException {
+        MuralSeletor seletor = new MuralSeletor(filtro, LocalDateTime.now(relogio));
+        if (seletor.temPaginacao()) {
+            // a página é limitada, então pode ser validada item a item
+            List<MuralDTO.Listagem> itens = buscarComFiltro(filtro);
+            validarItensPertencemAoStatus(itens, status);
+            return itens.size();
+        }
+
+        long total = itemProdutoService.contarComSeletor(seletor);
+        if (total > 0 && status != null && !status.isEmpty()
+                && itemProdutoService.contarComSeletor(seletor.and(MuralSeletor.foraDoStatus(status, seletor.getReferencia()))) > 0) {
+            throw new SmartValidityException("Um ou mais produtos selecionados não pertencem à aba/status informada. Por favor, selecione apenas produtos da aba correta.");
+        }
+        return total;
+    }
+
     public void cancelarSelecao(List<String> ids) { // to do
 
     }
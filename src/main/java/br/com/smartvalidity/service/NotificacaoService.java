@@ -1,12 +1,25 @@
 package br.com.smartvalidity.service;
 
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import br.com.smartvalidity.auth.AuthenticationService;
 import br.com.smartvalidity.exception.SmartValidityException;
@@ -15,11 +28,16 @@ import br.com.smartvalidity.model.dto.NotificacaoDTO;
 import br.com.smartvalidity.model.entity.Alerta;
 import br.com.smartvalidity.model.entity.ItemProduto;
 import br.com.smartvalidity.model.entity.Notificacao;
+import br.com.smartvalidity.model.entity.NotificacaoArquivo;
 import br.com.smartvalidity.model.entity.Usuario;
 import br.com.smartvalidity.model.enums.TipoAlerta;
+import br.com.smartvalidity.model.enums.TipoEventoNotificacao;
 import br.com.smartvalidity.model.mapper.AlertaMapper;
 import br.com.smartvalidity.model.mapper.NotificacaoMapper;
+import br.com.smartvalidity.model.repository.NotificacaoArquivoRepository;
 import br.com.smartvalidity.model.repository.NotificacaoRepository;
+import br.com.smartvalidity.model.seletor.Cursor;
+import br.com.smartvalidity.model.seletor.NotificacaoSeletor;
 import lombok.extern.slf4j.Slf4j;
 
 
@@ -27,72 +45,89 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class NotificacaoService {
 
+    private static final int LIMITE_PADRAO = 20;
+    private static final int LIMITE_MAXIMO = 100;
+
+    // histórico de resolvidas: mais recente primeiro, como nas consultas das duas tabelas
+    private static final Comparator<Resolvida> ORDEM_RESOLVIDAS = Comparator
+            .comparing((Resolvida r) -> r.data, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(r -> r.id, Comparator.reverseOrder());
+
     @Autowired
     private NotificacaoRepository notificacaoRepository;
 
+    @Autowired
+    private NotificacaoArquivoRepository notificacaoArquivoRepository;
+
     @Autowired
     private AuthenticationService authenticationService;
 
+    @Autowired
+    private ContadorNotificacaoService contadorNotificacaoService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private NotificacaoStreamService notificacaoStreamService;
+
+    @Autowired
+    private LeituraNotificacaoService leituraNotificacaoService;
+
 
+    /**
+     * Notifica os usuários do alerta com um único INSERT ... SELECT, que ignora quem já
+     * foi notificado, em vez de uma consulta e um insert por usuário.
+     */
     @Transactional
     public void criarNotificacoesParaAlerta(Alerta alerta) {
-        log.info("=== Iniciando criação de notificações ===");
-        log.info("Alerta ID: {}, Título: {}", alerta.getId(), alerta.getTitulo());
-        
         if (alerta.getUsuariosAlerta() == null || alerta.getUsuariosAlerta().isEmpty()) {
             log.warn("Alerta {} não possui usuários associados", alerta.getId());
             return;
         }
 
-        log.info("Usuários associados ao alerta: {}", alerta.getUsuariosAlerta().size());
-        int notificacoesCriadas = 0;
-        int notificacoesJaExistentes = 0;
-        
-        for (Usuario usuario : alerta.getUsuariosAlerta()) {
-            log.info("Processando usuário: {} (ID: {})", usuario.getNome(), usuario.getId());
-            
-            boolean jaExiste = notificacaoRepository.existsByAlertaIdAndUsuarioId(alerta.getId(), usuario.getId());
-            log.info("Notificação já existe para este usuário/alerta? {}", jaExiste);
-            
-            if (!jaExiste) {
-                try {
-                    Notificacao notificacao = new Notificacao();
-                    notificacao.setAlerta(alerta);
-                    notificacao.setUsuario(usuario);
-                    notificacao.setLida(false);
-                    
-                    Notificacao notificacaoSalva = notificacaoRepository.save(notificacao);
-                    log.info("Notificação criada com ID: {} para usuário {}", 
-                        notificacaoSalva.getId(), usuario.getNome());
-                    notificacoesCriadas++;
-                } catch (Exception e) {
-                    log.error("Erro ao criar notificação para usuário {}: {}", usuario.getNome(), e.getMessage(), e);
-                }
-            } else {
-                notificacoesJaExistentes++;
-                log.info("Notificação já existe para usuário {}", usuario.getNome());
-            }
+        List<String> usuarios = alerta.getUsuariosAlerta().stream()
+                .map(Usuario::getId)
+                .collect(Collectors.toList());
+
+        long inicio = System.nanoTime();
+        contadorNotificacaoService.registrarNovas(List.of(alerta.getId()), usuarios);
+        int criadas = notificacaoRepository.inserirFaltantes(List.of(alerta.getId()), usuarios,
+                LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        long duracaoNs = Math.max(System.nanoTime() - inicio, 1);
+
+        if (criadas > 0) {
+            eventPublisher.publishEvent(NotificacaoDTO.Alteracao.builder()
+                    .tipo(TipoEventoNotificacao.CRIADAS)
+                    .usuarios(usuarios)
+                    .alertas(List.of(alerta.getId()))
+                    .build());
         }
-        
-        log.info("=== Resultado da criação de notificações ===");
-        log.info("Criadas: {} notificações", notificacoesCriadas);
-        log.info("Já existentes: {} notificações", notificacoesJaExistentes);
-        log.info("Total de usuários processados: {}", alerta.getUsuariosAlerta().size());
+
+        log.info("Notificações do alerta {}: {} criadas, {} já existentes em {} ms ({} notificações/s)",
+                alerta.getId(), criadas, usuarios.size() - criadas, duracaoNs / 1_000_000,
+                criadas * 1_000_000_000L / duracaoNs);
     }
 
 
     public List<AlertaDTO.Listagem> buscarNotificacoesDoUsuario(Usuario usuario) {
         try {
-            List<Notificacao> notificacoes = notificacaoRepository.findByUsuarioOrderByDataHoraCriacaoDesc(usuario);
-            return notificacoes.stream()
-                    .map(this::convertNotificacaoToAlertaDTO)
-                    .collect(Collectors.toList());
+            return buscarTodas(seletorDoUsuario(usuario));
         } catch (Exception e) {
             log.warn("Erro ao buscar notificações do usuário {}: {}", usuario.getId(), e.getMessage());
             return List.of();
         }
     }
 
+    /**
+     * Página das notificações do usuário, da mais recente para a mais antiga.
+     */
+    @Transactional(readOnly = true)
+    public AlertaDTO.Pagina buscarNotificacoesDoUsuario(Usuario usuario, String cursor, int limite)
+            throws SmartValidityException {
+        return buscarPagina(seletorDoUsuario(usuario), cursor, limite);
+    }
+
 
     public List<AlertaDTO.Listagem> buscarNotificacaoNaoLidasDoUsuario(Usuario usuario) {
         try {
@@ -132,12 +167,23 @@ public class NotificacaoService {
 
     @Transactional
     public boolean marcarComoLida(Long notificacaoId, Usuario usuario) {
+        if (leituraNotificacaoService.isAtivo()) {
+            return registrarLeitura(notificacaoId, usuario);
+        }
         try {
-            return notificacaoRepository.findByIdAndUsuario(notificacaoId, usuario)
-                    .map(notificacao -> {
-                        if (!notificacao.getLida()) {
-                            notificacao.marcarComoLida();
-                            notificacaoRepository.save(notificacao);
+            return notificacaoRepository.findSituacaoLeitura(notificacaoId, usuario.getId())
+                    .map(situacao -> {
+                        // UPDATE condicional em vez de ler e salvar: só quem efetivamente marcou desconta o contador
+                        if (!situacao.getLida()
+                                && notificacaoRepository.marcarLida(notificacaoId, usuario.getId(), LocalDateTime.now()) == 1) {
+                            if (situacao.getTipo() == TipoAlerta.PERSONALIZADO) {
+                                contadorNotificacaoService.registrarLeituraPersonalizada(usuario.getId());
+                            }
+                            eventPublisher.publishEvent(NotificacaoDTO.Alteracao.builder()
+                                    .tipo(TipoEventoNotificacao.ATUALIZADAS)
+                                    .usuarios(List.of(usuario.getId()))
+                                    .notificacaoId(notificacaoId)
+                                    .build());
                             log.info("Notificação {} marcada como lida pelo usuário {}", notificacaoId, usuario.getId());
                         }
                         return true;
@@ -150,10 +196,42 @@ public class NotificacaoService {
     }
 
 
+    /**
+     * Modo write-behind: confere a notificação com uma consulta leve e só acumula a leitura,
+     * gravada depois em lote pelo {@link LeituraNotificacaoService}.
+     */
+    private boolean registrarLeitura(Long notificacaoId, Usuario usuario) {
+        try {
+            return notificacaoRepository.findSituacaoLeitura(notificacaoId, usuario.getId())
+                    .map(situacao -> {
+                        if (!situacao.getLida() && leituraNotificacaoService.registrar(notificacaoId, usuario.getId(),
+                                situacao.getAlertaId(), situacao.getTipo() == TipoAlerta.PERSONALIZADO)) {
+                            eventPublisher.publishEvent(NotificacaoDTO.Alteracao.builder()
+                                    .tipo(TipoEventoNotificacao.ATUALIZADAS)
+                                    .usuarios(List.of(usuario.getId()))
+                                    .notificacaoId(notificacaoId)
+                                    .build());
+                        }
+                        return true;
+                    })
+                    .orElse(false);
+        } catch (Exception e) {
+            log.error("Erro ao registrar leitura da notificação {}: {}", notificacaoId, e.getMessage(), e);
+            return false;
+        }
+    }
+
+
     @Transactional
     public void marcarTodasComoLidas(Usuario usuario) {
         try {
             int atualizadas = notificacaoRepository.marcarTodasComoLidasPorUsuario(usuario);
+            leituraNotificacaoService.descartarDoUsuario(usuario.getId());
+            contadorNotificacaoService.registrarLeituraDeTodas(usuario.getId());
+            eventPublisher.publishEvent(NotificacaoDTO.Alteracao.builder()
+                    .tipo(TipoEventoNotificacao.ATUALIZADAS)
+                    .usuarios(List.of(usuario.getId()))
+                    .build());
             log.info("Marcadas {} notificações como lidas para o usuário {}", atualizadas, usuario.getId());
         } catch (Exception e) {
             log.error("Erro ao marcar todas as notificações como lidas para usuário {}: {}", 
@@ -199,12 +277,37 @@ public class NotificacaoService {
         dto.setId(notificacao.getId().intValue());
         dto.setDataCriacao(notificacao.getDataHoraCriacao() != null ? 
             Timestamp.valueOf(notificacao.getDataHoraCriacao()) : null);
-        dto.setLida(notificacao.getLida());
+        dto.setLida(notificacao.getLida() || leituraNotificacaoService.foiLida(notificacao.getId()));
         
         return dto;
     }
     
 
+    private AlertaDTO.Listagem convertNotificacaoArquivadaToAlertaDTO(NotificacaoArquivo arquivada) {
+        AlertaDTO.Listagem dto = AlertaMapper.toListagemDTO(arquivada.getAlerta());
+        dto.setId(arquivada.getId().intValue());
+        dto.setDataCriacao(Timestamp.valueOf(arquivada.getDataHoraCriacao()));
+        // só notificações lidas são arquivadas
+        dto.setLida(true);
+        return dto;
+    }
+
+    /**
+     * Notificações arquivadas já estão lidas e com o item inspecionado: saem sem mexer nos contadores.
+     */
+    private boolean excluirNotificacaoArquivada(Long notificacaoId, Usuario usuario) {
+        if (notificacaoArquivoRepository.excluirDoUsuario(notificacaoId, usuario.getId()) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(NotificacaoDTO.Alteracao.builder()
+                .tipo(TipoEventoNotificacao.EXCLUIDAS)
+                .usuarios(List.of(usuario.getId()))
+                .notificacaoId(notificacaoId)
+                .build());
+        log.info("Notificação arquivada {} excluída pelo usuário {}", notificacaoId, usuario.getId());
+        return true;
+    }
+
     public NotificacaoDTO.Listagem buscarNotificacaoPorIdComNotificacaoDTO(Long notificacaoId, Usuario usuario) {
         try {
             return notificacaoRepository.findByIdAndUsuario(notificacaoId, usuario)
@@ -224,7 +327,7 @@ public class NotificacaoService {
                                              .orElse(null);
 
             if (notificacao == null) {
-                return false;
+                return excluirNotificacaoArquivada(notificacaoId, usuario);
             }
 
             // verifica se oitem-produto foi inspecionado
@@ -237,6 +340,14 @@ public class NotificacaoService {
             }
 
             notificacaoRepository.delete(notificacao);
+            notificacaoRepository.flush();
+            leituraNotificacaoService.descartar(notificacaoId);
+            contadorNotificacaoService.recontar(List.of(usuario.getId()));
+            eventPublisher.publishEvent(NotificacaoDTO.Alteracao.builder()
+                    .tipo(TipoEventoNotificacao.EXCLUIDAS)
+                    .usuarios(List.of(usuario.getId()))
+                    .notificacaoId(notificacaoId)
+                    .build());
             log.info("Notificação {} excluída pelo usuário {}", notificacaoId, usuario.getId());
             return true;
 
@@ -276,15 +387,16 @@ public class NotificacaoService {
     /**
      * Busca notificações de alertas relacionados a produtos já inspecionados.
      * Usado para o histórico de notificações de produtos inspecionados.
+     * Lista completa, mantida para clientes antigos: o histórico só cresce, então a tela
+     * deve usar a versão paginada por cursor.
      * 
      * @param usuario O usuário
      * @return Lista de notificações de produtos inspecionados
      */
     public List<AlertaDTO.Listagem> buscarNotificacoesProdutosInspecionados(Usuario usuario) {
         try {
-            List<Notificacao> notificacoes = notificacaoRepository.findByUsuarioAndProdutoInspecionado(usuario);
-            return notificacoes.stream()
-                    .map(this::convertNotificacaoToAlertaDTO)
+            return buscarHistoricoResolvidas(usuario, null, null, 0).stream()
+                    .map(Resolvida::paraDTO)
                     .collect(Collectors.toList());
         } catch (Exception e) {
             log.warn("Erro ao buscar notificações de produtos inspecionados do usuário {}: {}", usuario.getId(), e.getMessage());
@@ -292,6 +404,103 @@ public class NotificacaoService {
         }
     }
 
+    /**
+     * Página do histórico de notificações de produtos inspecionados, ativas e arquivadas, por
+     * cursor (keyset) sobre (data de inspeção do item, id).
+     */
+    @Transactional(readOnly = true)
+    public AlertaDTO.Pagina buscarNotificacoesProdutosInspecionados(Usuario usuario, String token, int limite)
+            throws SmartValidityException {
+        LocalDateTime ultimaData = null;
+        Long ultimoId = null;
+        if (token != null && !token.isBlank()) {
+            Cursor cursor = Cursor.decodificar(token);
+            ultimoId = idDoCursor(cursor);
+            ultimaData = cursor.getData();
+        }
+
+        int tamanho = limite > 0 ? Math.min(limite, LIMITE_MAXIMO) : LIMITE_PADRAO;
+        // um a mais para saber se há próxima página
+        List<Resolvida> historico = buscarHistoricoResolvidas(usuario, ultimaData, ultimoId, tamanho + 1);
+        boolean temProximaPagina = historico.size() > tamanho;
+        List<Resolvida> resolvidas = temProximaPagina ? historico.subList(0, tamanho) : historico;
+
+        AlertaDTO.Pagina pagina = new AlertaDTO.Pagina();
+        pagina.setItens(resolvidas.stream().map(Resolvida::paraDTO).toList());
+        pagina.setLimite(tamanho);
+        pagina.setTemProximaPagina(temProximaPagina);
+        if (temProximaPagina) {
+            Resolvida ultima = resolvidas.get(resolvidas.size() - 1);
+            pagina.setProximoCursor(new Cursor(ultima.data, String.valueOf(ultima.id)).codificar());
+        }
+        return pagina;
+    }
+
+    /**
+     * Histórico de resolvidas após o cursor, nas duas tabelas. Cada uma vem do banco já ordenada
+     * e limitada; aqui as duas listas só são intercaladas até o limite (0: sem limite).
+     */
+    private List<Resolvida> buscarHistoricoResolvidas(Usuario usuario, LocalDateTime ultimaData, Long ultimoId,
+            int limite) {
+        NotificacaoSeletor seletor = seletorDoUsuario(usuario);
+        seletor.setItemInspecionado(true);
+        seletor.setOrdenarPorInspecao(true);
+        seletor.setCursorData(ultimaData);
+        seletor.setCursorId(ultimoId);
+        List<Notificacao> notificacoes = limite > 0
+                ? notificacaoRepository.findBy(seletor, consulta -> consulta.limit(limite).all())
+                : notificacaoRepository.findAll(seletor);
+        List<NotificacaoArquivo> arquivadas = notificacaoArquivoRepository.findHistoricoDoUsuario(usuario.getId(),
+                ultimaData, ultimoId, limite > 0 ? Limit.of(limite) : Limit.unlimited());
+
+        List<Resolvida> ativas = notificacoes.stream()
+                .map(n -> new Resolvida(dataResolvida(n.getAlerta(), n.getDataHoraCriacao()), n.getId(),
+                        () -> convertNotificacaoToAlertaDTO(n)))
+                .toList();
+        List<Resolvida> arquivo = arquivadas.stream()
+                .map(na -> new Resolvida(dataResolvida(na.getAlerta(), na.getDataHoraCriacao()), na.getId(),
+                        () -> convertNotificacaoArquivadaToAlertaDTO(na)))
+                .toList();
+
+        List<Resolvida> historico = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while ((i < ativas.size() || j < arquivo.size()) && (limite <= 0 || historico.size() < limite)) {
+            if (j >= arquivo.size() || (i < ativas.size() && ORDEM_RESOLVIDAS.compare(ativas.get(i), arquivo.get(j)) <= 0)) {
+                historico.add(ativas.get(i++));
+            } else {
+                historico.add(arquivo.get(j++));
+            }
+        }
+        return historico;
+    }
+
+    // mesma chave de ordenação das consultas: inspeção do item ou, sem ela, criação da notificação
+    private static LocalDateTime dataResolvida(Alerta alerta, LocalDateTime dataHoraCriacao) {
+        ItemProduto item = alerta.getItemProduto();
+        return item != null && item.getDataHoraInspecao() != null ? item.getDataHoraInspecao() : dataHoraCriacao;
+    }
+
+    /**
+     * Notificação do histórico de resolvidas, ativa ou arquivada: chave de ordenação e conversão
+     * adiada, para só converter o que entra na página.
+     */
+    private static final class Resolvida {
+        private final LocalDateTime data;
+        private final Long id;
+        private final Supplier<AlertaDTO.Listagem> conversao;
+
+        private Resolvida(LocalDateTime data, Long id, Supplier<AlertaDTO.Listagem> conversao) {
+            this.data = data;
+            this.id = id;
+            this.conversao = conversao;
+        }
+
+        private AlertaDTO.Listagem paraDTO() {
+            return conversao.get();
+        }
+    }
+
     public List<AlertaDTO.Listagem> buscarNotificacoesProdutosInspecionadosDoUsuarioAutenticado() throws SmartValidityException {
         Usuario usuario = authenticationService.getUsuarioAutenticado();
         if (usuario == null) {
@@ -300,6 +509,14 @@ public class NotificacaoService {
         return buscarNotificacoesProdutosInspecionados(usuario);
     }
     
+    public SseEmitter abrirStreamDoUsuarioAutenticado() throws SmartValidityException {
+        Usuario usuario = authenticationService.getUsuarioAutenticado();
+        if (usuario == null) {
+            throw new SmartValidityException("Usuário não autenticado");
+        }
+        return notificacaoStreamService.conectar(usuario.getId());
+    }
+    
     public Long contarNotificacaoNaoLidasDoUsuarioAutenticado() throws SmartValidityException {
         Usuario usuario = authenticationService.getUsuarioAutenticado();
         if (usuario == null) {
@@ -334,8 +551,6 @@ public class NotificacaoService {
 
     /**
      * Exclui todas as notificações relacionadas a um alerta específico.
-     * Este método é chamado automaticamente quando um alerta é excluído
-     * logicamente após a inspeção do produto.
      * 
      * @param alerta O alerta cujas notificações devem ser excluídas
      * @throws SmartValidityException Se houver erro durante a exclusão
@@ -346,33 +561,45 @@ public class NotificacaoService {
             log.warn("Alerta é null, não há notificações para excluir");
             return;
         }
+        excluirNotificacoesPorAlertas(List.of(alerta.getId()));
+    }
 
-        log.info("Iniciando exclusão de notificações para o Alerta ID: {}", alerta.getId());
+    /**
+     * Exclui as notificações dos alertas com um único DELETE, ajustando antes os
+     * contadores dos usuários afetados.
+     * 
+     * @param alertas Ids dos alertas cujas notificações devem ser excluídas
+     * @throws SmartValidityException Se houver erro durante a exclusão
+     */
+    @Transactional
+    public int excluirNotificacoesPorAlertas(Collection<Integer> alertas) throws SmartValidityException {
+        if (alertas.isEmpty()) {
+            return 0;
+        }
 
         try {
-            // Busca todas as notificações relacionadas ao alerta
-            List<Notificacao> notificacoesRelacionadas = notificacaoRepository.findByAlerta(alerta);
-
-            if (notificacoesRelacionadas.isEmpty()) {
-                log.info("Nenhuma notificação encontrada para o Alerta ID: {}", alerta.getId());
-                return;
+            Set<String> usuarios = new LinkedHashSet<>(notificacaoRepository.findUsuariosPorAlertas(alertas));
+            usuarios.addAll(notificacaoArquivoRepository.findUsuariosPorAlertas(alertas));
+            if (usuarios.isEmpty()) {
+                log.info("Nenhuma notificação encontrada para {} alertas", alertas.size());
+                return 0;
             }
 
-            int notificacoesExcluidas = 0;
-            for (Notificacao notificacao : notificacoesRelacionadas) {
-                log.info("Excluindo notificação ID: {} do usuário: {}", 
-                    notificacao.getId(), 
-                    notificacao.getUsuario() != null ? notificacao.getUsuario().getNome() : "Desconhecido");
-                
-                // Remove a notificação do banco de dados
-                notificacaoRepository.delete(notificacao);
-                notificacoesExcluidas++;
-            }
+            contadorNotificacaoService.registrarExclusao(alertas);
+            leituraNotificacaoService.descartarDosAlertas(alertas);
+            int notificacoesExcluidas = notificacaoRepository.excluirPorAlertas(alertas)
+                    + notificacaoArquivoRepository.excluirPorAlertas(alertas);
+            eventPublisher.publishEvent(NotificacaoDTO.Alteracao.builder()
+                    .tipo(TipoEventoNotificacao.EXCLUIDAS)
+                    .usuarios(usuarios)
+                    .alertas(alertas)
+                    .build());
 
-            log.info("Excluídas {} notificações para o Alerta ID: {}", notificacoesExcluidas, alerta.getId());
+            log.info("Excluídas {} notificações de {} alertas", notificacoesExcluidas, alertas.size());
+            return notificacoesExcluidas;
 
         } catch (Exception e) {
-            log.error("Erro ao excluir notificações para Alerta ID {}: {}", alerta.getId(), e.getMessage(), e);
+            log.error("Erro ao excluir notificações dos alertas {}: {}", alertas, e.getMessage(), e);
             throw new SmartValidityException("Erro ao excluir notificações relacionadas ao alerta: " + e.getMessage());
         }
     }
@@ -387,17 +614,22 @@ public class NotificacaoService {
 
     public List<AlertaDTO.Listagem> buscarNotificacoesPendentes(Usuario usuario) {
         try {
-            List<Notificacao> notificacoes = notificacaoRepository.findByUsuarioOrderByDataHoraCriacaoDesc(usuario);
-            return notificacoes.stream()
-                    .map(this::convertNotificacaoToAlertaDTO)
-                    .filter(dto -> dto.getItemInspecionado() == Boolean.FALSE) // Apenas não inspecionados (pendentes)
-                    .collect(Collectors.toList());
+            return buscarTodas(seletorPendentes(usuario));
         } catch (Exception e) {
             log.warn("Erro ao buscar notificações pendentes do usuário {}: {}", usuario.getId(), e.getMessage());
             return List.of();
         }
     }
 
+    /**
+     * Página das notificações cujo item ainda não foi inspecionado.
+     */
+    @Transactional(readOnly = true)
+    public AlertaDTO.Pagina buscarNotificacoesPendentes(Usuario usuario, String cursor, int limite)
+            throws SmartValidityException {
+        return buscarPagina(seletorPendentes(usuario), cursor, limite);
+    }
+
     /**
      * Conta notificações pendentes (não resolvidas) do usuário autenticado.
      */
@@ -413,17 +645,7 @@ public class NotificacaoService {
      * Conta notificações pendentes (não resolvidas) de um usuário.
      */
     public Long contarNotificacoesPendentes(Usuario usuario) {
-        try {
-            List<Notificacao> notificacoes = notificacaoRepository.findByUsuarioOrderByDataHoraCriacaoDesc(usuario);
-            long count = notificacoes.stream()
-                    .map(this::convertNotificacaoToAlertaDTO)
-                    .filter(dto -> dto.getItemInspecionado() == Boolean.FALSE) // Apenas não inspecionados (pendentes)
-                    .count();
-            return count;
-        } catch (Exception e) {
-            log.warn("Erro ao contar notificações pendentes do usuário {}: {}", usuario.getId(), e.getMessage());
-            return 0L;
-        }
+        return contadorNotificacaoService.contarPendentes(usuario.getId());
     }
 
     public List<AlertaDTO.Listagem> buscarNotificacoesPersonalizadasDoUsuarioAutenticado() throws SmartValidityException {
@@ -442,16 +664,110 @@ public class NotificacaoService {
      */
     public List<AlertaDTO.Listagem> buscarNotificacoesPersonalizadas(Usuario usuario) {
         try {
-            List<Notificacao> notificacoes = notificacaoRepository.findByUsuarioAndAlertaTipoOrderByDataHoraCriacaoDesc(usuario, TipoAlerta.PERSONALIZADO);
-            return notificacoes.stream()
-                    .map(this::convertNotificacaoToAlertaDTO)
-                    .collect(Collectors.toList());
+            return buscarTodas(seletorPersonalizadas(usuario));
         } catch (Exception e) {
             log.warn("Erro ao buscar notificações personalizadas do usuário {}: {}", usuario.getId(), e.getMessage());
             return List.of();
         }
     }
 
+    /**
+     * Página das notificações de alertas personalizados.
+     */
+    @Transactional(readOnly = true)
+    public AlertaDTO.Pagina buscarNotificacoesPersonalizadas(Usuario usuario, String cursor, int limite)
+            throws SmartValidityException {
+        return buscarPagina(seletorPersonalizadas(usuario), cursor, limite);
+    }
+
+    @Transactional(readOnly = true)
+    public AlertaDTO.Pagina buscarNotificacoesDoUsuarioAutenticado(String cursor, int limite) throws SmartValidityException {
+        return buscarNotificacoesDoUsuario(usuarioAutenticado(), cursor, limite);
+    }
+
+    @Transactional(readOnly = true)
+    public AlertaDTO.Pagina buscarNotificacoesPendentesDoUsuarioAutenticado(String cursor, int limite) throws SmartValidityException {
+        return buscarNotificacoesPendentes(usuarioAutenticado(), cursor, limite);
+    }
+
+    @Transactional(readOnly = true)
+    public AlertaDTO.Pagina buscarNotificacoesPersonalizadasDoUsuarioAutenticado(String cursor, int limite) throws SmartValidityException {
+        return buscarNotificacoesPersonalizadas(usuarioAutenticado(), cursor, limite);
+    }
+
+    @Transactional(readOnly = true)
+    public AlertaDTO.Pagina buscarNotificacoesProdutosInspecionadosDoUsuarioAutenticado(String cursor, int limite) throws SmartValidityException {
+        return buscarNotificacoesProdutosInspecionados(usuarioAutenticado(), cursor, limite);
+    }
+
+    private Usuario usuarioAutenticado() throws SmartValidityException {
+        Usuario usuario = authenticationService.getUsuarioAutenticado();
+        if (usuario == null) {
+            throw new SmartValidityException("Usuário não autenticado");
+        }
+        return usuario;
+    }
+
+    private NotificacaoSeletor seletorDoUsuario(Usuario usuario) {
+        NotificacaoSeletor seletor = new NotificacaoSeletor();
+        seletor.setUsuarioId(usuario.getId());
+        return seletor;
+    }
+
+    private NotificacaoSeletor seletorPendentes(Usuario usuario) {
+        NotificacaoSeletor seletor = seletorDoUsuario(usuario);
+        seletor.setItemInspecionado(false);
+        return seletor;
+    }
+
+    private NotificacaoSeletor seletorPersonalizadas(Usuario usuario) {
+        NotificacaoSeletor seletor = seletorDoUsuario(usuario);
+        seletor.setTipo(TipoAlerta.PERSONALIZADO);
+        return seletor;
+    }
+
+    private List<AlertaDTO.Listagem> buscarTodas(NotificacaoSeletor seletor) {
+        return notificacaoRepository.findAll(seletor).stream()
+                .map(this::convertNotificacaoToAlertaDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Paginação por cursor (keyset) sobre (dataHoraCriacao, id) da notificação; o filtro e
+     * o grafo do alerta saem de uma única consulta por página.
+     */
+    private AlertaDTO.Pagina buscarPagina(NotificacaoSeletor seletor, String token, int limite)
+            throws SmartValidityException {
+        if (token != null && !token.isBlank()) {
+            Cursor cursor = Cursor.decodificar(token);
+            seletor.setCursorId(idDoCursor(cursor));
+            seletor.setCursorData(cursor.getData());
+        }
+
+        int tamanho = limite > 0 ? Math.min(limite, LIMITE_MAXIMO) : LIMITE_PADRAO;
+        Window<Notificacao> janela = notificacaoRepository.findBy(seletor,
+                consulta -> consulta.limit(tamanho).scroll(ScrollPosition.offset()));
+        List<Notificacao> notificacoes = janela.getContent();
+
+        AlertaDTO.Pagina pagina = new AlertaDTO.Pagina();
+        pagina.setItens(notificacoes.stream().map(this::convertNotificacaoToAlertaDTO).toList());
+        pagina.setLimite(tamanho);
+        pagina.setTemProximaPagina(janela.hasNext());
+        if (janela.hasNext() && !notificacoes.isEmpty()) {
+            Notificacao ultima = notificacoes.get(notificacoes.size() - 1);
+            pagina.setProximoCursor(new Cursor(ultima.getDataHoraCriacao(), String.valueOf(ultima.getId())).codificar());
+        }
+        return pagina;
+    }
+
+    private static Long idDoCursor(Cursor cursor) throws SmartValidityException {
+        try {
+            return Long.valueOf(cursor.getId());
+        } catch (NumberFormatException e) {
+            throw new SmartValidityException("Cursor de paginação inválido");
+        }
+    }
+
     /**
      * Conta todas as notificações não lidas do usuário (pendentes + personalizadas não lidas).
      * Usado para o contador do sininho no cabeçalho.
@@ -468,25 +784,7 @@ public class NotificacaoService {
      * Conta todas as notificações não lidas do usuário (pendentes + personalizadas não lidas).
      */
     public Long contarNotificacoesNaoLidasTotal(Usuario usuario) {
-        try {
-            // Contar notificações pendentes (produtos não inspecionados)
-            Long pendentes = contarNotificacoesPendentes(usuario);
-            
-            // Contar notificações personalizadas não lidas
-            Long personalizadasNaoLidas = notificacaoRepository.countByUsuarioAndLidaFalse(usuario);
-            List<Notificacao> notificacoesPersonalizadas = notificacaoRepository.findByUsuarioAndAlertaTipoOrderByDataHoraCriacaoDesc(usuario, TipoAlerta.PERSONALIZADO);
-            Long personalizadasNaoLidasFiltradas = notificacoesPersonalizadas.stream()
-                    .filter(n -> !n.getLida())
-                    .count();
-            
-            log.debug("Contador sininho - Usuário {}: {} pendentes + {} personalizadas não lidas = {} total", 
-                usuario.getId(), pendentes, personalizadasNaoLidasFiltradas, pendentes + personalizadasNaoLidasFiltradas);
-            
-            return pendentes + personalizadasNaoLidasFiltradas;
-        } catch (Exception e) {
-            log.warn("Erro ao contar notificações não lidas total do usuário {}: {}", usuario.getId(), e.getMessage());
-            return 0L;
-        }
+        return contadorNotificacaoService.contarNaoLidasTotal(usuario.getId());
     }
 
     /**
@@ -507,6 +805,9 @@ public class NotificacaoService {
         log.info("Iniciando reset do status de lida para notificações do Alerta ID: {}", alerta.getId());
 
         try {
+            // leituras ainda não gravadas não podem reverter o reset
+            leituraNotificacaoService.descartarDosAlertas(List.of(alerta.getId()));
+
             // Busca todas as notificações relacionadas ao alerta
             List<Notificacao> notificacoesRelacionadas = notificacaoRepository.findByAlerta(alerta);
 
@@ -531,6 +832,10 @@ public class NotificacaoService {
                     log.info("Notificação ID: {} já está como não lida", notificacao.getId());
                 }
             }
+            if (notificacoesResetadas > 0) {
+                notificacaoRepository.flush();
+                contadorNotificacaoService.recontar(usuariosDasNotificacoes(notificacoesRelacionadas));
+            }
 
             log.info("Reset concluído: {} notificações resetadas para o Alerta ID: {}", 
                 notificacoesResetadas, alerta.getId());
@@ -541,4 +846,11 @@ public class NotificacaoService {
             throw new SmartValidityException("Erro ao resetar status de lida das notificações relacionadas ao alerta: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    private List<String> usuariosDasNotificacoes(List<Notificacao> notificacoes) {
+        return notificacoes.stream()
+                .map(notificacao -> notificacao.getUsuario().getId())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+}
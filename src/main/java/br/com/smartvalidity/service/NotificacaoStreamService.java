@@ -0,0 +1,360 @@
+package br.com.smartvalidity.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import br.com.smartvalidity.model.dto.NotificacaoDTO;
+import br.com.smartvalidity.model.entity.ContadorNotificacao;
+import br.com.smartvalidity.model.enums.TipoEventoNotificacao;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Canal SSE das notificações: substitui o polling do sininho. As alterações publicadas
+ * como {@link NotificacaoDTO.Alteracao} são entregues depois do commit, por um pool
+ * próprio, aos usuários conectados a este nó. Alterações que chegam enquanto a entrega
+ * anterior não começou são agrupadas, e os contadores são lidos em lote, uma vez por
+ * usuário a cada entrega. O heartbeat, no mesmo pool, também relê os contadores e avisa
+ * quando mudaram, o que cobre alterações feitas em outras réplicas.
+ */
+@Service
+@Slf4j
+public class NotificacaoStreamService {
+
+    private static final String EVENTO = "notificacao";
+    // usuários por consulta de contadores no heartbeat e nas entregas
+    private static final int LOTE_CONTADORES = 500;
+    // alterações distintas aguardando entrega; acima disso são descartadas até o próximo heartbeat
+    private static final int MAX_ALTERACOES_PENDENTES = 1000;
+
+    @Autowired
+    private ContadorNotificacaoService contadorNotificacaoService;
+
+    @Value("${notificacoes.stream.max-conexoes-por-usuario:3}")
+    private int maxConexoesPorUsuario;
+
+    @Value("${notificacoes.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${notificacoes.stream.threads:2}")
+    private int threads;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, List<Conexao>> conexoesPorUsuario = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean heartbeatEmCurso = new AtomicBoolean();
+
+    // alterações ainda não entregues, agrupadas por tipo e notificação; guardada pelo próprio mapa
+    private final Map<String, Pendente> alteracoesPendentes = new LinkedHashMap<>();
+    private final AtomicBoolean entregaAgendada = new AtomicBoolean();
+
+    @PostConstruct
+    public void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1000),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "notificacao-stream-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+        conexoesPorUsuario.values().forEach(conexoes -> conexoes.forEach(conexao -> conexao.emitter.complete()));
+    }
+
+    /**
+     * Abre uma conexão para o usuário; acima do limite, a mais antiga é encerrada.
+     */
+    public SseEmitter conectar(String usuarioId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Conexao conexao = new Conexao(emitter);
+
+        List<Conexao> excedentes = new ArrayList<>();
+        conexoesPorUsuario.compute(usuarioId, (id, conexoes) -> {
+            List<Conexao> lista = conexoes != null ? conexoes : new CopyOnWriteArrayList<>();
+            lista.add(conexao);
+            while (lista.size() > maxConexoesPorUsuario) {
+                excedentes.add(lista.remove(0));
+            }
+            return lista;
+        });
+        excedentes.forEach(antiga -> antiga.emitter.complete());
+
+        emitter.onCompletion(() -> desconectar(usuarioId, conexao));
+        emitter.onTimeout(() -> desconectar(usuarioId, conexao));
+        emitter.onError(erro -> desconectar(usuarioId, conexao));
+
+        // o primeiro evento já leva os contadores, dispensando a consulta inicial do sininho
+        enviar(usuarioId, List.of(conexao), evento(usuarioId, TipoEventoNotificacao.CONTADORES, null, null));
+        return emitter;
+    }
+
+    /**
+     * Junta a alteração às que aguardam entrega e agenda uma entrega, se ainda não houver uma na fila.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterar(NotificacaoDTO.Alteracao alteracao) {
+        if (conexoesPorUsuario.isEmpty()) {
+            return;
+        }
+        synchronized (alteracoesPendentes) {
+            String chave = alteracao.getTipo() + ":" + alteracao.getNotificacaoId();
+            Pendente pendente = alteracoesPendentes.get(chave);
+            if (pendente == null) {
+                if (alteracoesPendentes.size() >= MAX_ALTERACOES_PENDENTES) {
+                    // o próximo heartbeat reenvia os contadores
+                    log.warn("Alterações do stream de notificações acumuladas; alteração {} descartada",
+                            alteracao.getTipo());
+                    return;
+                }
+                pendente = new Pendente(alteracao.getTipo(), alteracao.getNotificacaoId());
+                alteracoesPendentes.put(chave, pendente);
+            }
+            pendente.juntar(alteracao);
+        }
+        if (!entregaAgendada.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::entregarPendentes);
+        } catch (RejectedExecutionException e) {
+            entregaAgendada.set(false);
+            log.warn("Fila do stream de notificações cheia; entrega adiada para a próxima alteração");
+        }
+    }
+
+    /**
+     * Só agenda a rodada no pool do stream: os envios e a leitura dos contadores não ocupam a
+     * thread do agendador, compartilhada com as demais tarefas. Uma rodada ainda em curso faz
+     * a seguinte ser pulada.
+     */
+    @Scheduled(fixedDelayString = "${notificacoes.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        if (conexoesPorUsuario.isEmpty() || !heartbeatEmCurso.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    enviarHeartbeat();
+                } finally {
+                    heartbeatEmCurso.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            heartbeatEmCurso.set(false);
+            log.warn("Fila do stream de notificações cheia; heartbeat adiado");
+        }
+    }
+
+    public int getTotalConexoes() {
+        return conexoesPorUsuario.values().stream().mapToInt(List::size).sum();
+    }
+
+    private void enviarHeartbeat() {
+        List<String> usuarios = new ArrayList<>(conexoesPorUsuario.keySet());
+        for (int inicio = 0; inicio < usuarios.size(); inicio += LOTE_CONTADORES) {
+            List<String> lote = usuarios.subList(inicio, Math.min(inicio + LOTE_CONTADORES, usuarios.size()));
+            Map<String, ContadorNotificacao> contadores;
+            try {
+                contadores = contadorNotificacaoService.buscarTodos(lote);
+            } catch (Exception e) {
+                log.warn("Erro ao ler os contadores para o heartbeat do stream: {}", e.getMessage());
+                continue;
+            }
+            for (String usuarioId : lote) {
+                List<Conexao> conexoes = conexoesPorUsuario.get(usuarioId);
+                if (conexoes == null || conexoes.isEmpty()) {
+                    continue;
+                }
+                try {
+                    NotificacaoDTO.Evento evento = evento(TipoEventoNotificacao.CONTADORES, null, null,
+                            contadores.get(usuarioId));
+                    List<Conexao> desatualizadas = new ArrayList<>();
+                    for (Conexao conexao : conexoes) {
+                        if (conexao.contadoresMudaram(evento)) {
+                            desatualizadas.add(conexao);
+                        } else {
+                            conexao.enviarComentario();
+                        }
+                    }
+                    enviar(usuarioId, desatualizadas, evento);
+                } catch (Exception e) {
+                    log.warn("Erro no heartbeat do stream do usuário {}: {}", usuarioId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void entregarPendentes() {
+        // liberada antes de retirar: o que chegar daqui em diante agenda a entrega seguinte
+        entregaAgendada.set(false);
+        List<Pendente> pendentes;
+        synchronized (alteracoesPendentes) {
+            pendentes = new ArrayList<>(alteracoesPendentes.values());
+            alteracoesPendentes.clear();
+        }
+        if (pendentes.isEmpty()) {
+            return;
+        }
+
+        Set<String> afetados = new LinkedHashSet<>();
+        for (Pendente pendente : pendentes) {
+            afetados.addAll(pendente.usuarios != null ? pendente.usuarios : conexoesPorUsuario.keySet());
+        }
+        afetados.retainAll(conexoesPorUsuario.keySet());
+
+        List<String> usuarios = new ArrayList<>(afetados);
+        for (int inicio = 0; inicio < usuarios.size(); inicio += LOTE_CONTADORES) {
+            List<String> lote = usuarios.subList(inicio, Math.min(inicio + LOTE_CONTADORES, usuarios.size()));
+            Map<String, ContadorNotificacao> contadores;
+            try {
+                contadores = contadorNotificacaoService.buscarTodos(lote);
+            } catch (Exception e) {
+                log.warn("Erro ao ler os contadores para entregar alterações do stream: {}", e.getMessage());
+                continue;
+            }
+            for (String usuarioId : lote) {
+                List<Conexao> conexoes = conexoesPorUsuario.get(usuarioId);
+                if (conexoes == null || conexoes.isEmpty()) {
+                    continue;
+                }
+                try {
+                    for (Pendente pendente : pendentes) {
+                        if (pendente.usuarios == null || pendente.usuarios.contains(usuarioId)) {
+                            enviar(usuarioId, conexoes, evento(pendente.tipo, pendente.alertas,
+                                    pendente.notificacaoId, contadores.get(usuarioId)));
+                        }
+                    }
+                } catch (Exception e) {
+                    log.warn("Erro ao entregar evento de notificação ao usuário {}: {}", usuarioId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private NotificacaoDTO.Evento evento(String usuarioId, TipoEventoNotificacao tipo, Collection<Integer> alertas,
+            Long notificacaoId) {
+        return evento(tipo, alertas, notificacaoId, contadorNotificacaoService.buscar(usuarioId));
+    }
+
+    private NotificacaoDTO.Evento evento(TipoEventoNotificacao tipo, Collection<Integer> alertas, Long notificacaoId,
+            ContadorNotificacao contador) {
+        return NotificacaoDTO.Evento.builder()
+                .tipo(tipo)
+                .alertas(alertas)
+                .notificacaoId(notificacaoId)
+                .pendentes(contador.getPendentes())
+                .naoLidas(contador.getPendentes() + contador.getPersonalizadasNaoLidas())
+                .build();
+    }
+
+    private void enviar(String usuarioId, List<Conexao> conexoes, NotificacaoDTO.Evento evento) {
+        for (Conexao conexao : conexoes) {
+            if (!conexao.enviar(evento)) {
+                desconectar(usuarioId, conexao);
+            }
+        }
+    }
+
+    private void desconectar(String usuarioId, Conexao conexao) {
+        conexoesPorUsuario.computeIfPresent(usuarioId, (id, conexoes) -> {
+            conexoes.remove(conexao);
+            return conexoes.isEmpty() ? null : conexoes;
+        });
+    }
+
+    /**
+     * Alterações de mesmo tipo e notificação aguardando entrega, com os alertas e os usuários
+     * somados; usuários nulos significa todos os conectados.
+     */
+    private static class Pendente {
+        private final TipoEventoNotificacao tipo;
+        private final Long notificacaoId;
+        private Set<Integer> alertas;
+        private Set<String> usuarios = new HashSet<>();
+
+        private Pendente(TipoEventoNotificacao tipo, Long notificacaoId) {
+            this.tipo = tipo;
+            this.notificacaoId = notificacaoId;
+        }
+
+        private void juntar(NotificacaoDTO.Alteracao alteracao) {
+            if (alteracao.getAlertas() != null) {
+                if (alertas == null) {
+                    alertas = new LinkedHashSet<>();
+                }
+                alertas.addAll(alteracao.getAlertas());
+            }
+            if (alteracao.getUsuarios() == null) {
+                usuarios = null;
+            } else if (usuarios != null) {
+                usuarios.addAll(alteracao.getUsuarios());
+            }
+        }
+    }
+
+    private static class Conexao {
+        private final SseEmitter emitter;
+        private volatile long ultimosPendentes = -1;
+        private volatile long ultimasNaoLidas = -1;
+
+        private Conexao(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // o SseEmitter não aceita envios concorrentes
+        private synchronized boolean enviar(NotificacaoDTO.Evento evento) {
+            try {
+                emitter.send(SseEmitter.event().name(EVENTO).data(evento, MediaType.APPLICATION_JSON));
+                ultimosPendentes = evento.getPendentes();
+                ultimasNaoLidas = evento.getNaoLidas();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+
+        private boolean contadoresMudaram(NotificacaoDTO.Evento evento) {
+            return ultimosPendentes != evento.getPendentes() || ultimasNaoLidas != evento.getNaoLidas();
+        }
+
+        private synchronized void enviarComentario() {
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
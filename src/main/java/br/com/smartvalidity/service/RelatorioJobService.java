@@ -0,0 +1,338 @@
+package br.com.smartvalidity.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.smartvalidity.exception.SmartValidityException;
+import br.com.smartvalidity.model.dto.MuralDTO;
+import br.com.smartvalidity.model.entity.RelatorioJob;
+import br.com.smartvalidity.model.enums.SituacaoRelatorio;
+import br.com.smartvalidity.model.repository.RelatorioJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gera os relatórios do mural em segundo plano: a solicitação devolve um job, um
+ * pool limitado do nó que a recebeu escreve a planilha e o arquivo pronto é
+ * reaproveitado por solicitações idênticas do mesmo usuário até expirar. Só quem
+ * solicitou consulta e baixa o job.
+ * <p>
+ * A situação dos jobs fica na tabela relatorio_job e os arquivos em
+ * relatorio.jobs.diretorio, para que a consulta e o download funcionem em qualquer
+ * réplica. Sem diretório configurado, usa um temporário deste nó, o que só serve com
+ * uma réplica.
+ */
+@Service
+@Slf4j
+public class RelatorioJobService {
+
+    private static final String MENSAGEM_ERRO = "Não foi possível gerar o relatório. Tente novamente.";
+
+    // intervalo mínimo entre gravações do progresso no banco
+    private static final long INTERVALO_PROGRESSO_MS = 1000;
+
+    @Autowired
+    private MuralService muralService;
+
+    @Autowired
+    private RelatorioJobRepository relatorioJobRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${relatorio.jobs.threads:2}")
+    private int threads;
+
+    @Value("${relatorio.jobs.fila:20}")
+    private int capacidadeFila;
+
+    @Value("${relatorio.jobs.cache-minutos:10}")
+    private long minutosCache;
+
+    @Value("${relatorio.jobs.diretorio:}")
+    private String diretorioConfigurado;
+
+    // jobs pendentes ou em andamento há mais tempo que isso são dados como perdidos (o nó caiu)
+    @Value("${relatorio.jobs.timeout-minutos:30}")
+    private long minutosTimeout;
+
+    private ThreadPoolExecutor executor;
+    private Path diretorio;
+    private boolean diretorioTemporario;
+
+    // jobs deste nó ainda em execução, marcados com erro no desligamento
+    private final Set<String> emExecucao = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        diretorioTemporario = diretorioConfigurado == null || diretorioConfigurado.isBlank();
+        diretorio = diretorioTemporario
+                ? Files.createTempDirectory("smartvalidity-relatorios")
+                : Files.createDirectories(Path.of(diretorioConfigurado));
+        AtomicInteger contador = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "relatorio-job-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        log.info("Jobs de relatório usando {} threads e diretório {}{}", threads, diretorio,
+                diretorioTemporario ? " (temporário, só para uma réplica)" : "");
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+        try {
+            // as escritas interrompidas ainda fecham os arquivos antes de o diretório ser apagado
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        for (String id : emExecucao) {
+            try {
+                relatorioJobRepository.falhar(id, MENSAGEM_ERRO, agora, agora.plusMinutes(minutosCache));
+            } catch (Exception e) {
+                log.warn("Não foi possível encerrar o relatório {}: {}", id, e.getMessage());
+            }
+        }
+        if (diretorioTemporario) {
+            apagarDiretorio();
+        }
+    }
+
+    /**
+     * Valida e enfileira o relatório. Se uma solicitação idêntica do mesmo usuário ainda
+     * estiver em andamento ou com o arquivo válido em disco, devolve o mesmo job.
+     */
+    public MuralDTO.RelatorioJob solicitar(MuralDTO.RelatorioRequest request, String usuarioId)
+            throws SmartValidityException {
+        String chave = calcularChave(request, usuarioId);
+
+        Optional<RelatorioJob> existente = buscarReaproveitavel(chave);
+        if (existente.isPresent()) {
+            log.debug("Relatório {} reaproveitado para solicitação idêntica", existente.get().getId());
+            return toDTO(existente.get());
+        }
+
+        MuralDTO.RelatorioPreparado preparado = muralService.prepararRelatorio(request);
+
+        RelatorioJob job = new RelatorioJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setChave(chave);
+        job.setIdUsuario(usuarioId);
+        job.setFormato(preparado.getFormato());
+        job.setTotalLinhas(preparado.getTotalItens());
+        job.setDataHoraCriacao(LocalDateTime.now());
+        try {
+            // a chave é única: de solicitações simultâneas, em qualquer réplica, só uma grava o job
+            relatorioJobRepository.saveAndFlush(job);
+        } catch (DataIntegrityViolationException e) {
+            return relatorioJobRepository.findByChave(chave)
+                    .map(this::toDTO)
+                    .orElseThrow(() -> new SmartValidityException("Não foi possível registrar o relatório. Tente novamente."));
+        }
+
+        emExecucao.add(job.getId());
+        try {
+            executor.execute(() -> executar(job, request, preparado));
+        } catch (RejectedExecutionException e) {
+            emExecucao.remove(job.getId());
+            relatorioJobRepository.deleteById(job.getId());
+            throw new SmartValidityException("Muitos relatórios em processamento. Tente novamente em instantes.");
+        }
+        return toDTO(job);
+    }
+
+    public MuralDTO.RelatorioJob consultar(String id, String usuarioId) throws SmartValidityException {
+        return toDTO(buscarJob(id, usuarioId));
+    }
+
+    /**
+     * Copia o arquivo concluído para a saída, sem carregá-lo em memória.
+     */
+    public void escreverArquivo(String id, String usuarioId, OutputStream saida) throws IOException {
+        try {
+            Files.copy(buscarArquivoConcluido(id, usuarioId), saida);
+        } catch (SmartValidityException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    public Path buscarArquivoConcluido(String id, String usuarioId) throws SmartValidityException {
+        RelatorioJob job = buscarJob(id, usuarioId);
+        if (job.getSituacao() != SituacaoRelatorio.CONCLUIDO) {
+            throw new SmartValidityException("O relatório ainda não está disponível para download.");
+        }
+        Path arquivo = diretorio.resolve(job.getArquivo());
+        if (!Files.exists(arquivo)) {
+            log.warn("Arquivo do relatório {} não está em {}; o diretório é compartilhado entre as réplicas?", id, diretorio);
+            throw new SmartValidityException("Relatório não encontrado ou expirado: " + id);
+        }
+        return arquivo;
+    }
+
+    /**
+     * Roda em todas as réplicas; apagar o mesmo job ou arquivo duas vezes é inofensivo.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void removerExpirados() {
+        LocalDateTime agora = LocalDateTime.now();
+        int abandonados = relatorioJobRepository.falharAbandonados(agora.minusMinutes(minutosTimeout), MENSAGEM_ERRO,
+                agora, agora.plusMinutes(minutosCache));
+        if (abandonados > 0) {
+            log.warn("{} relatórios sem conclusão há mais de {} minutos marcados com erro", abandonados, minutosTimeout);
+        }
+        for (RelatorioJob job : relatorioJobRepository.findExpirados(agora)) {
+            excluir(job, agora);
+        }
+    }
+
+    private void executar(RelatorioJob job, MuralDTO.RelatorioRequest request, MuralDTO.RelatorioPreparado preparado) {
+        String nomeArquivo = job.getId() + "." + job.getFormato().getExtensao();
+        Path arquivo = diretorio.resolve(nomeArquivo);
+        Path parcial = diretorio.resolve(nomeArquivo + ".parcial");
+        try {
+            relatorioJobRepository.marcarProcessando(job.getId());
+            Progresso progresso = new Progresso(job.getId());
+            int linhas;
+            try (OutputStream saida = new BufferedOutputStream(Files.newOutputStream(parcial))) {
+                linhas = muralService.escreverRelatorio(request, preparado, saida, progresso::registrar);
+            }
+            Files.move(parcial, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LocalDateTime agora = LocalDateTime.now();
+            relatorioJobRepository.concluir(job.getId(), nomeArquivo, linhas, agora, agora.plusMinutes(minutosCache));
+            log.info("Relatório {} concluído: {} linhas", job.getId(), linhas);
+        } catch (Exception e) {
+            // o detalhe (SQL, E/S) fica no log; o cliente recebe uma mensagem genérica
+            log.error("Erro ao gerar relatório {}: {}", job.getId(), e.getMessage(), e);
+            apagar(parcial);
+            LocalDateTime agora = LocalDateTime.now();
+            relatorioJobRepository.falhar(job.getId(), MENSAGEM_ERRO, agora, agora.plusMinutes(minutosCache));
+        } finally {
+            emExecucao.remove(job.getId());
+        }
+    }
+
+    /**
+     * Job da chave ainda válido; um expirado que a limpeza não alcançou é excluído, liberando a chave.
+     */
+    private Optional<RelatorioJob> buscarReaproveitavel(String chave) {
+        Optional<RelatorioJob> existente = relatorioJobRepository.findByChave(chave);
+        LocalDateTime agora = LocalDateTime.now();
+        if (existente.isPresent() && existente.get().getDataHoraExpiracao() != null
+                && !existente.get().getDataHoraExpiracao().isAfter(agora)) {
+            excluir(existente.get(), agora);
+            return Optional.empty();
+        }
+        return existente;
+    }
+
+    private void excluir(RelatorioJob job, LocalDateTime agora) {
+        if (relatorioJobRepository.excluirSeExpirado(job.getId(), agora) > 0 && job.getArquivo() != null) {
+            apagar(diretorio.resolve(job.getArquivo()));
+        }
+    }
+
+    /**
+     * Job de outro usuário tem a mesma resposta de um inexistente, para não revelar que o id existe.
+     */
+    private RelatorioJob buscarJob(String id, String usuarioId) throws SmartValidityException {
+        return relatorioJobRepository.findById(id)
+                .filter(job -> Objects.equals(job.getIdUsuario(), usuarioId))
+                .orElseThrow(() -> new SmartValidityException("Relatório não encontrado ou expirado: " + id));
+    }
+
+    private String calcularChave(MuralDTO.RelatorioRequest request, String usuarioId) throws SmartValidityException {
+        try {
+            byte[] conteudo = (usuarioId + ":" + objectMapper.writeValueAsString(request)).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new SmartValidityException("Não foi possível processar a solicitação de relatório");
+        }
+    }
+
+    private MuralDTO.RelatorioJob toDTO(RelatorioJob job) {
+        return MuralDTO.RelatorioJob.builder()
+                .id(job.getId())
+                .situacao(job.getSituacao())
+                .formato(job.getFormato())
+                .linhasEscritas(job.getLinhasEscritas())
+                .totalLinhas(job.getTotalLinhas())
+                .mensagem(job.getMensagem())
+                .dataHoraCriacao(job.getDataHoraCriacao())
+                .dataHoraConclusao(job.getDataHoraConclusao())
+                .dataHoraExpiracao(job.getDataHoraExpiracao())
+                .build();
+    }
+
+    private void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.warn("Não foi possível apagar o relatório temporário {}: {}", arquivo, e.getMessage());
+        }
+    }
+
+    private void apagarDiretorio() {
+        try (Stream<Path> caminhos = Files.walk(diretorio)) {
+            caminhos.sorted(Comparator.reverseOrder()).forEach(this::apagar);
+        } catch (IOException e) {
+            log.warn("Não foi possível apagar o diretório de relatórios {}: {}", diretorio, e.getMessage());
+        }
+    }
+
+    /**
+     * Repassa o progresso da escrita ao banco, no máximo uma vez por intervalo.
+     */
+    private class Progresso {
+        private final String jobId;
+        private long ultimaGravacao = System.currentTimeMillis();
+
+        private Progresso(String jobId) {
+            this.jobId = jobId;
+        }
+
+        private void registrar(int linhas) {
+            long agora = System.currentTimeMillis();
+            if (agora - ultimaGravacao < INTERVALO_PROGRESSO_MS) {
+                return;
+            }
+            ultimaGravacao = agora;
+            relatorioJobRepository.atualizarProgresso(jobId, linhas);
+        }
+    }
+}
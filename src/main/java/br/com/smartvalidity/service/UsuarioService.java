@@ -6,12 +6,14 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import br.com.smartvalidity.auth.AuthorizationService;
+import br.com.smartvalidity.auth.UsuarioAutenticadoCache;
 import br.com.smartvalidity.exception.SmartValidityException;
 import br.com.smartvalidity.model.entity.Empresa;
 import br.com.smartvalidity.model.entity.Usuario;
@@ -22,7 +24,7 @@ import br.com.smartvalidity.model.repository.UsuarioRepository;
 import br.com.smartvalidity.model.seletor.UsuarioSeletor;
 
 @Service
-public class UsuarioService implements UserDetailsService {
+public class UsuarioService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UsuarioRepository usuarioRepository;
@@ -39,6 +41,12 @@ public class UsuarioService implements UserDetailsService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private DestinatariosAlertaService destinatariosAlertaService;
+
+    @Autowired
+    private UsuarioAutenticadoCache usuarioAutenticadoCache;
+
     private static final int TAMANHO_SENHA_CONVITE = 6;
 
     @Override
@@ -47,6 +55,18 @@ public class UsuarioService implements UserDetailsService {
                 () -> new UsernameNotFoundException("Usuário não encontrado" + username));
     }
 
+    /**
+     * Chamado pelo Spring Security após um login bem sucedido cuja senha está em um algoritmo
+     * antigo (RSA ou custo diferente): grava o novo hash, já codificado.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Usuario usuario = usuarioRepository.findByEmail(user.getUsername()).orElseThrow(
+                () -> new UsernameNotFoundException("Usuário não encontrado" + user.getUsername()));
+        usuario.setSenha(newPassword);
+        return usuarioRepository.save(usuario);
+    }
+
     public List<Usuario> buscarComSeletor(UsuarioSeletor seletor) throws SmartValidityException {
         this.authorizationService.verificarPerfilAcesso();
 
@@ -73,17 +93,24 @@ public class UsuarioService implements UserDetailsService {
     }
 
     public Usuario salvar(Usuario novoUsuario) throws SmartValidityException {
-        this.verificarEmailJaUtilizado(novoUsuario.getEmail(), novoUsuario.getId());
+        novoUsuario.setSenha(passwordEncoder.encode(novoUsuario.getSenha()));
+        return gravar(novoUsuario);
+    }
 
-        if(!this.usuarioRepository.findBySenha(novoUsuario.getSenha()).isPresent()){
-            novoUsuario.setSenha(passwordEncoder.encode(novoUsuario.getSenha()));
-        }
+    /**
+     * Grava o usuário com a senha já codificada.
+     */
+    private Usuario gravar(Usuario novoUsuario) throws SmartValidityException {
+        this.verificarEmailJaUtilizado(novoUsuario.getEmail(), novoUsuario.getId());
 
         if(novoUsuario.getPerfilAcesso() == null || novoUsuario.getPerfilAcesso().toString().isEmpty()) {
             novoUsuario.setPerfilAcesso(PerfilAcesso.OPERADOR);
         }
 
-        return usuarioRepository.save(novoUsuario);
+        Usuario salvo = usuarioRepository.save(novoUsuario);
+        destinatariosAlertaService.invalidar();
+        usuarioAutenticadoCache.invalidar(salvo.getId());
+        return salvo;
     }
 
     public Usuario alterar(String idUsuarioURL, Usuario usuarioDTO) throws SmartValidityException {
@@ -97,10 +124,12 @@ public class UsuarioService implements UserDetailsService {
         usuarioEditado.setPerfilAcesso(Optional.ofNullable(usuarioDTO.getPerfilAcesso()).orElse(usuarioEditado.getPerfilAcesso()));
         usuarioEditado.setNome(Optional.ofNullable(usuarioDTO.getNome()).orElse(usuarioEditado.getNome()));
         usuarioEditado.setEmail(Optional.ofNullable(usuarioDTO.getEmail()).orElse(usuarioEditado.getEmail()));
-        usuarioEditado.setSenha(Optional.ofNullable(usuarioDTO.getSenha()).orElse(usuarioEditado.getSenha()));
+        if (usuarioDTO.getSenha() != null) {
+            usuarioEditado.setSenha(passwordEncoder.encode(usuarioDTO.getSenha()));
+        }
         usuarioEditado.setCargo(Optional.ofNullable(usuarioDTO.getCargo()).orElse(usuarioEditado.getCargo()));
 
-        return salvar(usuarioEditado);
+        return gravar(usuarioEditado);
     }
 
     public void excluir(String id) throws SmartValidityException {
@@ -115,12 +144,16 @@ public class UsuarioService implements UserDetailsService {
                 empresa.getUsuarios().clear();
                 empresaRepository.delete(empresa); 
             }
+            // a exclusão da empresa leva junto os usuários dela
+            usuarioAutenticadoCache.invalidarTodos();
         } else {
             if (usuario.getEmpresa() != null) {
                 usuario.getEmpresa().getUsuarios().remove(usuario);
             }
             usuarioRepository.delete(usuario);
+            usuarioAutenticadoCache.invalidar(usuario.getId());
         }
+        destinatariosAlertaService.invalidar();
     }
 
     public boolean verificarSeExisteUsuarioAssinante() throws SmartValidityException {
@@ -153,10 +186,11 @@ public class UsuarioService implements UserDetailsService {
         // Verifica permissão (ASSINANTE pode convidar)
         this.authorizationService.verificarPerfilAcesso();
 
-        // Associa empresa do usuário autenticado, se existir
+        // Associa empresa do usuário autenticado, se existir; o usuário autenticado é um resumo
+        // fora da sessão, então a associação usa uma referência gerenciada da empresa
         Usuario autenticado = authorizationService.getUsuarioAutenticado();
         if (autenticado.getEmpresa() != null) {
-            usuario.setEmpresa(autenticado.getEmpresa());
+            usuario.setEmpresa(empresaRepository.getReferenceById(autenticado.getEmpresa().getId()));
         }
 
         usuario.setStatus(StatusUsuario.PENDENTE);
@@ -175,6 +209,7 @@ public class UsuarioService implements UserDetailsService {
         }
 
         Usuario salvo = usuarioRepository.save(usuario);
+        destinatariosAlertaService.invalidar();
 
         emailService.enviarSenhaAleatoria(usuario.getEmail(), senhaGerada);
 
@@ -197,8 +232,9 @@ public class UsuarioService implements UserDetailsService {
     }
 
     public Usuario atualizarPerfilUsuario(Usuario usuarioDTO) throws SmartValidityException {
-        // Buscar o usuário autenticado
-        Usuario usuarioAtual = authorizationService.getUsuarioAutenticado();
+        // Buscar o usuário autenticado; o resumo do cache não tem senha, então carrega a entidade
+        Usuario usuarioAtual = usuarioRepository.findById(authorizationService.getUsuarioAutenticado().getId())
+                .orElseThrow(() -> new SmartValidityException("Usuário não encontrado"));
         
         // Verificar se o email já está sendo usado por outro usuário
         this.verificarEmailJaUtilizado(usuarioDTO.getEmail(), usuarioAtual.getId());
@@ -208,7 +244,9 @@ public class UsuarioService implements UserDetailsService {
         usuarioAtual.setEmail(Optional.ofNullable(usuarioDTO.getEmail()).orElse(usuarioAtual.getEmail()));
         usuarioAtual.setCargo(Optional.ofNullable(usuarioDTO.getCargo()).orElse(usuarioAtual.getCargo()));
         
-        return usuarioRepository.save(usuarioAtual);
+        Usuario salvo = usuarioRepository.save(usuarioAtual);
+        usuarioAutenticadoCache.invalidar(salvo.getId());
+        return salvo;
     }
 
     public Usuario getUsuarioAutenticado() throws SmartValidityException {
@@ -0,0 +1,131 @@
+package br.com.smartvalidity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import br.com.smartvalidity.model.entity.Alerta;
+import br.com.smartvalidity.model.entity.Categoria;
+import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.entity.Notificacao;
+import br.com.smartvalidity.model.entity.Produto;
+import br.com.smartvalidity.model.entity.Usuario;
+import br.com.smartvalidity.model.enums.PerfilAcesso;
+import br.com.smartvalidity.model.enums.TipoAlerta;
+import br.com.smartvalidity.model.repository.AlertaRepository;
+import br.com.smartvalidity.model.repository.CategoriaRepository;
+import br.com.smartvalidity.model.repository.ItemProdutoRepository;
+import br.com.smartvalidity.model.repository.NotificacaoRepository;
+import br.com.smartvalidity.model.repository.ProdutoRepository;
+import br.com.smartvalidity.model.repository.UsuarioRepository;
+
+/**
+ * Massa de dados dos testes de serviço (perfil "teste", H2), gravada direto pelos repositórios
+ * para não disparar os ganchos dos serviços.
+ */
+@Component
+public class DadosTeste {
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ItemProdutoRepository itemProdutoRepository;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private NotificacaoRepository notificacaoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong sequenciaCodigoBarras = new AtomicLong(789000000000L);
+
+    public Usuario usuario(String email, PerfilAcesso perfil) {
+        Usuario usuario = new Usuario();
+        usuario.setNome("Usuário");
+        usuario.setEmail(email);
+        usuario.setSenha("{noop}senha");
+        usuario.setCargo("Repositor");
+        usuario.setPerfilAcesso(perfil);
+        return usuarioRepository.save(usuario);
+    }
+
+    public ItemProduto item(LocalDateTime dataVencimento) {
+        Categoria categoria = new Categoria();
+        categoria.setNome("Categoria");
+        categoria = categoriaRepository.save(categoria);
+
+        Produto produto = new Produto();
+        produto.setCodigoBarras(codigoBarras());
+        produto.setDescricao("Produto");
+        produto.setMarca("Marca");
+        produto.setUnidadeMedida("UN");
+        produto.setQuantidade(1);
+        produto.setCategoria(categoria);
+        produto = produtoRepository.save(produto);
+
+        ItemProduto item = new ItemProduto();
+        item.setLote("L1");
+        item.setPrecoVenda(1.0);
+        item.setDataFabricacao(dataVencimento.minusMonths(6));
+        item.setDataRecebimento(dataVencimento.minusMonths(5));
+        item.setDataVencimento(dataVencimento);
+        item.setProduto(produto);
+        return itemProdutoRepository.save(item);
+    }
+
+    public Alerta alerta(TipoAlerta tipo, ItemProduto item) {
+        Alerta alerta = new Alerta();
+        alerta.setTitulo("Alerta");
+        alerta.setTipo(tipo);
+        alerta.setDataHoraDisparo(LocalDateTime.now());
+        alerta.setItemProduto(item);
+        return alertaRepository.save(alerta);
+    }
+
+    public Notificacao notificacao(Alerta alerta, Usuario usuario) {
+        Notificacao notificacao = new Notificacao();
+        notificacao.setAlerta(alerta);
+        notificacao.setUsuario(usuario);
+        return notificacaoRepository.save(notificacao);
+    }
+
+    /**
+     * EAN-13 único, com dígito verificador válido.
+     */
+    private String codigoBarras() {
+        String base = String.valueOf(sequenciaCodigoBarras.incrementAndGet());
+        int soma = 0;
+        for (int i = 0; i < base.length(); i++) {
+            soma += (base.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return base + (10 - soma % 10) % 10;
+    }
+
+    /**
+     * Esvazia todas as tabelas, para que cada teste comece do zero no contexto compartilhado.
+     */
+    public void limpar() {
+        List<String> tabelas = jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.tables WHERE table_schema = 'PUBLIC'", String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            tabelas.forEach(tabela -> jdbcTemplate.execute("TRUNCATE TABLE " + tabela));
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package br.com.smartvalidity.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import br.com.smartvalidity.exception.SmartValidityException;
+import br.com.smartvalidity.model.entity.Usuario;
+import br.com.smartvalidity.model.enums.PerfilAcesso;
+import br.com.smartvalidity.model.repository.UsuarioRepository;
+import br.com.smartvalidity.service.UsuarioService;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("teste")
+class AuthenticationServiceTest {
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private UsuarioAutenticadoCache usuarioAutenticadoCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Usuario> criados = new ArrayList<>();
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void iniciar() {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        usuarioAutenticadoCache.invalidarTodos();
+    }
+
+    @AfterEach
+    void limpar() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+        usuarioRepository.deleteAll(criados);
+        criados.clear();
+    }
+
+    @Test
+    void resolveUsuarioDoCacheEmRequisicoesSeguintes() throws Exception {
+        Usuario usuario = criarUsuario("cache@teste.com", PerfilAcesso.OPERADOR);
+        autenticar(usuario.getEmail(), usuario.getId());
+
+        novaRequisicao();
+        estatisticas.clear();
+        Usuario primeiro = authenticationService.getUsuarioAutenticado();
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+
+        novaRequisicao();
+        estatisticas.clear();
+        Usuario segundo = authenticationService.getUsuarioAutenticado();
+        assertThat(estatisticas.getPrepareStatementCount()).isZero();
+
+        assertThat(segundo.getId()).isEqualTo(usuario.getId());
+        assertThat(segundo).isNotSameAs(primeiro);
+        assertThat(segundo.getSenha()).isNull();
+    }
+
+    @Test
+    void mesmaRequisicaoDevolveMesmoUsuario() throws Exception {
+        Usuario usuario = criarUsuario("requisicao@teste.com", PerfilAcesso.OPERADOR);
+        autenticar(usuario.getEmail(), usuario.getId());
+
+        novaRequisicao();
+        Usuario primeiro = authenticationService.getUsuarioAutenticado();
+        estatisticas.clear();
+        Usuario segundo = authenticationService.getUsuarioAutenticado();
+
+        assertThat(segundo).isSameAs(primeiro);
+        assertThat(estatisticas.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void operadorAlteraPropriaContaEAlteracaoInvalidaCache() throws Exception {
+        Usuario usuario = criarUsuario("proprio@teste.com", PerfilAcesso.OPERADOR);
+        autenticar(usuario.getEmail(), usuario.getId());
+
+        novaRequisicao();
+        assertThat(authenticationService.getUsuarioAutenticado().getNome()).isEqualTo("Usuário");
+
+        novaRequisicao();
+        Usuario alteracao = new Usuario();
+        alteracao.setNome("Nome alterado");
+        usuarioService.alterar(usuario.getId(), alteracao);
+
+        novaRequisicao();
+        assertThat(authenticationService.getUsuarioAutenticado().getNome()).isEqualTo("Nome alterado");
+    }
+
+    @Test
+    void operadorNaoAlteraContaDeOutroUsuario() {
+        Usuario operador = criarUsuario("operador@teste.com", PerfilAcesso.OPERADOR);
+        Usuario outro = criarUsuario("outro@teste.com", PerfilAcesso.OPERADOR);
+        autenticar(operador.getEmail(), operador.getId());
+
+        novaRequisicao();
+        Usuario alteracao = new Usuario();
+        alteracao.setNome("Nome alterado");
+
+        assertThatThrownBy(() -> usuarioService.alterar(outro.getId(), alteracao))
+                .isInstanceOf(SmartValidityException.class)
+                .hasMessageContaining("Somente o portador da conta");
+    }
+
+    @Test
+    void rejeitaTokenComIdDeOutroUsuario() {
+        Usuario usuario = criarUsuario("recriado@teste.com", PerfilAcesso.OPERADOR);
+        autenticar(usuario.getEmail(), "id-da-conta-excluida");
+
+        novaRequisicao();
+
+        assertThatThrownBy(() -> authenticationService.getUsuarioAutenticado())
+                .isInstanceOf(SmartValidityException.class)
+                .hasMessage("Token de autenticação inválido!");
+    }
+
+    private Usuario criarUsuario(String email, PerfilAcesso perfil) {
+        Usuario usuario = new Usuario();
+        usuario.setNome("Usuário");
+        usuario.setEmail(email);
+        usuario.setSenha("{noop}senha");
+        usuario.setCargo("Repositor");
+        usuario.setPerfilAcesso(perfil);
+        usuario = usuarioRepository.save(usuario);
+        criados.add(usuario);
+        return usuario;
+    }
+
+    private void autenticar(String email, String idUsuario) {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject(email)
+                .claim("idUsuario", idUsuario)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new JwtAuthenticationToken(jwt, AuthorityUtils.createAuthorityList("SCOPE_OPERADOR")));
+    }
+
+    private void novaRequisicao() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.smartvalidity.auth;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.com.smartvalidity.exception.SmartValidityException;
+import br.com.smartvalidity.model.entity.Usuario;
+import br.com.smartvalidity.model.enums.PerfilAcesso;
+import br.com.smartvalidity.model.repository.UsuarioRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorizationServiceTest {
+
+    private static final String ID = "3f1c2a9e-0000-4000-8000-000000000001";
+
+    @Mock
+    private AuthenticationService authenticationService;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @InjectMocks
+    private AuthorizationService authorizationService;
+
+    @Test
+    void portadorDaContaPassaComIdCarregadoSeparadamente() throws Exception {
+        // o usuário autenticado vem do cache e o da URL do banco: mesmo id, instâncias diferentes
+        when(usuarioRepository.findById(ID)).thenReturn(Optional.of(usuario(new String(ID), PerfilAcesso.OPERADOR)));
+        when(authenticationService.getUsuarioAutenticado()).thenReturn(usuario(new String(ID), PerfilAcesso.OPERADOR));
+
+        assertThatCode(() -> authorizationService.verifiarCredenciaisUsuario(ID)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void outroUsuarioSemPerfilAssinanteERejeitado() throws Exception {
+        when(usuarioRepository.findById(ID)).thenReturn(Optional.of(usuario(ID, PerfilAcesso.OPERADOR)));
+        when(authenticationService.getUsuarioAutenticado()).thenReturn(usuario("outro-id", PerfilAcesso.ADMIN));
+
+        assertThatThrownBy(() -> authorizationService.verifiarCredenciaisUsuario(ID))
+                .isInstanceOf(SmartValidityException.class)
+                .hasMessageContaining("Somente o portador da conta");
+    }
+
+    @Test
+    void assinanteAlteraQualquerConta() throws Exception {
+        when(usuarioRepository.findById(ID)).thenReturn(Optional.of(usuario(ID, PerfilAcesso.OPERADOR)));
+        when(authenticationService.getUsuarioAutenticado()).thenReturn(usuario("outro-id", PerfilAcesso.ASSINANTE));
+
+        assertThatCode(() -> authorizationService.verifiarCredenciaisUsuario(ID)).doesNotThrowAnyException();
+    }
+
+    private static Usuario usuario(String id, PerfilAcesso perfil) {
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        usuario.setPerfilAcesso(perfil);
+        return usuario;
+    }
+}
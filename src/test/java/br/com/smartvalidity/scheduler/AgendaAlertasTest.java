@@ -0,0 +1,91 @@
+package br.com.smartvalidity.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.smartvalidity.DadosTeste;
+import br.com.smartvalidity.model.entity.Alerta;
+import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.entity.LeaseAgendamento;
+import br.com.smartvalidity.model.enums.PerfilAcesso;
+import br.com.smartvalidity.model.enums.TipoAlerta;
+import br.com.smartvalidity.model.repository.AlertaRepository;
+import br.com.smartvalidity.model.repository.LeaseAgendamentoRepository;
+import br.com.smartvalidity.service.DestinatariosAlertaService;
+
+@SpringBootTest
+@ActiveProfiles("teste")
+class AgendaAlertasTest {
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private AgendaAlertas agendaAlertas;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private LeaseAgendamentoRepository leaseAgendamentoRepository;
+
+    @Autowired
+    private DestinatariosAlertaService destinatariosAlertaService;
+
+    @Autowired
+    private Clock relogio;
+
+    @BeforeEach
+    void iniciar() {
+        dados.limpar();
+        destinatariosAlertaService.invalidar();
+        dados.usuario("agenda@teste.com", PerfilAcesso.ADMIN);
+    }
+
+    @AfterEach
+    void limpar() {
+        destinatariosAlertaService.invalidar();
+        dados.limpar();
+    }
+
+    @Test
+    void viradaIncluiItensGravadosEmOutraReplica() {
+        // gravado direto no repositório: não está na agenda deste nó
+        ItemProduto item = dados.item(LocalDate.now(relogio).plusDays(1).atTime(12, 0));
+
+        aplicarVirada(LocalDate.now(relogio));
+
+        assertThat(alertaRepository.findByItemProdutoAndExcluidoFalse(item))
+                .extracting(Alerta::getTipo)
+                .containsExactly(TipoAlerta.VENCIMENTO_AMANHA);
+    }
+
+    @Test
+    void viradaFicaComODetentorDaConcessao() {
+        ItemProduto item = dados.item(LocalDate.now(relogio).plusDays(1).atTime(12, 0));
+        LeaseAgendamento lease = new LeaseAgendamento("TRANSICOES_ALERTAS");
+        lease.setDetentor("outro-no");
+        lease.setDataHoraAquisicao(LocalDateTime.now());
+        lease.setExpiraEm(LocalDateTime.now().plusMinutes(10).withNano(0));
+        leaseAgendamentoRepository.saveAndFlush(lease);
+
+        aplicarVirada(LocalDate.now(relogio));
+
+        assertThat(alertaRepository.findByItemProdutoAndExcluidoFalse(item)).isEmpty();
+    }
+
+    private void aplicarVirada(LocalDate dia) {
+        ReflectionTestUtils.invokeMethod(agendaAlertas, "aplicarVirada", dia);
+    }
+}
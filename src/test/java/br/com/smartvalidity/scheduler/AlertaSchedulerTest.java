@@ -0,0 +1,80 @@
+package br.com.smartvalidity.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.smartvalidity.DadosTeste;
+import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.enums.PerfilAcesso;
+import br.com.smartvalidity.model.repository.AlertaRepository;
+import br.com.smartvalidity.service.AlertaLoteService;
+
+@SpringBootTest
+@ActiveProfiles("teste")
+class AlertaSchedulerTest {
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private AlertaScheduler alertaScheduler;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private Clock relogio;
+
+    @SpyBean
+    private AlertaLoteService alertaLoteService;
+
+    @BeforeEach
+    void iniciar() {
+        dados.limpar();
+        dados.usuario("varredura@teste.com", PerfilAcesso.ADMIN);
+        // uma partição com lotes de 2 itens
+        ReflectionTestUtils.setField(alertaScheduler, "particoes", 1);
+        ReflectionTestUtils.setField(alertaScheduler, "tamanhoLote", 2);
+    }
+
+    @AfterEach
+    void limpar() {
+        ReflectionTestUtils.setField(alertaScheduler, "particoes", 4);
+        ReflectionTestUtils.setField(alertaScheduler, "tamanhoLote", 500);
+        dados.limpar();
+    }
+
+    @Test
+    void loteSemAlteracaoNaoEscondeORestoDaFaixa() {
+        List<ItemProduto> itens = new ArrayList<>();
+        for (int dias = 5; dias >= 1; dias--) {
+            itens.add(dados.item(LocalDateTime.now(relogio).minusDays(dias)));
+        }
+        // o primeiro lote (os dois vencidos há mais tempo) não muda nada
+        doReturn(new AlertaLoteService.ResultadoLote(0, 0))
+                .doCallRealMethod()
+                .when(alertaLoteService).sincronizar(anyCollection(), any());
+
+        alertaScheduler.verificarVencimentosECriarAlertas();
+
+        for (ItemProduto item : itens.subList(2, itens.size())) {
+            assertThat(alertaRepository.findByItemProdutoAndExcluidoFalse(item)).hasSize(1);
+        }
+    }
+}
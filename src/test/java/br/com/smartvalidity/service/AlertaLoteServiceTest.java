@@ -0,0 +1,105 @@
+package br.com.smartvalidity.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.smartvalidity.DadosTeste;
+import br.com.smartvalidity.model.entity.Alerta;
+import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.enums.PerfilAcesso;
+import br.com.smartvalidity.model.enums.TipoAlerta;
+import br.com.smartvalidity.model.repository.AlertaRepository;
+import br.com.smartvalidity.model.repository.ItemProdutoRepository;
+
+@SpringBootTest
+@ActiveProfiles("teste")
+class AlertaLoteServiceTest {
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private AlertaLoteService alertaLoteService;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private ItemProdutoRepository itemProdutoRepository;
+
+    @Autowired
+    private DestinatariosAlertaService destinatariosAlertaService;
+
+    @Autowired
+    private Clock relogio;
+
+    private LocalDate hoje;
+
+    @BeforeEach
+    void iniciar() {
+        hoje = LocalDate.now(relogio);
+        dados.limpar();
+        destinatariosAlertaService.invalidar();
+        dados.usuario("lote@teste.com", PerfilAcesso.ADMIN);
+    }
+
+    @AfterEach
+    void limpar() {
+        destinatariosAlertaService.invalidar();
+        dados.limpar();
+    }
+
+    @Test
+    void personalizadoNaoImpedeAlertaDeVencimento() {
+        ItemProduto vencido = dados.item(LocalDateTime.now(relogio).minusDays(3));
+        Alerta personalizado = dados.alerta(TipoAlerta.PERSONALIZADO, vencido);
+        assertThat(pendentesNaVarredura()).containsExactly(vencido.getId());
+
+        AlertaLoteService.ResultadoLote resultado = alertaLoteService.sincronizar(List.of(vencido.getId()), hoje);
+
+        assertThat(resultado.getCriados()).isEqualTo(1);
+        assertThat(alertaRepository.findByItemProdutoAndExcluidoFalse(vencido))
+                .extracting(Alerta::getTipo)
+                .containsExactlyInAnyOrder(TipoAlerta.PERSONALIZADO, TipoAlerta.VENCIMENTO_ATRASO);
+        assertThat(alertaRepository.findById(personalizado.getId()).orElseThrow().getTitulo()).isEqualTo("Alerta");
+        // a varredura seguinte já não seleciona o item
+        assertThat(pendentesNaVarredura()).isEmpty();
+    }
+
+    @Test
+    void tipoDesatualizadoEhAtualizadoSemTocarNoPersonalizado() {
+        ItemProduto vencido = dados.item(LocalDateTime.now(relogio).minusDays(3));
+        Alerta personalizado = dados.alerta(TipoAlerta.PERSONALIZADO, vencido);
+        Alerta automatico = dados.alerta(TipoAlerta.VENCIMENTO_AMANHA, vencido);
+
+        AlertaLoteService.ResultadoLote resultado = alertaLoteService.sincronizar(List.of(vencido.getId()), hoje);
+
+        assertThat(resultado.getCriados()).isZero();
+        assertThat(resultado.getAtualizados()).isEqualTo(1);
+        Alerta atualizado = alertaRepository.findById(automatico.getId()).orElseThrow();
+        assertThat(atualizado.getTipo()).isEqualTo(TipoAlerta.VENCIMENTO_ATRASO);
+        assertThat(atualizado.getTitulo()).isEqualTo("Produto vencido");
+        assertThat(alertaRepository.findById(personalizado.getId()).orElseThrow().getTipo())
+                .isEqualTo(TipoAlerta.PERSONALIZADO);
+        assertThat(pendentesNaVarredura()).isEmpty();
+    }
+
+    private List<String> pendentesNaVarredura() {
+        return itemProdutoRepository.findSemAlertaVigente(hoje.atStartOfDay(), hoje.plusDays(1).atStartOfDay(),
+                hoje.plusDays(2).atStartOfDay(), "", "", null, null, Limit.of(500)).stream()
+                .map(ItemProdutoRepository.VencimentoItem::getId)
+                .toList();
+    }
+}
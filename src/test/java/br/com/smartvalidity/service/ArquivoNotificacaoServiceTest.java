@@ -0,0 +1,145 @@
+package br.com.smartvalidity.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.smartvalidity.DadosTeste;
+import br.com.smartvalidity.model.dto.AlertaDTO;
+import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.entity.Notificacao;
+import br.com.smartvalidity.model.entity.NotificacaoArquivo;
+import br.com.smartvalidity.model.entity.Usuario;
+import br.com.smartvalidity.model.enums.PerfilAcesso;
+import br.com.smartvalidity.model.enums.TipoAlerta;
+import br.com.smartvalidity.model.repository.ItemProdutoRepository;
+import br.com.smartvalidity.model.repository.NotificacaoArquivoRepository;
+import br.com.smartvalidity.model.repository.NotificacaoRepository;
+
+@SpringBootTest
+@ActiveProfiles("teste")
+class ArquivoNotificacaoServiceTest {
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private ArquivoNotificacaoService arquivoNotificacaoService;
+
+    @Autowired
+    private ItemProdutoRepository itemProdutoRepository;
+
+    @Autowired
+    private NotificacaoRepository notificacaoRepository;
+
+    @Autowired
+    private NotificacaoArquivoRepository notificacaoArquivoRepository;
+
+    @Autowired
+    private NotificacaoService notificacaoService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void iniciar() {
+        dados.limpar();
+        usuario = dados.usuario("arquivo@teste.com", PerfilAcesso.OPERADOR);
+        // lotes pequenos e qualquer notificação já criada conta como antiga
+        ReflectionTestUtils.setField(arquivoNotificacaoService, "tamanhoLote", 2);
+        ReflectionTestUtils.setField(arquivoNotificacaoService, "idadeDias", 0);
+    }
+
+    @AfterEach
+    void limpar() {
+        ReflectionTestUtils.setField(arquivoNotificacaoService, "tamanhoLote", 1000);
+        ReflectionTestUtils.setField(arquivoNotificacaoService, "idadeDias", 90);
+        dados.limpar();
+    }
+
+    @Test
+    void arquivaEmVariosLotesPulandoAsNaoElegiveis() {
+        List<Long> elegiveis = new ArrayList<>();
+        List<Long> mantidas = new ArrayList<>();
+        // lidas de itens inspecionados intercaladas com lidas de itens ainda pendentes
+        for (int i = 0; i < 5; i++) {
+            elegiveis.add(notificacaoLida(true).getId());
+            mantidas.add(notificacaoLida(false).getId());
+        }
+
+        arquivoNotificacaoService.arquivarAgendado();
+
+        assertThat(notificacaoArquivoRepository.findAll())
+                .extracting(NotificacaoArquivo::getId)
+                .containsExactlyInAnyOrderElementsOf(elegiveis);
+        assertThat(notificacaoRepository.findAll())
+                .extracting(Notificacao::getId)
+                .containsExactlyInAnyOrderElementsOf(mantidas);
+    }
+
+    @Test
+    void historicoDeResolvidasPaginaPelasDuasTabelas() throws Exception {
+        LocalDateTime base = LocalDateTime.now().withNano(0).minusDays(1);
+        // inspeções intercaladas: as ímpares serão arquivadas, as pares ficam ativas (não lidas)
+        List<Long> esperado = new ArrayList<>();
+        List<Notificacao> ativas = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Notificacao notificacao = notificacaoLida(true);
+            ItemProduto item = notificacao.getAlerta().getItemProduto();
+            item.setDataHoraInspecao(base.plusMinutes(i));
+            itemProdutoRepository.save(item);
+            if (i % 2 == 0) {
+                ativas.add(notificacao);
+            }
+            esperado.add(0, notificacao.getId());
+        }
+        ativas.forEach(notificacao -> notificacao.setLida(false));
+        notificacaoRepository.saveAll(ativas);
+        arquivoNotificacaoService.arquivarAgendado();
+        assertThat(notificacaoArquivoRepository.count()).isEqualTo(3);
+
+        List<Long> lidos = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            AlertaDTO.Pagina pagina = notificacaoService.buscarNotificacoesProdutosInspecionados(usuario, cursor, 4);
+            pagina.getItens().forEach(dto -> lidos.add(dto.getId().longValue()));
+            cursor = pagina.getProximoCursor();
+            assertThat(pagina.isTemProximaPagina()).isEqualTo(cursor != null);
+            paginas++;
+        } while (cursor != null);
+
+        assertThat(paginas).isEqualTo(2);
+        assertThat(lidos).containsExactlyElementsOf(esperado);
+        // lista antiga, dentro de uma sessão como na requisição (open-in-view)
+        List<AlertaDTO.Listagem> lista = transactionTemplate.execute(
+                status -> notificacaoService.buscarNotificacoesProdutosInspecionados(usuario));
+        assertThat(lista)
+                .extracting(dto -> dto.getId().longValue())
+                .containsExactlyElementsOf(esperado);
+    }
+
+    private Notificacao notificacaoLida(boolean inspecionado) {
+        ItemProduto item = dados.item(LocalDateTime.now().plusDays(3));
+        Notificacao notificacao = dados.notificacao(dados.alerta(TipoAlerta.VENCIMENTO_AMANHA, item), usuario);
+        if (inspecionado) {
+            item.setInspecionado(true);
+            itemProdutoRepository.save(item);
+        }
+        notificacao.setLida(true);
+        return notificacaoRepository.save(notificacao);
+    }
+}
@@ -0,0 +1,191 @@
+package br.com.smartvalidity.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.smartvalidity.DadosTeste;
+import br.com.smartvalidity.model.dto.NotificacaoDTO;
+import br.com.smartvalidity.model.entity.Alerta;
+import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.entity.Notificacao;
+import br.com.smartvalidity.model.entity.Usuario;
+import br.com.smartvalidity.model.enums.PerfilAcesso;
+import br.com.smartvalidity.model.enums.TipoAlerta;
+import br.com.smartvalidity.model.enums.TipoEventoNotificacao;
+import br.com.smartvalidity.model.repository.ContadorNotificacaoRepository;
+import br.com.smartvalidity.model.repository.ItemProdutoRepository;
+import br.com.smartvalidity.model.repository.NotificacaoRepository;
+
+@SpringBootTest
+@ActiveProfiles("teste")
+@RecordApplicationEvents
+class ContadorNotificacaoServiceTest {
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private ContadorNotificacaoService contadorNotificacaoService;
+
+    @Autowired
+    private ContadorNotificacaoRepository contadorNotificacaoRepository;
+
+    @Autowired
+    private NotificacaoService notificacaoService;
+
+    @Autowired
+    private MuralService muralService;
+
+    @Autowired
+    private ItemProdutoRepository itemProdutoRepository;
+
+    @Autowired
+    private NotificacaoRepository notificacaoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEvents eventos;
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void iniciar() {
+        dados.limpar();
+        usuario = dados.usuario("contador@teste.com", PerfilAcesso.OPERADOR);
+    }
+
+    @AfterEach
+    void limpar() {
+        dados.limpar();
+    }
+
+    @Test
+    void inspecaoDeUmItemDescontaPendentesComSessaoAberta() throws Exception {
+        ItemProduto item = dados.item(LocalDateTime.now().plusDays(3));
+        dados.notificacao(dados.alerta(TipoAlerta.VENCIMENTO_AMANHA, item), usuario);
+        contadorNotificacaoService.recontar(List.of(usuario.getId()));
+        assertThat(contadorNotificacaoService.contarPendentes(usuario.getId())).isEqualTo(1);
+
+        // uma transação em volta simula a sessão aberta na view: o item lido antes da inspeção é o mesmo objeto
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                itemProdutoRepository.findById(item.getId()).orElseThrow();
+                muralService.marcarInspecionado(item.getId(), "Promoção", null, "teste");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(itemProdutoRepository.findById(item.getId()).orElseThrow().getInspecionado()).isTrue();
+        assertThat(contadorNotificacaoService.contarPendentes(usuario.getId())).isZero();
+    }
+
+    @Test
+    void itemJaInspecionadoNaoDescontaDeNovo() throws Exception {
+        ItemProduto item = dados.item(LocalDateTime.now().plusDays(3));
+        ItemProduto outro = dados.item(LocalDateTime.now().plusDays(4));
+        dados.notificacao(dados.alerta(TipoAlerta.VENCIMENTO_AMANHA, item), usuario);
+        dados.notificacao(dados.alerta(TipoAlerta.VENCIMENTO_AMANHA, outro), usuario);
+        contadorNotificacaoService.recontar(List.of(usuario.getId()));
+
+        muralService.marcarInspecionado(item.getId(), "Promoção", null, "teste");
+        muralService.marcarInspecionado(item.getId(), "Promoção", null, "teste");
+
+        assertThat(contadorNotificacaoService.contarPendentes(usuario.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void inspecaoAvisaSoOsUsuariosAfetados() throws Exception {
+        Usuario semNotificacao = dados.usuario("outro@teste.com", PerfilAcesso.OPERADOR);
+        ItemProduto item = dados.item(LocalDateTime.now().plusDays(3));
+        dados.notificacao(dados.alerta(TipoAlerta.VENCIMENTO_AMANHA, item), usuario);
+        contadorNotificacaoService.recontar(List.of(usuario.getId(), semNotificacao.getId()));
+        eventos.clear();
+
+        muralService.marcarInspecionado(item.getId(), "Promoção", null, "teste");
+        muralService.marcarInspecionado(item.getId(), "Promoção", null, "teste");
+
+        // a segunda inspeção não muda contador nenhum e não gera aviso
+        assertThat(eventos.stream(NotificacaoDTO.Alteracao.class))
+                .singleElement()
+                .satisfies(alteracao -> {
+                    assertThat(alteracao.getTipo()).isEqualTo(TipoEventoNotificacao.CONTADORES);
+                    assertThat(alteracao.getUsuarios()).containsExactly(usuario.getId());
+                });
+    }
+
+    @Test
+    void leiturasConcorrentesDaMesmaNotificacaoDescontamUmaVez() throws Exception {
+        ItemProduto item = dados.item(LocalDateTime.now().plusDays(30));
+        Notificacao lida = dados.notificacao(dados.alerta(TipoAlerta.PERSONALIZADO, item), usuario);
+        dados.notificacao(dados.alerta(TipoAlerta.PERSONALIZADO, item), usuario);
+        contadorNotificacaoService.recontar(List.of(usuario.getId()));
+        assertThat(personalizadasNaoLidas()).isEqualTo(2);
+
+        int cliques = 8;
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(cliques);
+        try {
+            List<Future<Boolean>> resultados = new ArrayList<>();
+            for (int i = 0; i < cliques; i++) {
+                Callable<Boolean> clique = () -> {
+                    largada.await();
+                    return notificacaoService.marcarComoLida(lida.getId(), usuario);
+                };
+                resultados.add(executor.submit(clique));
+            }
+            largada.countDown();
+            for (Future<Boolean> resultado : resultados) {
+                assertThat(resultado.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(notificacaoRepository.findById(lida.getId()).orElseThrow().getLida()).isTrue();
+        assertThat(personalizadasNaoLidas()).isEqualTo(1);
+    }
+
+    @Test
+    void recontagemConfereComContadoresMantidos() throws Exception {
+        ItemProduto item = dados.item(LocalDateTime.now().plusDays(3));
+        Alerta personalizado = dados.alerta(TipoAlerta.PERSONALIZADO, item);
+        Notificacao notificacao = dados.notificacao(personalizado, usuario);
+        dados.notificacao(dados.alerta(TipoAlerta.VENCIMENTO_AMANHA, item), usuario);
+        contadorNotificacaoService.recontar(List.of(usuario.getId()));
+
+        notificacaoService.marcarComoLida(notificacao.getId(), usuario);
+        muralService.marcarInspecionado(item.getId(), "Avaria/Quebra", null, "teste");
+        long pendentes = contadorNotificacaoService.contarPendentes(usuario.getId());
+        long personalizadas = personalizadasNaoLidas();
+
+        contadorNotificacaoService.recontar(List.of(usuario.getId()));
+
+        assertThat(contadorNotificacaoService.contarPendentes(usuario.getId())).isEqualTo(pendentes).isZero();
+        assertThat(personalizadasNaoLidas()).isEqualTo(personalizadas).isZero();
+    }
+
+    private long personalizadasNaoLidas() {
+        return contadorNotificacaoRepository.findById(usuario.getId()).orElseThrow().getPersonalizadasNaoLidas();
+    }
+}
@@ -0,0 +1,104 @@
+package br.com.smartvalidity.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.smartvalidity.DadosTeste;
+import br.com.smartvalidity.model.entity.Usuario;
+import br.com.smartvalidity.model.enums.PerfilAcesso;
+import br.com.smartvalidity.model.repository.UsuarioRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("teste")
+class DestinatariosAlertaServiceTest {
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private DestinatariosAlertaService destinatariosAlertaService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void iniciar() {
+        dados.limpar();
+        destinatariosAlertaService.invalidar();
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // confere o banco a cada uso, como se o intervalo de conferência já tivesse passado
+        ReflectionTestUtils.setField(destinatariosAlertaService, "conferenciaMs", 0L);
+    }
+
+    @AfterEach
+    void limpar() {
+        ReflectionTestUtils.setField(destinatariosAlertaService, "conferenciaMs", 30000L);
+        destinatariosAlertaService.invalidar();
+        dados.limpar();
+    }
+
+    @Test
+    void enxergaUsuarioCriadoEmOutroNo() {
+        Usuario existente = dados.usuario("existente@teste.com", PerfilAcesso.OPERADOR);
+        assertThat(destinatariosAlertaService.buscarTodosIds()).containsExactly(existente.getId());
+
+        // gravado direto no repositório, sem passar pelo UsuarioService deste nó
+        Usuario novo = dados.usuario("novo@teste.com", PerfilAcesso.OPERADOR);
+
+        assertThat(destinatariosAlertaService.buscarTodosIds()).containsExactlyInAnyOrder(existente.getId(), novo.getId());
+    }
+
+    @Test
+    void esqueceUsuarioExcluidoEmOutroNo() {
+        Usuario mantido = dados.usuario("mantido@teste.com", PerfilAcesso.OPERADOR);
+        Usuario excluido = dados.usuario("excluido@teste.com", PerfilAcesso.OPERADOR);
+        assertThat(destinatariosAlertaService.buscarTodosIds()).hasSize(2);
+
+        usuarioRepository.delete(excluido);
+
+        assertThat(destinatariosAlertaService.buscarTodosIds()).containsExactly(mantido.getId());
+    }
+
+    @Test
+    void semAlteracaoReaproveitaCadastroComUmaConsultaLeve() {
+        dados.usuario("estavel@teste.com", PerfilAcesso.OPERADOR);
+        destinatariosAlertaService.buscarTodosIds();
+
+        estatisticas.clear();
+        destinatariosAlertaService.buscarTodosIds();
+
+        // só a conferência (contagem e última criação), sem recarregar a lista
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void recarregaAoFimDaValidade() {
+        Usuario usuario = dados.usuario("perfil@teste.com", PerfilAcesso.OPERADOR);
+        assertThat(destinatariosAlertaService.buscarIdsTodasEmpresas(PerfilAcesso.ADMIN)).isEmpty();
+
+        // troca de perfil em outro nó: não muda a conferência, só a validade garante a recarga
+        usuario.setPerfilAcesso(PerfilAcesso.ADMIN);
+        usuarioRepository.save(usuario);
+        ReflectionTestUtils.setField(destinatariosAlertaService, "validadeMs", 0L);
+        try {
+            assertThat(destinatariosAlertaService.buscarIdsTodasEmpresas(PerfilAcesso.ADMIN)).containsExactly(usuario.getId());
+        } finally {
+            ReflectionTestUtils.setField(destinatariosAlertaService, "validadeMs", 300000L);
+        }
+    }
+}
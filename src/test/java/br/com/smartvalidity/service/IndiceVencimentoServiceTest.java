@@ -0,0 +1,126 @@
+package br.com.smartvalidity.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.smartvalidity.DadosTeste;
+import br.com.smartvalidity.model.dto.MuralDTO;
+import br.com.smartvalidity.model.entity.ItemProduto;
+import br.com.smartvalidity.model.repository.ItemProdutoRepository;
+
+@SpringBootTest
+@ActiveProfiles("teste")
+class IndiceVencimentoServiceTest {
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private IndiceVencimentoService indiceVencimentoService;
+
+    @Autowired
+    private MuralService muralService;
+
+    @Autowired
+    private ItemProdutoRepository itemProdutoRepository;
+
+    @Autowired
+    private Clock relogio;
+
+    @BeforeEach
+    void iniciar() {
+        dados.limpar();
+        indiceVencimentoService.reconstruir();
+    }
+
+    @AfterEach
+    void limpar() {
+        dados.limpar();
+        indiceVencimentoService.reconstruir();
+    }
+
+    @Test
+    void atualizacaoIncrementalTrazItemCriadoEmOutroNo() {
+        // gravado direto no repositório, sem passar pelo ItemProdutoService deste nó
+        ItemProduto item = dados.item(LocalDateTime.now(relogio).plusDays(2));
+        assertThat(idsProximosVencer()).doesNotContain(item.getId());
+
+        indiceVencimentoService.atualizar();
+
+        assertThat(idsProximosVencer()).contains(item.getId());
+    }
+
+    @Test
+    void itemMovidoEmOutroNoSaiDaAbaAntigaAntesDaAtualizacao() {
+        ItemProduto item = dados.item(LocalDate.now(relogio).atTime(23, 59));
+        indiceVencimentoService.atualizar();
+        assertThat(idsVencemHoje()).contains(item.getId());
+
+        item.setDataVencimento(LocalDateTime.now(relogio).plusDays(3));
+        itemProdutoRepository.save(item);
+
+        // o índice ainda aponta para hoje, mas o vencimento lido do banco não é mais da aba
+        assertThat(idsVencemHoje()).doesNotContain(item.getId());
+
+        indiceVencimentoService.atualizar();
+
+        assertThat(idsProximosVencer()).contains(item.getId());
+        assertThat(indiceVencimentoService.buscarVencemHoje(LocalDate.now(relogio))).doesNotContain(item.getId());
+    }
+
+    @Test
+    void itemExcluidoEmOutroNoNaoApareceNaAba() {
+        ItemProduto item = dados.item(LocalDateTime.now(relogio).minusDays(1));
+        indiceVencimentoService.atualizar();
+        assertThat(muralService.getVencidos()).extracting(MuralDTO.Listagem::getId).contains(item.getId());
+
+        itemProdutoRepository.deleteById(item.getId());
+
+        assertThat(muralService.getVencidos()).extracting(MuralDTO.Listagem::getId).doesNotContain(item.getId());
+    }
+
+    @Test
+    void indiceGuardaSoAJanelaDasAbas() {
+        ItemProduto antigo = dados.item(LocalDateTime.now(relogio).minusYears(1));
+        ItemProduto ontem = dados.item(LocalDateTime.now(relogio).minusDays(1));
+        ItemProduto hoje = dados.item(LocalDate.now(relogio).atTime(23, 59));
+        ItemProduto distante = dados.item(LocalDateTime.now(relogio).plusMonths(6));
+
+        indiceVencimentoService.reconstruir();
+
+        assertThat(indiceVencimentoService.getMetricas().getTotalItens()).isEqualTo(1);
+        assertThat(idsVencemHoje()).containsExactly(hoje.getId());
+        // os vencidos vêm do banco, em ordem de vencimento
+        assertThat(muralService.getVencidos()).extracting(MuralDTO.Listagem::getId)
+                .containsExactly(antigo.getId(), ontem.getId());
+
+        // item movido para fora da janela deixa o índice na atualização seguinte
+        distante.setDataVencimento(LocalDateTime.now(relogio).plusDays(3));
+        itemProdutoRepository.save(distante);
+        hoje.setDataVencimento(LocalDateTime.now(relogio).plusMonths(6));
+        itemProdutoRepository.save(hoje);
+        indiceVencimentoService.atualizar();
+
+        assertThat(indiceVencimentoService.getMetricas().getTotalItens()).isEqualTo(1);
+        assertThat(idsProximosVencer()).containsExactly(distante.getId());
+    }
+
+    private List<String> idsProximosVencer() {
+        return muralService.getProximosVencer().stream().map(MuralDTO.Listagem::getId).toList();
+    }
+
+    private List<String> idsVencemHoje() {
+        return muralService.getVencemHoje().stream().map(MuralDTO.Listagem::getId).toList();
+    }
+}
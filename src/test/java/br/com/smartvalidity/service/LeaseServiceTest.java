@@ -0,0 +1,119 @@
+package br.com.smartvalidity.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.smartvalidity.DadosTeste;
+import br.com.smartvalidity.model.entity.LeaseAgendamento;
+import br.com.smartvalidity.model.repository.LeaseAgendamentoRepository;
+
+@SpringBootTest
+@ActiveProfiles("teste")
+class LeaseServiceTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private LeaseAgendamentoRepository leaseAgendamentoRepository;
+
+    @BeforeEach
+    void iniciar() {
+        dados.limpar();
+    }
+
+    @AfterEach
+    void limpar() {
+        dados.limpar();
+    }
+
+    @Test
+    void primeiraExecucaoCriaALinhaEExecuta() {
+        AtomicInteger execucoes = new AtomicInteger();
+
+        assertThat(leaseService.executarComLease("teste-criacao", TTL, execucoes::incrementAndGet)).isTrue();
+        assertThat(leaseService.executarComLease("teste-criacao", TTL, execucoes::incrementAndGet)).isTrue();
+
+        assertThat(execucoes).hasValue(2);
+        LeaseAgendamento lease = leaseAgendamentoRepository.findById("teste-criacao").orElseThrow();
+        assertThat(lease.getDetentor()).isNotBlank().isNotEqualTo("outro-no");
+        assertThat(lease.getExpiraEm()).isAfter(LocalDateTime.now());
+    }
+
+    @Test
+    void concessaoDeOutroNoNaoEhSobrescrita() {
+        LeaseAgendamento outro = concessaoDeOutroNo("teste-outro-no");
+        AtomicInteger execucoes = new AtomicInteger();
+
+        assertThat(leaseService.executarComLease("teste-outro-no", TTL, execucoes::incrementAndGet)).isFalse();
+
+        assertThat(execucoes).hasValue(0);
+        LeaseAgendamento gravada = leaseAgendamentoRepository.findById("teste-outro-no").orElseThrow();
+        assertThat(gravada.getDetentor()).isEqualTo("outro-no");
+        assertThat(gravada.getExpiraEm()).isEqualTo(outro.getExpiraEm());
+    }
+
+    @Test
+    void tarefaLongaRenovaAConcessaoEntreOsLotes() throws Exception {
+        // TTL curto: cada lote abaixo já passou de um quarto dele e a renovação vai ao banco
+        Duration ttl = Duration.ofMillis(400);
+        leaseService.executarComLease("teste-renovacao", ttl, () -> {
+            for (int lote = 0; lote < 4; lote++) {
+                dormir(150);
+                assertThat(leaseService.renovar("teste-renovacao", ttl)).isTrue();
+            }
+        });
+
+        // 600 ms depois da aquisição, a concessão continua deste nó e válida
+        LeaseAgendamento lease = leaseAgendamentoRepository.findById("teste-renovacao").orElseThrow();
+        assertThat(lease.getExpiraEm()).isAfter(LocalDateTime.now());
+        assertThat(lease.getDataHoraRenovacao()).isAfter(lease.getDataHoraAquisicao());
+    }
+
+    @Test
+    void renovacaoFalhaSeOutroNoAssumiu() {
+        Duration ttl = Duration.ofMillis(400);
+        AtomicInteger lotes = new AtomicInteger();
+        leaseService.executarComLease("teste-perda", ttl, () -> {
+            dormir(150);
+            concessaoDeOutroNo("teste-perda");
+            while (leaseService.renovar("teste-perda", ttl)) {
+                lotes.incrementAndGet();
+            }
+        });
+
+        assertThat(lotes).hasValue(0);
+        assertThat(leaseAgendamentoRepository.findById("teste-perda").orElseThrow().getDetentor()).isEqualTo("outro-no");
+    }
+
+    private LeaseAgendamento concessaoDeOutroNo(String nome) {
+        LeaseAgendamento lease = leaseAgendamentoRepository.findById(nome).orElseGet(() -> new LeaseAgendamento(nome));
+        lease.setDetentor("outro-no");
+        lease.setDataHoraAquisicao(LocalDateTime.now());
+        lease.setExpiraEm(LocalDateTime.now().plusMinutes(10).withNano(0));
+        return leaseAgendamentoRepository.saveAndFlush(lease);
+    }
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package br.com.smartvalidity.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.smartvalidity.model.dto.NotificacaoDTO;
+import br.com.smartvalidity.model.entity.ContadorNotificacao;
+import br.com.smartvalidity.model.enums.TipoEventoNotificacao;
+
+@ExtendWith(MockitoExtension.class)
+class NotificacaoStreamServiceTest {
+
+    @Mock
+    private ContadorNotificacaoService contadorNotificacaoService;
+
+    private NotificacaoStreamService notificacaoStreamService;
+
+    @BeforeEach
+    void iniciar() {
+        notificacaoStreamService = new NotificacaoStreamService();
+        ReflectionTestUtils.setField(notificacaoStreamService, "contadorNotificacaoService", contadorNotificacaoService);
+        ReflectionTestUtils.setField(notificacaoStreamService, "maxConexoesPorUsuario", 3);
+        ReflectionTestUtils.setField(notificacaoStreamService, "timeoutMs", 60000L);
+        ReflectionTestUtils.setField(notificacaoStreamService, "threads", 1);
+        notificacaoStreamService.iniciar();
+
+        when(contadorNotificacaoService.buscar(anyString())).thenAnswer(invocacao -> contador(invocacao.getArgument(0)));
+        when(contadorNotificacaoService.buscarTodos(anyCollection())).thenAnswer(invocacao -> {
+            Map<String, ContadorNotificacao> contadores = new HashMap<>();
+            for (String usuarioId : invocacao.<Collection<String>>getArgument(0)) {
+                contadores.put(usuarioId, contador(usuarioId));
+            }
+            return contadores;
+        });
+    }
+
+    @AfterEach
+    void encerrar() {
+        notificacaoStreamService.encerrar();
+    }
+
+    @Test
+    void alteracoesEnfileiradasSaoEntreguesJuntasComContadoresEmLote() throws Exception {
+        notificacaoStreamService.conectar("usuario-1");
+        notificacaoStreamService.conectar("usuario-2");
+
+        // segura a única thread do pool enquanto as alterações chegam
+        CountDownLatch liberar = new CountDownLatch(1);
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(notificacaoStreamService, "executor");
+        executor.execute(() -> {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // como os lotes de alertas automáticos: CRIADAS para todos, uma por lote
+        for (int lote = 0; lote < 3; lote++) {
+            notificacaoStreamService.aoAlterar(NotificacaoDTO.Alteracao.builder()
+                    .tipo(TipoEventoNotificacao.CRIADAS)
+                    .alertas(List.of(lote * 2, lote * 2 + 1))
+                    .build());
+        }
+        notificacaoStreamService.aoAlterar(NotificacaoDTO.Alteracao.builder()
+                .tipo(TipoEventoNotificacao.CONTADORES)
+                .usuarios(List.of("usuario-1"))
+                .build());
+        liberar.countDown();
+
+        verify(contadorNotificacaoService, timeout(5000).times(1)).buscarTodos(anyCollection());
+        // só as duas conexões leram o contador individualmente
+        verify(contadorNotificacaoService, times(2)).buscar(any());
+    }
+
+    private static ContadorNotificacao contador(String usuarioId) {
+        ContadorNotificacao contador = new ContadorNotificacao();
+        contador.setIdUsuario(usuarioId);
+        return contador;
+    }
+}
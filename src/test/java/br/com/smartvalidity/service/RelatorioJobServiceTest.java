@@ -0,0 +1,219 @@
+package br.com.smartvalidity.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.smartvalidity.DadosTeste;
+import br.com.smartvalidity.exception.SmartValidityException;
+import br.com.smartvalidity.model.dto.MuralDTO;
+import br.com.smartvalidity.model.entity.RelatorioJob;
+import br.com.smartvalidity.model.enums.FormatoRelatorio;
+import br.com.smartvalidity.model.enums.SituacaoRelatorio;
+import br.com.smartvalidity.model.repository.RelatorioJobRepository;
+
+@SpringBootTest
+@ActiveProfiles("teste")
+class RelatorioJobServiceTest {
+
+    private static final String DONO = "usuario-dono";
+    private static final String OUTRO = "usuario-outro";
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private RelatorioJobRepository relatorioJobRepository;
+
+    @MockBean
+    private MuralService muralService;
+
+    private RelatorioJobService relatorioJobService;
+
+    @BeforeEach
+    void iniciar() throws Exception {
+        dados.limpar();
+        relatorioJobService = novoServico();
+
+        when(muralService.prepararRelatorio(any())).thenReturn(MuralDTO.RelatorioPreparado.builder()
+                .titulo("Relatório")
+                .totalItens(0L)
+                .formato(FormatoRelatorio.CSV)
+                .build());
+    }
+
+    @AfterEach
+    void encerrar() {
+        relatorioJobService.encerrar();
+        dados.limpar();
+    }
+
+    @Test
+    void solicitacoesIdenticasSimultaneasGeramUmJob() throws Exception {
+        int cliques = 8;
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(cliques);
+        List<String> ids = new ArrayList<>();
+        try {
+            List<Future<MuralDTO.RelatorioJob>> resultados = new ArrayList<>();
+            for (int i = 0; i < cliques; i++) {
+                Callable<MuralDTO.RelatorioJob> clique = () -> {
+                    largada.await();
+                    return relatorioJobService.solicitar(request(), DONO);
+                };
+                resultados.add(executor.submit(clique));
+            }
+            largada.countDown();
+            for (Future<MuralDTO.RelatorioJob> resultado : resultados) {
+                ids.add(resultado.get().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).containsOnly(ids.get(0));
+        verify(muralService, timeout(5000).times(1)).escreverRelatorio(any(), any(), any(), any());
+        aguardarConclusao(ids.get(0));
+        verify(muralService, times(1)).escreverRelatorio(any(), any(), any(), any());
+    }
+
+    @Test
+    void outroUsuarioNaoConsultaNemBaixaOJob() throws Exception {
+        String id = relatorioJobService.solicitar(request(), DONO).getId();
+        aguardarConclusao(id);
+
+        assertThatThrownBy(() -> relatorioJobService.consultar(id, OUTRO))
+                .isInstanceOf(SmartValidityException.class)
+                .hasMessageContaining("não encontrado");
+        assertThatThrownBy(() -> relatorioJobService.buscarArquivoConcluido(id, OUTRO))
+                .isInstanceOf(SmartValidityException.class)
+                .hasMessageContaining("não encontrado");
+        assertThat(relatorioJobService.buscarArquivoConcluido(id, DONO)).exists();
+    }
+
+    @Test
+    void mesmaSolicitacaoDeOutroUsuarioGeraOutroJob() throws Exception {
+        String doDono = relatorioJobService.solicitar(request(), DONO).getId();
+        String doOutro = relatorioJobService.solicitar(request(), OUTRO).getId();
+
+        assertThat(doOutro).isNotEqualTo(doDono);
+        assertThat(relatorioJobService.consultar(doOutro, OUTRO).getId()).isEqualTo(doOutro);
+    }
+
+    @Test
+    void solicitacaoIdenticaEmOutraReplicaRecebeOMesmoJob() throws Exception {
+        RelatorioJobService outraReplica = novoServico();
+        try {
+            String id = relatorioJobService.solicitar(request(), DONO).getId();
+
+            assertThat(outraReplica.solicitar(request(), DONO).getId()).isEqualTo(id);
+            aguardarConclusao(id);
+            assertThat(outraReplica.consultar(id, DONO).getSituacao()).isEqualTo(SituacaoRelatorio.CONCLUIDO);
+        } finally {
+            outraReplica.encerrar();
+        }
+    }
+
+    @Test
+    void erroNaGeracaoNaoExpoeODetalhe() throws Exception {
+        when(muralService.escreverRelatorio(any(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("Table 'item_produto' doesn't exist"));
+
+        String id = relatorioJobService.solicitar(request(), DONO).getId();
+        MuralDTO.RelatorioJob job = aguardarSituacao(id, SituacaoRelatorio.ERRO);
+
+        assertThat(job.getMensagem()).doesNotContain("item_produto");
+        // a chave foi liberada: a mesma solicitação gera um job novo
+        assertThat(relatorioJobService.solicitar(request(), DONO).getId()).isNotEqualTo(id);
+    }
+
+    @Test
+    void encerrarApagaODiretorioTemporario() throws Exception {
+        String id = relatorioJobService.solicitar(request(), DONO).getId();
+        aguardarConclusao(id);
+        Path diretorio = relatorioJobService.buscarArquivoConcluido(id, DONO).getParent();
+
+        relatorioJobService.encerrar();
+
+        assertThat(diretorio).doesNotExist();
+    }
+
+    @Test
+    void jobExpiradoEhRemovidoComOArquivo() throws Exception {
+        String id = relatorioJobService.solicitar(request(), DONO).getId();
+        aguardarConclusao(id);
+        Path arquivo = relatorioJobService.buscarArquivoConcluido(id, DONO);
+        RelatorioJob job = relatorioJobRepository.findById(id).orElseThrow();
+        job.setDataHoraExpiracao(LocalDateTime.now().minusMinutes(1));
+        relatorioJobRepository.save(job);
+
+        relatorioJobService.removerExpirados();
+
+        assertThat(relatorioJobRepository.findById(id)).isEmpty();
+        assertThat(arquivo).doesNotExist();
+    }
+
+    /**
+     * Instância própria, como a de uma réplica, ligada ao mesmo banco.
+     */
+    private RelatorioJobService novoServico() throws Exception {
+        RelatorioJobService servico = new RelatorioJobService();
+        ReflectionTestUtils.setField(servico, "muralService", muralService);
+        ReflectionTestUtils.setField(servico, "relatorioJobRepository", relatorioJobRepository);
+        ReflectionTestUtils.setField(servico, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(servico, "threads", 1);
+        ReflectionTestUtils.setField(servico, "capacidadeFila", 20);
+        ReflectionTestUtils.setField(servico, "minutosCache", 10L);
+        ReflectionTestUtils.setField(servico, "minutosTimeout", 30L);
+        servico.iniciar();
+        return servico;
+    }
+
+    private MuralDTO.RelatorioRequest request() {
+        MuralDTO.RelatorioRequest request = new MuralDTO.RelatorioRequest();
+        request.setTipo("SELECIONADOS");
+        request.setIds(List.of("item-1", "item-2"));
+        request.setFormato("csv");
+        return request;
+    }
+
+    private void aguardarConclusao(String id) throws Exception {
+        aguardarSituacao(id, SituacaoRelatorio.CONCLUIDO);
+    }
+
+    private MuralDTO.RelatorioJob aguardarSituacao(String id, SituacaoRelatorio situacao) throws Exception {
+        for (int tentativa = 0; tentativa < 100; tentativa++) {
+            MuralDTO.RelatorioJob job = relatorioJobService.consultar(id, DONO);
+            if (job.getSituacao() == situacao) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Relatório " + id + " não chegou a " + situacao);
+    }
+}
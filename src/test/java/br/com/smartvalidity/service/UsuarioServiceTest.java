@@ -0,0 +1,118 @@
+package br.com.smartvalidity.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.smartvalidity.DadosTeste;
+import br.com.smartvalidity.auth.RSAPasswordEncoder;
+import br.com.smartvalidity.model.entity.Usuario;
+import br.com.smartvalidity.model.enums.PerfilAcesso;
+import br.com.smartvalidity.model.repository.UsuarioRepository;
+
+@SpringBootTest
+@ActiveProfiles("teste")
+class UsuarioServiceTest {
+
+    private static final String SENHA = "Senha@123";
+
+    @Autowired
+    private DadosTeste dados;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthenticationConfiguration authenticationConfiguration;
+
+    @Value("${jwt.public.key}")
+    private RSAPublicKey publicKey;
+
+    @Value("${jwt.private.key}")
+    private RSAPrivateKey privateKey;
+
+    private AuthenticationManager authenticationManager;
+
+    @BeforeEach
+    void iniciar() throws Exception {
+        dados.limpar();
+        authenticationManager = authenticationConfiguration.getAuthenticationManager();
+    }
+
+    @AfterEach
+    void limpar() {
+        dados.limpar();
+    }
+
+    @Test
+    void loginComSenhaRsaRegravaEmBcrypt() {
+        Usuario usuario = usuarioComSenhaRsa("legado@teste.com");
+        assertThat(usuario.getSenha()).doesNotStartWith("{");
+
+        autenticar("legado@teste.com", SENHA);
+
+        String regravada = usuarioRepository.findById(usuario.getId()).orElseThrow().getSenha();
+        assertThat(regravada).startsWith("{bcrypt}");
+        assertThat(passwordEncoder.matches(SENHA, regravada)).isTrue();
+
+        // já no algoritmo atual, o login seguinte não regrava
+        autenticar("legado@teste.com", SENHA);
+        assertThat(usuarioRepository.findById(usuario.getId()).orElseThrow().getSenha()).isEqualTo(regravada);
+    }
+
+    @Test
+    void senhaErradaNaoRegrava() {
+        Usuario usuario = usuarioComSenhaRsa("errada@teste.com");
+
+        assertThatThrownBy(() -> autenticar("errada@teste.com", "outra-senha"))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(usuarioRepository.findById(usuario.getId()).orElseThrow().getSenha()).isEqualTo(usuario.getSenha());
+    }
+
+    @Test
+    void usuarioNovoJaGravaEmBcrypt() throws Exception {
+        Usuario novo = new Usuario();
+        novo.setNome("Novo");
+        novo.setEmail("novo@teste.com");
+        novo.setSenha(SENHA);
+        novo.setCargo("Repositor");
+        novo.setPerfilAcesso(PerfilAcesso.OPERADOR);
+
+        Usuario salvo = usuarioService.salvar(novo);
+
+        assertThat(salvo.getSenha()).startsWith("{bcrypt}");
+        autenticar("novo@teste.com", SENHA);
+    }
+
+    private Usuario usuarioComSenhaRsa(String email) {
+        Usuario usuario = dados.usuario(email, PerfilAcesso.OPERADOR);
+        usuario.setSenha(new RSAPasswordEncoder(publicKey, privateKey).encode(SENHA));
+        return usuarioRepository.save(usuario);
+    }
+
+    private void autenticar(String email, String senha) {
+        assertThat(authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(email, senha))
+                .isAuthenticated()).isTrue();
+    }
+}